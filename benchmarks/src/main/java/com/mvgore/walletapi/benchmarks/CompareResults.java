@@ -0,0 +1,87 @@
+package com.mvgore.walletapi.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files ({@code -rf json}) benchmark by benchmark.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.mvgore.walletapi.benchmarks.CompareResults \
+ *     baseline/baseline.json current.json [threshold-percent]
+ * </pre>
+ *
+ * A change counts as a regression when the score moves in the bad direction by more than
+ * the threshold (default 5%) <em>and</em> the two 99.9% confidence intervals do not
+ * overlap. Exits with status 1 if there is any regression.
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+
+        boolean regressed = false;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  (new)%n", entry.getKey(), "-", now.score(), "");
+                continue;
+            }
+            double change = (now.score() - before.score()) / before.score() * 100;
+            // Time modes: lower is better; throughput modes: higher is better
+            double worse = now.lowerIsBetter() ? change : -change;
+            boolean overlapping = Math.abs(now.score() - before.score()) <= now.error() + before.error();
+            String verdict = worse > threshold && !overlapping ? "REGRESSION"
+                    : -worse > threshold && !overlapping ? "improved" : "";
+            regressed |= verdict.equals("REGRESSION");
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s %s%n",
+                    entry.getKey(), before.score(), now.score(), change, now.unit(), verdict);
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-70s (missing from current run)%n", name);
+            }
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                params.fields().forEachRemaining(p ->
+                        name.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+            }
+            String mode = run.get("mode").asText();
+            JsonNode metric = run.get("primaryMetric");
+            double error = metric.get("scoreError").asDouble();
+            results.put(name + " [" + mode + "]", new Result(
+                    metric.get("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    metric.get("scoreUnit").asText(),
+                    !mode.equals("thrpt")));
+        }
+        return results;
+    }
+
+    private record Result(double score, double error, String unit, boolean lowerIsBetter) {
+    }
+}
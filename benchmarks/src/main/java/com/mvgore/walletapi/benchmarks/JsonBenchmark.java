@@ -0,0 +1,140 @@
+package com.mvgore.walletapi.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mvgore.walletapi.dto.BatchItemRequest;
+import com.mvgore.walletapi.dto.BatchItemResult;
+import com.mvgore.walletapi.dto.TransactionPageResponse;
+import com.mvgore.walletapi.dto.TransactionView;
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+import com.mvgore.walletapi.dto.WalletOperationRequest;
+import com.mvgore.walletapi.dto.WalletOperationResponse;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encode/decode of the entity and DTOs the controllers exchange, with the mapper
+ * configured like Spring Boot's (JSR-310 module, ISO dates). Readers and writers are
+ * prebuilt, as Spring's message converters cache them. The balance response is also
+ * encoded as CBOR and protobuf, the binary formats the API negotiates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private ObjectWriter walletWriter;
+    private ObjectWriter balanceWriter;
+    private ObjectWriter cborBalanceWriter;
+    private ObjectWriter protobufBalanceWriter;
+    private ObjectWriter operationResponseWriter;
+    private ObjectWriter batchResultWriter;
+    private ObjectWriter pageWriter;
+    private ObjectReader operationRequestReader;
+    private ObjectReader batchItemReader;
+
+    private Wallet wallet;
+    private WalletBalanceResponse balance;
+    private WalletOperationResponse operationResponse;
+    private BatchItemResult batchResult;
+    private TransactionPageResponse page;
+    private byte[] operationRequestJson;
+    private byte[] batchItemJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        walletWriter = mapper.writerFor(Wallet.class);
+        balanceWriter = mapper.writerFor(WalletBalanceResponse.class);
+        cborBalanceWriter = new CBORMapper().writerFor(WalletBalanceResponse.class);
+        ProtobufMapper protobuf = new ProtobufMapper();
+        protobuf.configOverride(UUID.class).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+        protobufBalanceWriter = protobuf.writer(protobuf.generateSchemaFor(WalletBalanceResponse.class));
+        operationResponseWriter = mapper.writerFor(WalletOperationResponse.class);
+        batchResultWriter = mapper.writerFor(BatchItemResult.class);
+        pageWriter = mapper.writerFor(TransactionPageResponse.class);
+        operationRequestReader = mapper.readerFor(WalletOperationRequest.class);
+        batchItemReader = mapper.readerFor(BatchItemRequest.class);
+
+        UUID walletId = UUID.randomUUID();
+        wallet = new Wallet(walletId, Money.parse("1234.56"), UUID.randomUUID());
+        balance = new WalletBalanceResponse(walletId, Money.parse("1234.56"));
+        operationResponse = new WalletOperationResponse(walletId, Money.parse("1234.56"), Money.parse("1334.56"));
+        batchResult = BatchItemResult.applied(17, Money.parse("1334.56"));
+
+        List<TransactionView> rows = new ArrayList<>();
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (int i = 0; i < 50; i++) {
+            rows.add(new TransactionView(UUID.randomUUID(), i % 3 == 0 ? "DEBIT" : "CREDIT",
+                    Money.parse("10.00"), createdAt.minusMinutes(i)));
+        }
+        page = new TransactionPageResponse(rows, "MjAyNi0wMS0wMVQxMTowMXw2ZTdk");
+
+        operationRequestJson = "{\"amount\":100.00}".getBytes(StandardCharsets.UTF_8);
+        batchItemJson = "{\"type\":\"DEBIT\",\"amount\":12.34}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] writeWallet() throws Exception {
+        return walletWriter.writeValueAsBytes(wallet);
+    }
+
+    @Benchmark
+    public byte[] writeBalanceResponse() throws Exception {
+        return balanceWriter.writeValueAsBytes(balance);
+    }
+
+    @Benchmark
+    public byte[] writeBalanceResponseCbor() throws Exception {
+        return cborBalanceWriter.writeValueAsBytes(balance);
+    }
+
+    @Benchmark
+    public byte[] writeBalanceResponseProtobuf() throws Exception {
+        return protobufBalanceWriter.writeValueAsBytes(balance);
+    }
+
+    @Benchmark
+    public byte[] writeOperationResponse() throws Exception {
+        return operationResponseWriter.writeValueAsBytes(operationResponse);
+    }
+
+    @Benchmark
+    public byte[] writeBatchItemResult() throws Exception {
+        return batchResultWriter.writeValueAsBytes(batchResult);
+    }
+
+    @Benchmark
+    public byte[] writeTransactionPage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public WalletOperationRequest readOperationRequest() throws Exception {
+        return operationRequestReader.readValue(operationRequestJson);
+    }
+
+    @Benchmark
+    public BatchItemRequest readBatchItem() throws Exception {
+        return batchItemReader.readValue(batchItemJson);
+    }
+}
@@ -0,0 +1,70 @@
+package com.mvgore.walletapi.benchmarks;
+
+import com.mvgore.walletapi.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting and validation. {@code validateToken} is the steady state of a client
+ * reusing its token (claims cache hit); {@code validateUncachedToken} cycles through more
+ * distinct tokens than the cache holds, so every call verifies the HMAC signature.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final int DISTINCT_TOKENS = 1 << 14;
+
+    private JwtUtil jwtUtil;
+    private JwtUtil smallCacheJwtUtil;
+    private String token;
+    private String[] tokens;
+    private UUID userId;
+    private UUID walletId;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(100_000, new SimpleMeterRegistry());
+        smallCacheJwtUtil = new JwtUtil(DISTINCT_TOKENS / 16, new SimpleMeterRegistry());
+        userId = UUID.randomUUID();
+        walletId = UUID.randomUUID();
+        token = jwtUtil.generateToken("bench-user", userId, "USER", walletId);
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            tokens[i] = jwtUtil.generateToken("bench-user-" + i, UUID.randomUUID(), "USER", walletId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("bench-user", userId, "USER", walletId);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateUncachedToken(Cursor cursor) {
+        String next = tokens[cursor.next++ & (DISTINCT_TOKENS - 1)];
+        return smallCacheJwtUtil.validateToken(next);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+}
@@ -0,0 +1,51 @@
+package com.mvgore.walletapi.benchmarks;
+
+import com.mvgore.walletapi.security.JwtFilter;
+import com.mvgore.walletapi.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtFilter}: header parsing, claims (cache hit),
+ * principal and {@code SecurityContext} setup. The filter builds the principal from the
+ * token alone, so there is no user lookup to mock.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class JwtFilterBenchmark {
+
+    private JwtFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(100_000, new SimpleMeterRegistry());
+        filter = new JwtFilter(jwtUtil);
+        String token = jwtUtil.generateToken("bench-user", UUID.randomUUID(), "USER", UUID.randomUUID());
+        request = new MockHttpServletRequest("GET", "/api/v1/wallet/balance");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
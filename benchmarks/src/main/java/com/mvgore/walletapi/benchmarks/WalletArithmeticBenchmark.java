@@ -0,0 +1,47 @@
+package com.mvgore.walletapi.benchmarks;
+
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic on the entity, as the pessimistic and optimistic strategies do it:
+ * a guard comparison followed by {@code deposit}/{@code withdraw}. Amounts alternate so
+ * the balance stays bounded across iterations. Balances are {@code long} minor units, so
+ * neither operation allocates beyond the {@link Money} returned.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class WalletArithmeticBenchmark {
+
+    private final Money amount = Money.parse("12.34");
+    private Wallet wallet;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        wallet = new Wallet(UUID.randomUUID(), Money.parse("1000000.00"), UUID.randomUUID());
+    }
+
+    @Benchmark
+    public Money depositThenWithdraw() {
+        wallet.deposit(amount);
+        wallet.withdraw(amount);
+        return wallet.getBalance();
+    }
+
+    @Benchmark
+    public Money guardedWithdraw() {
+        if (wallet.canWithdraw(amount)) {
+            wallet.withdraw(amount);
+        }
+        wallet.deposit(amount);
+        return wallet.getBalance();
+    }
+}
@@ -0,0 +1,84 @@
+package com.mvgore.walletapi.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms in microseconds, plus outcome counters. Values above
+ * the trackable range are clamped rather than dropped, so a stalled request still counts
+ * at the top of the distribution.
+ */
+final class LatencyStats {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    final LongAdder insufficientFunds = new LongAdder();
+    final LongAdder negativeBalancesSeen = new LongAdder();
+    final LongAdder droppedOverload = new LongAdder();
+
+    LatencyStats() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long nanos) {
+        histograms.get(operation).recordValue(Math.min(HIGHEST_MICROS, Math.max(0, nanos / 1_000)));
+    }
+
+    void error(Operation operation) {
+        errors.get(operation).increment();
+    }
+
+    void print(PrintStream out, String title, double elapsedSeconds) {
+        out.println();
+        out.println(title);
+        out.printf("%-9s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram h = histograms.get(operation);
+            if (h.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf("%-9s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.name().toLowerCase(),
+                    h.getTotalCount(),
+                    errors.get(operation).sum(),
+                    h.getTotalCount() / elapsedSeconds,
+                    ms(h.getValueAtPercentile(50)),
+                    ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)),
+                    ms(h.getMaxValue()));
+        }
+    }
+
+    void writeHgrm(Path dir, String prefix) throws FileNotFoundException {
+        dir.toFile().mkdirs();
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getTotalCount() == 0) {
+                continue;
+            }
+            Path file = dir.resolve(prefix + "-" + entry.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(file.toFile())) {
+                // Values are in microseconds; scale the output to milliseconds
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,342 @@
+package com.mvgore.walletapi.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP load generator for the wallet API.
+ *
+ * <p><b>Open loop</b> ({@code --mode=open}) sends request {@code i} at
+ * {@code start + i / rate} whether or not earlier requests have completed, and measures
+ * latency from that intended send time. A stalled server therefore shows up as latency
+ * for every request scheduled during the stall, instead of silently lowering the request
+ * rate (coordinated omission). <b>Closed loop</b> ({@code --mode=closed}) runs a fixed
+ * number of workers that each wait for their previous response; it measures service time
+ * and is useful for finding maximum throughput, but its percentiles understate what
+ * clients at a fixed arrival rate would see.
+ *
+ * <p>After the run the test checks, for every user, that the balance equals the sum of its
+ * ledger, never went negative, and matches the operations the test saw succeed.
+ */
+public final class LoadTest {
+
+    private static final long FUNDING_CENTS = 100_000;
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private final LoadTestConfig config;
+    private final WalletClient client;
+    private final List<SimulatedUser> users = new ArrayList<>();
+    private final List<Operation> weightedOps = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.client = new WalletClient(config.baseUrl(), config.timeout());
+        for (Map.Entry<Operation, Integer> entry : config.mix().entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                weightedOps.add(entry.getKey());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        System.exit(new LoadTest(config).run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        LatencyStats setupStats = new LatencyStats();
+        long setupStart = System.nanoTime();
+        setUp(setupStats);
+        setupStats.print(System.out, "Setup (" + users.size() + " users, closed loop)",
+                (System.nanoTime() - setupStart) / 1e9);
+
+        LatencyStats warmupStats = new LatencyStats();
+        LatencyStats stats = new LatencyStats();
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        if (config.mode() == LoadTestConfig.Mode.OPEN) {
+            runOpenLoop(start, measureFrom, end, warmupStats, stats);
+        } else {
+            runClosedLoop(measureFrom, end, warmupStats, stats);
+        }
+        awaitInFlight();
+        stats.print(System.out, config.mode() + " loop, " + (config.mode() == LoadTestConfig.Mode.OPEN
+                ? config.rate() + " req/s target" : config.concurrency() + " workers"),
+                config.duration().toNanos() / 1e9);
+        System.out.printf("insufficient funds: %d, overload drops: %d%n",
+                stats.insufficientFunds.sum(), stats.droppedOverload.sum());
+        if (config.hgrmDir() != null) {
+            stats.writeHgrm(Path.of(config.hgrmDir()), config.mode().name().toLowerCase());
+            setupStats.writeHgrm(Path.of(config.hgrmDir()), "setup");
+        }
+        return checkInvariants(stats);
+    }
+
+    // Register, log in, create and fund every user, with bounded concurrency
+    private void setUp(LatencyStats stats) throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        Semaphore permits = new Semaphore(config.concurrency());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.users(); i++) {
+                SimulatedUser user = new SimulatedUser("lt-" + runId + "-" + i, "pw-" + runId + "-" + i);
+                users.add(user);
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        expectOk(timed(stats, Operation.REGISTER, client.register(user.username, user.password)));
+                        user.token = token(expectOk(timed(stats, Operation.LOGIN,
+                                client.login(user.username, user.password))));
+                        expectOk(timed(stats, Operation.CREATE, client.createWallet(user.token)));
+                        expectOk(timed(stats, Operation.CREDIT, client.credit(user.token, FUNDING_CENTS)));
+                        user.expectedCents.add(FUNDING_CENTS);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Setup failed; is the app running at " + config.baseUrl() + "?",
+                    failure.get());
+        }
+    }
+
+    private void runOpenLoop(long start, long measureFrom, long end, LatencyStats warmup, LatencyStats stats) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LatencyStats target = intended < measureFrom ? warmup : stats;
+            if (inFlight.get() >= config.maxInFlight()) {
+                // The client itself is the bottleneck; the run is not a valid measurement
+                target.droppedOverload.increment();
+                continue;
+            }
+            dispatch(target, intended);
+        }
+    }
+
+    private void runClosedLoop(long measureFrom, long end, LatencyStats warmup, LatencyStats stats) {
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < config.concurrency(); w++) {
+                workers.execute(() -> {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        LatencyStats target = now < measureFrom ? warmup : stats;
+                        try {
+                            dispatch(target, now).join();
+                        } catch (RuntimeException ignored) {
+                            // Already recorded as an error
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> dispatch(LatencyStats stats, long intendedNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = weightedOps.get(random.nextInt(weightedOps.size()));
+        SimulatedUser user = random.nextDouble() < config.hotFraction()
+                ? users.get(random.nextInt(config.hotWallets()))
+                : users.get(random.nextInt(users.size()));
+        long cents = operation == Operation.DEBIT
+                ? random.nextLong(100, 1_500)
+                : random.nextLong(100, 1_000);
+
+        CompletableFuture<HttpResponse<String>> response = switch (operation) {
+            case CREDIT -> client.credit(user.token, cents);
+            case DEBIT -> client.debit(user.token, cents);
+            case BALANCE -> client.balance(user.token);
+            case LOGIN -> client.login(user.username, user.password);
+            default -> throw new IllegalStateException(operation + " is not part of the mix");
+        };
+        inFlight.incrementAndGet();
+        return response.whenComplete((r, failure) -> {
+            inFlight.decrementAndGet();
+            stats.record(operation, System.nanoTime() - intendedNanos);
+            int status = failure == null ? r.statusCode() : 0;
+            apply(stats, operation, user, cents, status, r);
+        });
+    }
+
+    private void apply(LatencyStats stats, Operation operation, SimulatedUser user, long cents,
+                       int status, HttpResponse<String> response) {
+        boolean ok = status >= 200 && status < 300;
+        boolean rejected = status >= 400 && status < 500;
+        switch (operation) {
+            case CREDIT -> {
+                if (ok) {
+                    user.expectedCents.add(cents);
+                } else if (!rejected) {
+                    user.uncertainCreditCents.add(cents);
+                }
+            }
+            case DEBIT -> {
+                if (ok) {
+                    user.expectedCents.add(-cents);
+                } else if (status == 400) {
+                    stats.insufficientFunds.increment();
+                    return;
+                } else if (!rejected) {
+                    user.uncertainDebitCents.add(cents);
+                }
+            }
+            case BALANCE -> {
+                if (ok && balanceCents(response.body()) < 0) {
+                    stats.negativeBalancesSeen.increment();
+                }
+            }
+            case LOGIN -> {
+                if (ok) {
+                    user.token = token(response);
+                }
+            }
+            default -> {
+            }
+        }
+        if (!ok) {
+            stats.error(operation);
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + config.timeout().toNanos() * 2;
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private boolean checkInvariants(LatencyStats stats) {
+        int failures = 0;
+        int uncertain = 0;
+        for (SimulatedUser user : users) {
+            long balance = balanceCents(expectOk(client.balance(user.token)).body());
+            long ledger = ledgerCents(user);
+            long expected = user.expectedCents.sum();
+            long low = expected - user.uncertainDebitCents.sum();
+            long high = expected + user.uncertainCreditCents.sum();
+            if (low != high) {
+                uncertain++;
+            }
+            List<String> problems = new ArrayList<>();
+            if (balance != ledger) {
+                problems.add("balance " + balance + " != ledger sum " + ledger);
+            }
+            if (balance < 0) {
+                problems.add("negative balance " + balance);
+            }
+            if (balance < low || balance > high) {
+                problems.add("balance " + balance + " outside [" + low + ", " + high + "] from observed responses");
+            }
+            if (!problems.isEmpty()) {
+                failures++;
+                System.out.println("INVARIANT FAILED " + user.username + ": " + String.join("; ", problems));
+            }
+        }
+        if (stats.negativeBalancesSeen.sum() > 0) {
+            failures++;
+            System.out.println("INVARIANT FAILED: " + stats.negativeBalancesSeen.sum() + " negative balances observed");
+        }
+        System.out.printf("%nInvariants: %d users checked (%d with indeterminate outcomes), %d failures%n",
+                users.size(), uncertain, failures);
+        return failures == 0;
+    }
+
+    private long ledgerCents(SimulatedUser user) {
+        long sum = 0;
+        String cursor = null;
+        do {
+            JsonNode page = read(expectOk(client.transactions(user.token, cursor)).body());
+            for (JsonNode item : page.get("items")) {
+                long cents = cents(item.get("amount"));
+                sum += "DEBIT".equals(item.get("type").asText()) ? -cents : cents;
+            }
+            JsonNode next = page.get("nextCursor");
+            cursor = next == null || next.isNull() ? null : next.asText();
+        } while (cursor != null);
+        return sum;
+    }
+
+    private static HttpResponse<String> timed(LatencyStats stats, Operation operation,
+                                              CompletableFuture<HttpResponse<String>> request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = request.join();
+            if (response.statusCode() >= 300) {
+                stats.error(operation);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            stats.error(operation);
+            throw e;
+        } finally {
+            stats.record(operation, System.nanoTime() - start);
+        }
+    }
+
+    private static HttpResponse<String> expectOk(CompletableFuture<HttpResponse<String>> request) {
+        return expectOk(request.join());
+    }
+
+    private static HttpResponse<String> expectOk(HttpResponse<String> response) {
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(response.request().method() + " " + response.uri()
+                    + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private static String token(HttpResponse<String> response) {
+        return read(response.body()).get("token").asText();
+    }
+
+    private static long balanceCents(String body) {
+        return cents(read(body).get("balance"));
+    }
+
+    // Accepts the amount as a JSON number or a decimal string
+    private static long cents(JsonNode amount) {
+        BigDecimal value = amount.isTextual() ? new BigDecimal(amount.asText()) : amount.decimalValue();
+        return value.movePointRight(2).longValueExact();
+    }
+
+    private static JsonNode read(String body) {
+        try {
+            return JSON.readTree(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unparseable response: " + body, e);
+        }
+    }
+}
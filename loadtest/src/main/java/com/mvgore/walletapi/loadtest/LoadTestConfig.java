@@ -0,0 +1,93 @@
+package com.mvgore.walletapi.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Command-line options, all {@code --name=value}:
+ *
+ * <pre>
+ * --base-url=http://localhost:8080   --mode=open|closed
+ * --rate=1000          open loop: requests per second, paced by schedule, not by responses
+ * --concurrency=64     closed loop: workers, each waiting for its previous response
+ * --duration=60s       --warmup=10s (recorded separately, not reported)
+ * --users=200          --hot-wallets=4   --hot-fraction=0.2
+ * --mix=balance:50,credit:20,debit:20,login:10
+ * --timeout=10s        --max-in-flight=20000   --hgrm-dir=  (write .hgrm percentile files)
+ * </pre>
+ */
+record LoadTestConfig(URI baseUrl,
+                      Mode mode,
+                      int rate,
+                      int concurrency,
+                      Duration duration,
+                      Duration warmup,
+                      int users,
+                      int hotWallets,
+                      double hotFraction,
+                      Map<Operation, Integer> mix,
+                      Duration timeout,
+                      int maxInFlight,
+                      String hgrmDir) {
+
+    enum Mode {
+        OPEN, CLOSED
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new java.util.HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestConfig config = new LoadTestConfig(
+                URI.create(options.getOrDefault("base-url", "http://localhost:8080")),
+                Mode.valueOf(options.getOrDefault("mode", "open").toUpperCase()),
+                Integer.parseInt(options.getOrDefault("rate", "1000")),
+                Integer.parseInt(options.getOrDefault("concurrency", "64")),
+                duration(options.getOrDefault("duration", "60s")),
+                duration(options.getOrDefault("warmup", "10s")),
+                Integer.parseInt(options.getOrDefault("users", "200")),
+                Integer.parseInt(options.getOrDefault("hot-wallets", "4")),
+                Double.parseDouble(options.getOrDefault("hot-fraction", "0.2")),
+                mix(options.getOrDefault("mix", "balance:50,credit:20,debit:20,login:10")),
+                duration(options.getOrDefault("timeout", "10s")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "20000")),
+                options.get("hgrm-dir"));
+        if (config.hotWallets() > config.users()) {
+            throw new IllegalArgumentException("--hot-wallets cannot exceed --users");
+        }
+        return config;
+    }
+
+    // 500ms, 30s, 5m
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + value);
+        };
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            Operation operation = Operation.valueOf(kv[0].trim().toUpperCase());
+            if (!operation.inMix()) {
+                throw new IllegalArgumentException(operation + " only runs during setup");
+            }
+            weights.put(operation, Integer.parseInt(kv[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mvgore.walletapi.loadtest;
+
+enum Operation {
+    REGISTER(false),
+    LOGIN(true),
+    CREATE(false),
+    CREDIT(true),
+    DEBIT(true),
+    BALANCE(true);
+
+    private final boolean inMix;
+
+    Operation(boolean inMix) {
+        this.inMix = inMix;
+    }
+
+    // REGISTER and CREATE run once per user during setup
+    boolean inMix() {
+        return inMix;
+    }
+}
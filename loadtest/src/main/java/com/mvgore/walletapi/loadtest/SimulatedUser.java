@@ -0,0 +1,24 @@
+package com.mvgore.walletapi.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One account driven by the test, and what the test knows about its balance. Responses
+ * that prove an operation did or did not happen update {@code expectedCents}; timeouts
+ * and 5xx answers may or may not have been applied, so they widen the allowed range.
+ */
+final class SimulatedUser {
+
+    final String username;
+    final String password;
+    volatile String token;
+
+    final LongAdder expectedCents = new LongAdder();
+    final LongAdder uncertainCreditCents = new LongAdder();
+    final LongAdder uncertainDebitCents = new LongAdder();
+
+    SimulatedUser(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+}
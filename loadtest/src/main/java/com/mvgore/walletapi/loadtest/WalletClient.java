@@ -0,0 +1,88 @@
+package com.mvgore.walletapi.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Thin async client for the wallet endpoints. Requests never block the caller, so the
+ * open-loop dispatcher can keep its schedule while responses are outstanding.
+ */
+final class WalletClient {
+
+    private final HttpClient http;
+    private final URI baseUrl;
+    private final Duration timeout;
+
+    WalletClient(URI baseUrl, Duration timeout) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+    }
+
+    CompletableFuture<HttpResponse<String>> register(String username, String password) {
+        return post("/api/v1/auth/register", null, credentials(username, password));
+    }
+
+    CompletableFuture<HttpResponse<String>> login(String username, String password) {
+        return post("/api/v1/auth/login", null, credentials(username, password));
+    }
+
+    CompletableFuture<HttpResponse<String>> createWallet(String token) {
+        return post("/api/v1/wallet/create", token, "");
+    }
+
+    CompletableFuture<HttpResponse<String>> credit(String token, long cents) {
+        return post("/api/v1/wallet/credit", token, amount(cents));
+    }
+
+    CompletableFuture<HttpResponse<String>> debit(String token, long cents) {
+        return post("/api/v1/wallet/debit", token, amount(cents));
+    }
+
+    CompletableFuture<HttpResponse<String>> balance(String token) {
+        return send(request("/api/v1/wallet/balance", token).GET().build());
+    }
+
+    CompletableFuture<HttpResponse<String>> transactions(String token, String cursor) {
+        String path = "/api/v1/wallet/transactions?limit=500" + (cursor != null ? "&cursor=" + cursor : "");
+        return send(request(path, token).GET().build());
+    }
+
+    private CompletableFuture<HttpResponse<String>> post(String path, String token, String body) {
+        return send(request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(timeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Usernames are generated from [a-z0-9-], so no escaping is needed
+    private static String credentials(String username, String password) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+    }
+
+    // Amounts go on the wire as decimal strings, the format the API writes and documents
+    private static String amount(long cents) {
+        return "{\"amount\":\"" + cents / 100 + "." + String.format("%02d", cents % 100) + "\"}";
+    }
+}
@@ -140,7 +140,7 @@ exit /b !ERRORLEVEL!
 
 :run_local
 echo [*] Running application locally...
-call mvn spring-boot:run
+call mvn -pl wallet-api spring-boot:run
 exit /b !ERRORLEVEL!
 
 :health_check
@@ -63,7 +63,7 @@ test_local() {
 
 run_local() {
     print_info "Running application locally..."
-    mvn spring-boot:run
+    mvn -pl wallet-api spring-boot:run
 }
 
 health_check() {
@@ -0,0 +1,21 @@
+package com.mvgore.walletapi.reactive;
+
+import com.mvgore.walletapi.security.JwtUtil;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Non-blocking variant of the wallet API: WebFlux on a few event-loop threads, R2DBC for
+ * data access, and the servlet app's {@link JwtUtil} for tokens, so tokens minted by
+ * either app are accepted by both.
+ */
+@SpringBootApplication(exclude = ReactiveUserDetailsServiceAutoConfiguration.class)
+@Import(JwtUtil.class)
+public class ReactiveWalletApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveWalletApplication.class, args);
+    }
+}
@@ -0,0 +1,94 @@
+package com.mvgore.walletapi.reactive.auth;
+
+import com.mvgore.walletapi.auth.AuthResponse;
+import com.mvgore.walletapi.auth.LoginRequest;
+import com.mvgore.walletapi.auth.RegisterRequest;
+import com.mvgore.walletapi.dto.ErrorResponse;
+import com.mvgore.walletapi.exception.TooManyRequestsException;
+import com.mvgore.walletapi.reactive.repository.ReactiveUserRepository;
+import com.mvgore.walletapi.reactive.repository.ReactiveWalletRepository;
+import com.mvgore.walletapi.reactive.repository.UserRecord;
+import com.mvgore.walletapi.reactive.repository.WalletView;
+import com.mvgore.walletapi.security.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+public class ReactiveAuthController {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveWalletRepository walletRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtUtil jwtUtil;
+    private final Scheduler hashingScheduler;
+    private final Duration retryAfter;
+    // Compared against when the username is unknown, so both cases cost one BCrypt check
+    private final String unknownUserHash;
+
+    public ReactiveAuthController(ReactiveUserRepository userRepository,
+                                  ReactiveWalletRepository walletRepository,
+                                  PasswordEncoder passwordEncoder,
+                                  JwtUtil jwtUtil,
+                                  Scheduler passwordHashingScheduler,
+                                  @Value("${security.password-hashing.retry-after:1s}") Duration retryAfter) {
+        this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtUtil = jwtUtil;
+        this.hashingScheduler = passwordHashingScheduler;
+        this.retryAfter = retryAfter;
+        this.unknownUserHash = passwordEncoder.encode("userNotFoundPassword");
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@RequestBody RegisterRequest request) {
+        return userRepository.existsByUsername(request.getUsername())
+            .flatMap(exists -> exists
+                ? Mono.<ResponseEntity<?>>just(ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Username already exists")))
+                : hash(() -> passwordEncoder.encode(request.getPassword()))
+                    .flatMap(encoded -> userRepository.save(request.getUsername(), encoded))
+                    .<ResponseEntity<?>>thenReturn(ResponseEntity.ok("User registered successfully")));
+    }
+
+    @PostMapping("/login")
+    public Mono<AuthResponse> login(@RequestBody LoginRequest request) {
+        return userRepository.findByUsername(request.getUsername())
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(user -> hash(() -> passwordEncoder.matches(request.getPassword(),
+                    user.map(UserRecord::password).orElse(unknownUserHash)))
+                .filter(matches -> matches && user.isPresent())
+                .map(matches -> user.get()))
+            .switchIfEmpty(Mono.error(() ->
+                new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid username or password")))
+            .flatMap(user -> walletRepository.findByUserId(user.id())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(wallet -> token(user, wallet)));
+    }
+
+    private AuthResponse token(UserRecord user, Optional<WalletView> wallet) {
+        return new AuthResponse(jwtUtil.generateToken(
+            user.username(), user.id(), user.role(), wallet.map(WalletView::id).orElse(null)));
+    }
+
+    private <T> Mono<T> hash(Callable<T> work) {
+        return Mono.fromCallable(work)
+            .subscribeOn(hashingScheduler)
+            .onErrorMap(RejectedExecutionException.class, e ->
+                new TooManyRequestsException("Authentication is overloaded, retry later", retryAfter));
+    }
+}
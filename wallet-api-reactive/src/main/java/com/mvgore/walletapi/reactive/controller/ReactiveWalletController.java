@@ -0,0 +1,74 @@
+package com.mvgore.walletapi.reactive.controller;
+
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+import com.mvgore.walletapi.dto.WalletOperationRequest;
+import com.mvgore.walletapi.dto.WalletOperationResponse;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.reactive.repository.ReactiveWalletRepository;
+import com.mvgore.walletapi.reactive.repository.WalletView;
+import com.mvgore.walletapi.security.WalletPrincipal;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/wallet")
+public class ReactiveWalletController {
+
+    private final ReactiveWalletRepository walletRepository;
+
+    public ReactiveWalletController(ReactiveWalletRepository walletRepository) {
+        this.walletRepository = walletRepository;
+    }
+
+    @PostMapping("/create")
+    public Mono<WalletBalanceResponse> createWallet(@AuthenticationPrincipal WalletPrincipal principal) {
+        return walletRepository.findByUserId(principal.userId())
+                .flatMap(existing -> Mono.<WalletView>error(
+                        new IllegalStateException("Wallet already exists for this user")))
+                .switchIfEmpty(Mono.defer(() -> walletRepository.create(principal.userId())))
+                .map(ReactiveWalletController::toBalance);
+    }
+
+    @PostMapping("/credit")
+    public Mono<WalletOperationResponse> credit(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestBody WalletOperationRequest request
+    ) {
+        return requirePositive(request.getAmount())
+                .then(Mono.defer(() -> walletRepository.credit(principal.userId(), request.getAmount())))
+                .map(wallet -> WalletOperationResponse.after(
+                        wallet.id(), wallet.balance(), TransactionType.CREDIT, request.getAmount()));
+    }
+
+    @PostMapping("/debit")
+    public Mono<WalletOperationResponse> debit(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestBody WalletOperationRequest request
+    ) {
+        return requirePositive(request.getAmount())
+                .then(Mono.defer(() -> walletRepository.debit(principal.userId(), request.getAmount())))
+                .map(wallet -> WalletOperationResponse.after(
+                        wallet.id(), wallet.balance(), TransactionType.DEBIT, request.getAmount()));
+    }
+
+    @GetMapping("/balance")
+    public Mono<WalletBalanceResponse> getBalance(@AuthenticationPrincipal WalletPrincipal principal) {
+        return walletRepository.findByUserId(principal.userId())
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found for user")))
+                .map(ReactiveWalletController::toBalance);
+    }
+
+    // The credit SQL does not guard the sign, so a negative credit would be an unchecked debit
+    private static Mono<Void> requirePositive(Money amount) {
+        return amount == null || amount.signum() <= 0
+                ? Mono.error(new IllegalArgumentException("Amount must be positive"))
+                : Mono.empty();
+    }
+
+    private static WalletBalanceResponse toBalance(WalletView wallet) {
+        return new WalletBalanceResponse(wallet.id(), wallet.balance());
+    }
+}
@@ -0,0 +1,65 @@
+package com.mvgore.walletapi.reactive.exception;
+
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.TooManyRequestsException;
+import com.mvgore.walletapi.exception.WalletException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Same status codes and body shape as the servlet app's {@code GlobalExceptionHandler}.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(WalletNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleWalletNotFound(WalletNotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, "Wallet not found", ex.getMessage());
+    }
+
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientFunds(InsufficientFundsException ex) {
+        return error(HttpStatus.BAD_REQUEST, "Insufficient funds", ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException ex) {
+        return error(HttpStatus.BAD_REQUEST, "Bad request", ex.getMessage());
+    }
+
+    // Money arithmetic is overflow-checked; a balance that would leave the long range is refused
+    @ExceptionHandler(ArithmeticException.class)
+    public ResponseEntity<Map<String, Object>> handleOverflow(ArithmeticException ex) {
+        return error(HttpStatus.BAD_REQUEST, "Amount out of range", "Balance would exceed the supported range");
+    }
+
+    @ExceptionHandler(WalletException.class)
+    public ResponseEntity<Map<String, Object>> handleWalletException(WalletException ex) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, ex.getCode(), ex.getMessage());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequests(TooManyRequestsException ex) {
+        ResponseEntity<Map<String, Object>> response =
+                error(HttpStatus.TOO_MANY_REQUESTS, "Too many requests", ex.getMessage());
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String error, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", error);
+        body.put("message", message);
+        return ResponseEntity.status(status).body(body);
+    }
+}
@@ -0,0 +1,44 @@
+package com.mvgore.walletapi.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Repository
+public class ReactiveUserRepository {
+
+    private final DatabaseClient db;
+
+    public ReactiveUserRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    public Mono<UserRecord> findByUsername(String username) {
+        return db.sql("SELECT id, username, password, role FROM users WHERE username = :username")
+                .bind("username", username)
+                .map((row, meta) -> new UserRecord(
+                        row.get("id", UUID.class),
+                        row.get("username", String.class),
+                        row.get("password", String.class),
+                        row.get("role", String.class)))
+                .one();
+    }
+
+    public Mono<Boolean> existsByUsername(String username) {
+        return db.sql("SELECT 1 FROM users WHERE username = :username")
+                .bind("username", username)
+                .map((row, meta) -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Mono<Void> save(String username, String passwordHash) {
+        return db.sql("INSERT INTO users (id, username, password, role) VALUES (:id, :username, :password, 'USER')")
+                .bind("id", UUID.randomUUID())
+                .bind("username", username)
+                .bind("password", passwordHash)
+                .then();
+    }
+}
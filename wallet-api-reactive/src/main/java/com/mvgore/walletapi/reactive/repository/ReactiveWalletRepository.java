@@ -0,0 +1,93 @@
+package com.mvgore.walletapi.reactive.repository;
+
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.service.AtomicSqlWalletWriteStrategy;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Wallet access over R2DBC. Credits and debits use the same single-statement SQL as the
+ * servlet app's atomic write mode, so each operation is one round trip and one commit.
+ */
+@Repository
+public class ReactiveWalletRepository {
+
+    private static final String NUMERIC_VALUE_OUT_OF_RANGE = "22003";
+
+    private final DatabaseClient db;
+
+    public ReactiveWalletRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    public Mono<WalletView> findByUserId(UUID userId) {
+        return db.sql("SELECT id, balance, user_id FROM wallets WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map((row, meta) -> toView(row))
+                .one();
+    }
+
+    public Mono<WalletView> create(UUID userId) {
+        return db.sql("""
+                        INSERT INTO wallets (id, balance, user_id, version)
+                        VALUES (:id, 0, :userId, 0)
+                        RETURNING id, balance, user_id
+                        """)
+                .bind("id", UUID.randomUUID())
+                .bind("userId", userId)
+                .map((row, meta) -> toView(row))
+                .one();
+    }
+
+    public Mono<WalletView> credit(UUID userId, Money amount) {
+        return apply(AtomicSqlWalletWriteStrategy.CREDIT_SQL, userId, amount);
+    }
+
+    public Mono<WalletView> debit(UUID userId, Money amount) {
+        return apply(AtomicSqlWalletWriteStrategy.DEBIT_SQL, userId, amount);
+    }
+
+    private Mono<WalletView> apply(String sql, UUID userId, Money amount) {
+        return db.sql(sql)
+                .bind("userId", userId)
+                .bind("amount", amount.minorUnits())
+                .bind("transactionId", UUID.randomUUID())
+                .bind("createdAt", LocalDateTime.now())
+                .map((row, meta) -> new Outcome(toView(row), Boolean.TRUE.equals(row.get("applied", Boolean.class))))
+                .first()
+                .onErrorMap(ReactiveWalletRepository::isOutOfRange,
+                        e -> new ArithmeticException("Balance would exceed the supported range"))
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found for user")))
+                .flatMap(outcome -> outcome.applied()
+                        ? Mono.just(outcome.wallet())
+                        : Mono.error(new InsufficientFundsException("Insufficient funds")));
+    }
+
+    // bigint overflow in the UPDATE; the servlet app's Money arithmetic throws ArithmeticException for the same case
+    private static boolean isOutOfRange(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof R2dbcException r2dbc && NUMERIC_VALUE_OUT_OF_RANGE.equals(r2dbc.getSqlState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static WalletView toView(Row row) {
+        return new WalletView(
+                row.get("id", UUID.class),
+                Money.ofMinor(row.get("balance", Long.class)),
+                row.get("user_id", UUID.class));
+    }
+
+    private record Outcome(WalletView wallet, boolean applied) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.mvgore.walletapi.reactive.repository;
+
+import java.util.UUID;
+
+public record UserRecord(UUID id, String username, String password, String role) {
+}
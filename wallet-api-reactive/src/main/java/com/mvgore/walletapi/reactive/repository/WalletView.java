@@ -0,0 +1,12 @@
+package com.mvgore.walletapi.reactive.repository;
+
+import com.mvgore.walletapi.money.Money;
+
+import java.util.UUID;
+
+/**
+ * A {@code wallets} row as read back by the repository; the controller maps it to the
+ * servlet app's response records.
+ */
+public record WalletView(UUID id, Money balance, UUID userId) {
+}
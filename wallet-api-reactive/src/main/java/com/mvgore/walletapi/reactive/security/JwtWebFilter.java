@@ -0,0 +1,46 @@
+package com.mvgore.walletapi.reactive.security;
+
+import com.mvgore.walletapi.security.JwtUtil;
+import com.mvgore.walletapi.security.WalletAuthentication;
+import com.mvgore.walletapi.security.WalletPrincipal;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the servlet {@code JwtFilter}. Verification is a cached HMAC
+ * check with no I/O, so it runs inline on the event loop.
+ */
+@Component
+public class JwtWebFilter implements WebFilter {
+
+    private final JwtUtil jwtUtil;
+
+    public JwtWebFilter(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        Claims claims = jwtUtil.parseValidClaims(authHeader.substring(7));
+        WalletPrincipal principal = claims != null ? jwtUtil.toPrincipal(claims) : null;
+        if (principal == null) {
+            return chain.filter(exchange);
+        }
+
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        new WalletAuthentication(principal)));
+    }
+}
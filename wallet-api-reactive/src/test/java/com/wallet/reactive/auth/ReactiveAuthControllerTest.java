@@ -0,0 +1,88 @@
+package com.wallet.reactive.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mvgore.walletapi.auth.AuthResponse;
+import com.mvgore.walletapi.auth.LoginRequest;
+import com.mvgore.walletapi.reactive.auth.ReactiveAuthController;
+import com.mvgore.walletapi.reactive.repository.ReactiveUserRepository;
+import com.mvgore.walletapi.reactive.repository.ReactiveWalletRepository;
+import com.mvgore.walletapi.reactive.repository.UserRecord;
+import com.mvgore.walletapi.reactive.repository.WalletView;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.security.JwtUtil;
+import com.mvgore.walletapi.security.WalletPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveAuthControllerTest {
+
+    private final ReactiveUserRepository userRepository = mock(ReactiveUserRepository.class);
+    private final ReactiveWalletRepository walletRepository = mock(ReactiveWalletRepository.class);
+    private final PasswordEncoder passwordEncoder = spy(new BCryptPasswordEncoder(4));
+    private final JwtUtil jwtUtil = new JwtUtil(100, new SimpleMeterRegistry());
+
+    private ReactiveAuthController controller;
+    private UserRecord alice;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ReactiveAuthController(userRepository, walletRepository, passwordEncoder, jwtUtil,
+                Schedulers.immediate(), Duration.ofSeconds(1));
+        alice = new UserRecord(UUID.randomUUID(), "alice", passwordEncoder.encode("secret"), "USER");
+        when(userRepository.findByUsername(anyString())).thenReturn(Mono.empty());
+        when(userRepository.findByUsername("alice")).thenReturn(Mono.just(alice));
+        when(walletRepository.findByUserId(any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void validCredentials_returnTokenWithWalletId() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        when(walletRepository.findByUserId(alice.id()))
+                .thenReturn(Mono.just(new WalletView(walletId, Money.ZERO, alice.id())));
+
+        AuthResponse response = controller.login(login("alice", "secret")).block();
+
+        WalletPrincipal principal = jwtUtil.toPrincipal(jwtUtil.parseValidClaims(response.getToken()));
+        assertThat(principal).isEqualTo(new WalletPrincipal(alice.id(), "alice", "USER", walletId));
+    }
+
+    @Test
+    void wrongPassword_isUnauthorized() throws Exception {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> controller.login(login("alice", "wrong")).block());
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void unknownUser_isUnauthorized_afterTheSameHashCheck() throws Exception {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> controller.login(login("mallory", "secret")).block());
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verify(passwordEncoder).matches(eq("secret"), anyString());
+        verifyNoInteractions(walletRepository);
+    }
+
+    private static LoginRequest login(String username, String password) throws Exception {
+        return new ObjectMapper().readValue(
+                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}", LoginRequest.class);
+    }
+}
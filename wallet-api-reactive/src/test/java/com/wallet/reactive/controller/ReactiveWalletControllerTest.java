@@ -0,0 +1,91 @@
+package com.wallet.reactive.controller;
+
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+import com.mvgore.walletapi.dto.WalletOperationRequest;
+import com.mvgore.walletapi.dto.WalletOperationResponse;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.reactive.controller.ReactiveWalletController;
+import com.mvgore.walletapi.reactive.repository.ReactiveWalletRepository;
+import com.mvgore.walletapi.reactive.repository.WalletView;
+import com.mvgore.walletapi.security.WalletPrincipal;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ReactiveWalletControllerTest {
+
+    private final ReactiveWalletRepository walletRepository = mock(ReactiveWalletRepository.class);
+    private final ReactiveWalletController controller = new ReactiveWalletController(walletRepository);
+    private final UUID userId = UUID.randomUUID();
+    private final UUID walletId = UUID.randomUUID();
+    private final WalletPrincipal principal = new WalletPrincipal(userId, "alice", "USER", walletId);
+
+    @Test
+    void credit_reportsBalanceBeforeAndAfter() {
+        when(walletRepository.credit(userId, Money.parse("2.50")))
+                .thenReturn(Mono.just(new WalletView(walletId, Money.parse("12.50"), userId)));
+
+        WalletOperationResponse response = controller.credit(principal, request("2.50")).block();
+
+        assertThat(response).isEqualTo(new WalletOperationResponse(walletId, Money.parse("10.00"), Money.parse("12.50")));
+    }
+
+    @Test
+    void debit_reportsBalanceBeforeAndAfter() {
+        when(walletRepository.debit(userId, Money.parse("2.50")))
+                .thenReturn(Mono.just(new WalletView(walletId, Money.parse("7.50"), userId)));
+
+        WalletOperationResponse response = controller.debit(principal, request("2.50")).block();
+
+        assertThat(response).isEqualTo(new WalletOperationResponse(walletId, Money.parse("10.00"), Money.parse("7.50")));
+    }
+
+    @Test
+    void nonPositiveOrMissingAmounts_areRejected_beforeTheDatabase() {
+        WalletOperationRequest missing = new WalletOperationRequest();
+        for (WalletOperationRequest request : new WalletOperationRequest[]{request("-5.00"), request("0"), missing}) {
+            assertThrows(IllegalArgumentException.class, () -> controller.credit(principal, request).block());
+            assertThrows(IllegalArgumentException.class, () -> controller.debit(principal, request).block());
+        }
+        verifyNoInteractions(walletRepository);
+    }
+
+    @Test
+    void balance_ofMissingWallet_isNotFound() {
+        when(walletRepository.findByUserId(userId)).thenReturn(Mono.empty());
+
+        assertThrows(WalletNotFoundException.class, () -> controller.getBalance(principal).block());
+    }
+
+    @Test
+    void createWallet_refusesSecondWallet() {
+        when(walletRepository.findByUserId(userId))
+                .thenReturn(Mono.just(new WalletView(walletId, Money.ZERO, userId)));
+        when(walletRepository.create(userId)).thenReturn(Mono.empty());
+
+        assertThrows(IllegalStateException.class, () -> controller.createWallet(principal).block());
+        verify(walletRepository, never()).create(userId);
+    }
+
+    @Test
+    void createWallet_returnsNewWallet() {
+        when(walletRepository.findByUserId(userId)).thenReturn(Mono.empty());
+        when(walletRepository.create(userId)).thenReturn(Mono.just(new WalletView(walletId, Money.ZERO, userId)));
+
+        WalletBalanceResponse response = controller.createWallet(principal).block();
+
+        assertThat(response).isEqualTo(new WalletBalanceResponse(walletId, Money.ZERO));
+    }
+
+    private static WalletOperationRequest request(String amount) {
+        WalletOperationRequest request = new WalletOperationRequest();
+        request.setAmount(Money.parse(amount));
+        return request;
+    }
+}
@@ -0,0 +1,37 @@
+package com.wallet.reactive.exception;
+
+import com.mvgore.walletapi.exception.TooManyRequestsException;
+import com.mvgore.walletapi.reactive.exception.ReactiveExceptionHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveExceptionHandlerTest {
+
+    private final ReactiveExceptionHandler handler = new ReactiveExceptionHandler();
+
+    @Test
+    void overflowingBalance_isABadRequest_asInTheServletApp() {
+        ResponseEntity<Map<String, Object>> response = handler.handleOverflow(new ArithmeticException("long overflow"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody())
+                .containsEntry("error", "Amount out of range")
+                .containsEntry("message", "Balance would exceed the supported range");
+    }
+
+    @Test
+    void tooManyRequests_advertisesWholeSecondsToRetryAfter() {
+        ResponseEntity<Map<String, Object>> response = handler.handleTooManyRequests(
+                new TooManyRequestsException("Rate limit exceeded, retry later", Duration.ofMillis(1500)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+}
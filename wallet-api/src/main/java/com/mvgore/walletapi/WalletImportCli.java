@@ -0,0 +1,82 @@
+package com.mvgore.walletapi;
+
+import com.mvgore.walletapi.ingest.BulkImportService;
+import com.mvgore.walletapi.ingest.ImportEntity;
+import com.mvgore.walletapi.ingest.ImportResult;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Command-line bulk import, for loads too large to send over HTTP. Files are imported in
+ * dependency order: users, then wallets, then transactions.
+ *
+ * <pre>
+ * java -cp wallet-api-1.0.0.jar -Dloader.main=com.mvgore.walletapi.WalletImportCli \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     --users=users.csv --wallets=wallets.csv --transactions=tx.ndjson [--strict]
+ * </pre>
+ *
+ * The format of each file is taken from its extension ({@code .csv} or {@code .ndjson}).
+ * Any other {@code --key=value} argument is passed to Spring as usual.
+ *
+ * <p>The context starts without a web server under the {@code import} profile, which
+ * switches off the in-memory engine, the balance listener and the scheduled
+ * reconciliation and partition jobs (see {@code application-import.yml}).
+ */
+public class WalletImportCli {
+
+    private static final String IMPORT_PROFILE = "import";
+
+    public static void main(String[] args) throws IOException {
+        boolean strict = false;
+        Path[] files = new Path[ImportEntity.values().length];
+        for (String arg : args) {
+            if (arg.equals("--strict")) {
+                strict = true;
+                continue;
+            }
+            for (ImportEntity entity : ImportEntity.values()) {
+                String prefix = "--" + entity.name().toLowerCase(Locale.ROOT) + "=";
+                if (arg.startsWith(prefix)) {
+                    files[entity.ordinal()] = Path.of(arg.substring(prefix.length()));
+                }
+            }
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(IMPORT_PROFILE)
+                .run(args)) {
+            BulkImportService importService = context.getBean(BulkImportService.class);
+            for (ImportEntity entity : ImportEntity.values()) {
+                Path file = files[entity.ordinal()];
+                if (file == null) {
+                    continue;
+                }
+                try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+                    ImportResult result = importService.importFrom(entity, formatOf(file), input, strict);
+                    System.out.println(result);
+                }
+            }
+        }
+    }
+
+    private static BulkImportService.Format formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return BulkImportService.Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return BulkImportService.Format.NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + file + " from its extension");
+    }
+}
@@ -0,0 +1,85 @@
+package com.mvgore.walletapi.auth;
+
+import com.mvgore.walletapi.security.CustomUserDetailsService;
+import com.mvgore.walletapi.security.JwtUtil;
+import com.mvgore.walletapi.security.PasswordHashingExecutor;
+import com.mvgore.walletapi.dto.ErrorResponse;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.repository.WalletRepository;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+public class AuthController {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final JwtUtil jwtUtil;
+    private final WalletRepository walletRepository;
+    private final PasswordHashingExecutor hashingExecutor;
+    // Compared against when the username is unknown, so both cases cost one BCrypt check
+    private final String unknownUserHash;
+
+    public AuthController(UserRepository userRepository, 
+                          PasswordEncoder passwordEncoder, 
+                          CustomUserDetailsService userDetailsService,
+                          JwtUtil jwtUtil,
+                          WalletRepository walletRepository,
+                          PasswordHashingExecutor hashingExecutor) {
+        this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+        this.hashingExecutor = hashingExecutor;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
+        this.jwtUtil = jwtUtil;
+        this.unknownUserHash = passwordEncoder.encode("userNotFoundPassword");
+    }
+
+    // Hashing runs on the dedicated pool; the request thread is released while it waits
+    @PostMapping("/register")
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody RegisterRequest request) {
+        if (userRepository.existsByUsername(request.getUsername())) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(new ErrorResponse("Username already exists")));
+        }
+
+        return hashingExecutor.submit(() -> {
+            User user = new User(
+                request.getUsername(),
+                passwordEncoder.encode(request.getPassword())
+            );
+
+            userRepository.save(user);
+            return ResponseEntity.ok("User registered successfully");
+        });
+    }
+
+    // The user and wallet lookups stay on the request thread: the pool is sized for BCrypt,
+    // and database latency there would cut login throughput and trip its rejection early
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody LoginRequest request) {
+        Optional<User> user = userDetailsService.findUser(request.getUsername());
+        UUID walletId = user.flatMap(u -> walletRepository.findByUserId(u.getId()))
+            .map(Wallet::getId)
+            .orElse(null);
+        String encodedPassword = user.map(User::getPassword).orElse(unknownUserHash);
+
+        return hashingExecutor.submit(() -> passwordEncoder.matches(request.getPassword(), encodedPassword))
+            .thenApply(matches -> {
+                if (!matches || user.isEmpty()) {
+                    throw new BadCredentialsException("Bad credentials");
+                }
+                String token = jwtUtil.generateToken(
+                    user.get().getUsername(), user.get().getId(), user.get().getRole(), walletId);
+                return ResponseEntity.ok(new AuthResponse(token));
+            });
+    }
+}
@@ -0,0 +1,102 @@
+package com.mvgore.walletapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.money.Money;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded per-user cache of committed wallet balances. Local writes update it after they
+ * commit; changes made by other nodes arrive through {@link BalanceChangeListener}.
+ * Every entry is dropped {@code maxStaleness} after it was last written, which bounds
+ * how old a served balance can be even if notifications are lost or reordered.
+ *
+ * <p>Only snapshots are cached; callers always get a fresh {@link Wallet}.
+ */
+public class BalanceCache {
+
+    private final Cache<UUID, Snapshot> balances;
+
+    public BalanceCache(long maxSize, Duration maxStaleness) {
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStaleness)
+                .build();
+    }
+
+    private BalanceCache() {
+        this.balances = null;
+    }
+
+    public static BalanceCache disabled() {
+        return new BalanceCache();
+    }
+
+    /**
+     * Returns the cached balance or loads it. The loader runs on the calling thread outside
+     * any cache lock: it blocks on JDBC and the DB permit gate, which would pin a virtual
+     * thread's carrier inside a compute. Concurrent misses may therefore load twice.
+     */
+    public Wallet get(UUID userId, Function<UUID, Wallet> loader) {
+        if (balances == null) {
+            return loader.apply(userId);
+        }
+        Snapshot cached = balances.getIfPresent(userId);
+        if (cached == null) {
+            cached = Snapshot.of(loader.apply(userId));
+            // A write-through that landed while loading is newer than what was read; keep it
+            Snapshot raced = balances.asMap().putIfAbsent(userId, cached);
+            if (raced != null) {
+                cached = raced;
+            }
+        }
+        return cached.toWallet(userId);
+    }
+
+    // Write-through after a committed local credit/debit; commits can finish out of order, so never go back a version
+    public void put(Wallet wallet) {
+        if (balances != null) {
+            balances.asMap().merge(wallet.getUserId(), Snapshot.of(wallet),
+                    (old, written) -> written.version() >= old.version() ? written : old);
+        }
+    }
+
+    // A change committed elsewhere: refresh the entry if this node holds one and it is older, never populate
+    public void refresh(UUID userId, UUID walletId, Money balance, long version) {
+        if (balances != null) {
+            balances.asMap().computeIfPresent(userId, (id, old) ->
+                    version >= old.version() ? new Snapshot(walletId, balance, version) : old);
+        }
+    }
+
+    public void invalidate(UUID userId) {
+        if (balances != null) {
+            balances.invalidate(userId);
+        }
+    }
+
+    public void invalidateAll() {
+        if (balances != null) {
+            balances.invalidateAll();
+        }
+    }
+
+    public boolean isEnabled() {
+        return balances != null;
+    }
+
+    private record Snapshot(UUID walletId, Money balance, long version) {
+
+        static Snapshot of(Wallet wallet) {
+            return new Snapshot(wallet.getId(), wallet.getBalance(), wallet.getVersion());
+        }
+
+        Wallet toWallet(UUID userId) {
+            return new Wallet(walletId, balance, userId, version);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.mvgore.walletapi.cache;
+
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.stream.BalanceEventBus;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Keeps {@link BalanceCache} coherent across nodes. The {@code wallets} trigger publishes
+ * every committed balance change on {@value #CHANNEL} as
+ * {@code userId,walletId,balance,version} (or just {@code userId} for a delete); Postgres
+ * delivers them in commit order, but not in order with this node's own write-throughs, so
+ * the version travels along. Changes
+ * are also forwarded to {@link BalanceEventBus}, so balance streams see commits made by
+ * other nodes.
+ *
+ * <p>Holds one dedicated connection from a non-pooled {@link DataSource}, so closing it ends
+ * the session and its LISTEN with it. Whenever the connection is (re)established the whole
+ * cache is dropped, since notifications sent while not listening are gone.
+ */
+public class BalanceChangeListener implements Runnable {
+
+    static final String CHANNEL = "wallet_balance";
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceChangeListener.class);
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final BalanceCache cache;
+    private final BalanceEventBus events;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public BalanceChangeListener(DataSource dataSource, BalanceCache cache, BalanceEventBus events) {
+        this.dataSource = dataSource;
+        this.cache = cache;
+        this.events = events;
+        this.thread = new Thread(this, "balance-change-listener");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(RECONNECT_DELAY_MILLIS + POLL_TIMEOUT_MILLIS);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                cache.invalidateAll();
+                PGConnection pg = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                cache.invalidateAll();
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost balance change notifications, reconnecting", e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void apply(String payload) {
+        String[] parts = payload.split(",");
+        UUID userId = UUID.fromString(parts[0]);
+        if (parts.length == 4) {
+            UUID walletId = UUID.fromString(parts[1]);
+            Money balance = Money.ofMinor(Long.parseLong(parts[2]));
+            long version = Long.parseLong(parts[3]);
+            cache.refresh(userId, walletId, balance, version);
+            events.publish(userId, walletId, balance, version);
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+}
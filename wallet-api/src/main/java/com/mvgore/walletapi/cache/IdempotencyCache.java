@@ -0,0 +1,58 @@
+package com.mvgore.walletapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.money.Money;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Bounded cache of completed idempotent operations, keyed by user and
+ * {@code Idempotency-Key}. A hit answers a replay without a database round trip; a miss
+ * falls through to the {@code idempotency_keys} table, which stays authoritative.
+ */
+public class IdempotencyCache {
+
+    private final Cache<Key, Completed> completed;
+
+    public IdempotencyCache(long maxSize, Duration ttl) {
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    private IdempotencyCache() {
+        this.completed = null;
+    }
+
+    public static IdempotencyCache disabled() {
+        return new IdempotencyCache();
+    }
+
+    public Completed get(UUID userId, String idempotencyKey) {
+        return completed != null ? completed.getIfPresent(new Key(userId, idempotencyKey)) : null;
+    }
+
+    // Only ever called with operations whose key row has committed
+    public void put(UUID userId, String idempotencyKey, Completed operation) {
+        if (completed != null) {
+            completed.put(new Key(userId, idempotencyKey), operation);
+        }
+    }
+
+    private record Key(UUID userId, String idempotencyKey) {
+    }
+
+    /**
+     * A committed operation: what was asked ({@code type}, {@code amount}) and what it did.
+     */
+    public record Completed(TransactionType type,
+                            Money amount,
+                            UUID walletId,
+                            Money oldBalance,
+                            Money newBalance) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.mvgore.walletapi.config;
+
+import com.mvgore.walletapi.cache.BalanceCache;
+import com.mvgore.walletapi.cache.BalanceChangeListener;
+import com.mvgore.walletapi.stream.BalanceEventBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.time.Duration;
+
+/**
+ * Balance read cache, enabled by {@code wallet.balance-cache.enabled}, plus the
+ * LISTEN/NOTIFY consumer that keeps it coherent with writes from other nodes.
+ */
+@Configuration
+public class BalanceCacheConfig {
+
+    @Bean
+    public BalanceCache balanceCache(
+            @Value("${wallet.balance-cache.enabled:true}") boolean enabled,
+            @Value("${wallet.balance-cache.max-size:100000}") long maxSize,
+            @Value("${wallet.balance-cache.max-staleness:5s}") Duration maxStaleness) {
+        return enabled ? new BalanceCache(maxSize, maxStaleness) : BalanceCache.disabled();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    // Journal drains commit long after the write was acknowledged; their notifications would roll cached balances back
+    @ConditionalOnExpression("${wallet.balance-cache.enabled:true} and !${wallet.journal.enabled:false}")
+    public BalanceChangeListener balanceChangeListener(DataSourceProperties dataSourceProperties,
+                                                       BalanceCache balanceCache,
+                                                       BalanceEventBus balanceEventBus) {
+        // Outside the pool: a LISTEN belongs to the session, so a pooled connection would carry it
+        // to its next borrower, and the listener would hold a pool slot for good
+        return new BalanceChangeListener(
+                dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build(),
+                balanceCache, balanceEventBus);
+    }
+}
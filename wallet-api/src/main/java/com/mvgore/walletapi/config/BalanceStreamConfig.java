@@ -0,0 +1,33 @@
+package com.mvgore.walletapi.config;
+
+import com.mvgore.walletapi.stream.BalanceEventBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Server-sent balance streams, enabled by {@code wallet.balance-stream.enabled}.
+ */
+@Configuration
+public class BalanceStreamConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public BalanceEventBus balanceEventBus(
+            @Value("${wallet.balance-stream.enabled:true}") boolean enabled,
+            @Value("${wallet.balance-stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${wallet.balance-stream.max-subscribers-per-user:4}") int maxSubscribersPerUser,
+            @Value("${wallet.balance-stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+            @Value("${wallet.balance-stream.slow-consumer-timeout:10s}") Duration slowConsumerTimeout,
+            @Value("${wallet.balance-stream.max-duration:30m}") Duration maxDuration,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return enabled
+                ? new BalanceEventBus(maxSubscribers, maxSubscribersPerUser, heartbeatInterval, slowConsumerTimeout, maxDuration,
+                        meterRegistry.getIfAvailable(() -> Metrics.globalRegistry))
+                : BalanceEventBus.disabled();
+    }
+}
@@ -0,0 +1,24 @@
+package com.mvgore.walletapi.config;
+
+import com.mvgore.walletapi.service.DbPermitGate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Gate in front of {@code WalletService} database work, enabled by
+ * {@code wallet.db-permits.enabled} (on in the {@code virtual} profile).
+ */
+@Configuration
+public class DbPermitConfig {
+
+    @Bean
+    public DbPermitGate dbPermitGate(
+            @Value("${wallet.db-permits.enabled:false}") boolean enabled,
+            @Value("${wallet.db-permits.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${wallet.db-permits.acquire-timeout:2s}") Duration acquireTimeout) {
+        return enabled ? new DbPermitGate(permits, acquireTimeout) : DbPermitGate.unbounded();
+    }
+}
@@ -0,0 +1,33 @@
+package com.mvgore.walletapi.config;
+
+import com.mvgore.walletapi.partition.TransactionPartitionMaintenance;
+import com.mvgore.walletapi.reconciliation.ReconciliationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Creation and retention of the monthly {@code transactions} partitions, enabled by
+ * {@code wallet.partitions.enabled}.
+ */
+@Configuration
+public class PartitionConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "wallet.partitions.enabled", havingValue = "true", matchIfMissing = true)
+    public TransactionPartitionMaintenance transactionPartitionMaintenance(
+            DataSource dataSource,
+            ReconciliationService reconciliationService,
+            @Value("${wallet.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${wallet.partitions.retention-months:0}") int retentionMonths,
+            @Value("${wallet.partitions.archive-dir:archive/transactions}") Path archiveDir,
+            @Value("${wallet.partitions.interval:24h}") Duration interval) {
+        return new TransactionPartitionMaintenance(dataSource, reconciliationService,
+                monthsAhead, retentionMonths, archiveDir, interval.toMillis());
+    }
+}
@@ -0,0 +1,71 @@
+package com.mvgore.walletapi.config;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code application/x-protobuf} for a fixed set of DTOs, encoded by Jackson rather than
+ * protoc-generated classes. Each type's schema is derived from its properties once and
+ * cached; field numbers follow property order starting at 1, and UUIDs and {@code Money}
+ * are strings.
+ */
+public class ProtobufJacksonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private final ProtobufMapper mapper = new ProtobufMapper();
+    private final Set<Class<?>> types;
+    private final Map<Class<?>, ProtobufSchema> schemas = new ConcurrentHashMap<>();
+
+    public ProtobufJacksonHttpMessageConverter(Set<Class<?>> types) {
+        super(APPLICATION_PROTOBUF);
+        this.types = Set.copyOf(types);
+        // Jackson writes UUIDs as raw bytes to binary formats, which a string field cannot hold
+        mapper.configOverride(UUID.class).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return types.contains(clazz);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return mapper.readerFor(clazz).with(schema(clazz)).readValue(inputMessage.getBody());
+        } catch (JsonMappingException e) {
+            throw new HttpMessageNotReadableException("Malformed protobuf body: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        mapper.writer(schema(value.getClass()))
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValue(outputMessage.getBody(), value);
+    }
+
+    private ProtobufSchema schema(Class<?> type) {
+        return schemas.computeIfAbsent(type, t -> {
+            try {
+                return mapper.generateSchemaFor(t);
+            } catch (JsonMappingException e) {
+                throw new IllegalStateException("Cannot derive a protobuf schema for " + t.getName(), e);
+            }
+        });
+    }
+}
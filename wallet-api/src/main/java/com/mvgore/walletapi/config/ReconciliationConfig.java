@@ -0,0 +1,39 @@
+package com.mvgore.walletapi.config;
+
+import com.mvgore.walletapi.reconciliation.BalanceCheckpointRepository;
+import com.mvgore.walletapi.reconciliation.ReconciliationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Balance checkpoints and reconciliation. The periodic job runs when
+ * {@code wallet.reconciliation.enabled} is set; on-demand runs and point-in-time balances
+ * are always available.
+ */
+@Configuration
+public class ReconciliationConfig {
+
+    @Bean(destroyMethod = "stop")
+    public ReconciliationService reconciliationService(
+            BalanceCheckpointRepository checkpoints,
+            @Value("${wallet.reconciliation.enabled:true}") boolean enabled,
+            @Value("${wallet.reconciliation.parallelism:4}") int parallelism,
+            @Value("${wallet.reconciliation.interval:1h}") Duration interval,
+            @Value("${wallet.reconciliation.settle-lag:5m}") Duration settleLag,
+            @Value("${wallet.reconciliation.checkpoints-kept:48}") int checkpointsKept,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        ReconciliationService service = new ReconciliationService(
+                checkpoints, parallelism, interval, settleLag, checkpointsKept,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        if (enabled) {
+            service.start();
+        }
+        return service;
+    }
+}
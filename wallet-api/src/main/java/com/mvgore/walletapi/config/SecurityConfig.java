@@ -0,0 +1,152 @@
+package com.mvgore.walletapi.config;
+
+import com.mvgore.walletapi.security.CustomUserDetailsService;
+import com.mvgore.walletapi.security.JwtFilter;
+import com.mvgore.walletapi.security.PasswordHashingExecutor;
+import com.mvgore.walletapi.security.RateLimitFilter;
+import com.mvgore.walletapi.security.RequestRateLimiter;
+import com.mvgore.walletapi.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+
+@Configuration
+public class SecurityConfig {
+
+    private final JwtFilter jwtFilter;
+    private final CustomUserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
+    private volatile int managementPort = -1;
+
+    public SecurityConfig(JwtFilter jwtFilter,
+                          CustomUserDetailsService userDetailsService,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jwtFilter = jwtFilter;
+        this.userDetailsService = userDetailsService;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    // Absent in a non-web context such as WalletImportCli, where HttpSecurity is not configured
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            RequestRateLimiter rateLimiter,
+            @Value("${security.rate-limit.enabled:true}") boolean rateLimitEnabled,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver)
+            throws Exception {
+
+        // Scrapers reach metrics on the management port only; anywhere else they need ROLE_ADMIN
+        RequestMatcher prometheusOnManagementPort = request -> managementPort > 0
+                && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+
+        http
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(sm ->
+                sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .authenticationProvider(authenticationProvider())
+            .authorizeHttpRequests(auth -> auth
+                // Completing an SSE or streamed response re-dispatches a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers(
+                    "/api/v1/auth/**",
+                    "/swagger-ui/**",
+                    "/swagger-ui.html",
+                    "/v3/api-docs/**",
+                    "/webjars/**"
+                ).permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers(prometheusOnManagementPort).permitAll()
+                .requestMatchers("/api/v1/admin/**", "/actuator/**").hasRole("ADMIN")
+                .anyRequest().authenticated()
+            )
+            .addFilterBefore(
+                jwtFilter,
+                UsernamePasswordAuthenticationFilter.class
+            );
+
+        // Not a bean, so the servlet container does not register it a second time
+        if (rateLimitEnabled) {
+            http.addFilterAfter(new RateLimitFilter(rateLimiter, exceptionResolver), JwtFilter.class);
+        }
+
+        return http.build();
+    }
+
+    // The management server reports its port once started; it may be configured as 0 (random)
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if ("management".equals(event.getApplicationContext().getServerNamespace())) {
+            managementPort = event.getWebServer().getPort();
+        }
+    }
+
+    // Token buckets per caller; keep limits above what a well-behaved client needs
+    @Bean
+    public RequestRateLimiter requestRateLimiter(
+            @Value("${security.rate-limit.login.per-second:5}") double loginRate,
+            @Value("${security.rate-limit.login.burst:10}") int loginBurst,
+            @Value("${security.rate-limit.read.per-second:50}") double readRate,
+            @Value("${security.rate-limit.read.burst:100}") int readBurst,
+            @Value("${security.rate-limit.write.per-second:20}") double writeRate,
+            @Value("${security.rate-limit.write.burst:40}") int writeBurst,
+            @Value("${security.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+            @Value("${security.rate-limit.max-keys:1000000}") long maxKeys) {
+        return new RequestRateLimiter(
+                new RequestRateLimiter.Limit(loginRate, loginBurst),
+                new RequestRateLimiter.Limit(readRate, readBurst),
+                new RequestRateLimiter.Limit(writeRate, writeBurst),
+                idleTimeout, maxKeys, meterRegistry);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
+    }
+
+    // BCrypt runs here rather than on request threads; see AuthController
+    @Bean(destroyMethod = "shutdown")
+    public PasswordHashingExecutor passwordHashingExecutor(
+            @Value("${security.password-hashing.threads:2}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.retry-after:1s}") Duration retryAfter) {
+        return new PasswordHashingExecutor(threads, queueCapacity, retryAfter, meterRegistry);
+    }
+
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider() {
+        DaoAuthenticationProvider provider =
+                new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder());
+        return provider;
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager() {
+        return new ProviderManager(authenticationProvider());
+    }
+}
@@ -0,0 +1,93 @@
+package com.mvgore.walletapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every transaction run by the auto-configured transaction manager, which picks up
+ * {@link TransactionExecutionListener} beans: {@code db.transaction.duration} from begin to
+ * commit/rollback, and {@code db.transaction.commit} for the commit call alone. Statements in
+ * autocommit (the atomic write mode) are their own commit and only show up in
+ * {@code wallet.operation}.
+ */
+@Configuration
+public class TransactionMetricsConfig {
+
+    @Bean
+    public TransactionExecutionListener transactionTimingListener(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TimingListener(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    private static final class TimingListener implements TransactionExecutionListener {
+
+        // Start times of the transactions open on this thread, innermost last (REQUIRES_NEW nests)
+        private final ThreadLocal<Deque<long[]>> open = ThreadLocal.withInitial(ArrayDeque::new);
+
+        private final Timer committed;
+        private final Timer rolledBack;
+        private final Timer commit;
+
+        TimingListener(MeterRegistry registry) {
+            this.committed = Timer.builder("db.transaction.duration").tag("outcome", "commit").register(registry);
+            this.rolledBack = Timer.builder("db.transaction.duration").tag("outcome", "rollback").register(registry);
+            this.commit = Timer.builder("db.transaction.commit")
+                    .description("Time spent in the commit call")
+                    .register(registry);
+        }
+
+        @Override
+        public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+            if (beginFailure == null && transaction.isNewTransaction()) {
+                open.get().push(new long[]{System.nanoTime(), 0L});
+            }
+        }
+
+        @Override
+        public void beforeCommit(TransactionExecution transaction) {
+            long[] times = open.get().peek();
+            if (times != null && transaction.isNewTransaction()) {
+                times[1] = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+            long[] times = pop(transaction);
+            if (times != null) {
+                long now = System.nanoTime();
+                commit.record(now - times[1], TimeUnit.NANOSECONDS);
+                (commitFailure == null ? committed : rolledBack).record(now - times[0], TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+            long[] times = pop(transaction);
+            if (times != null) {
+                rolledBack.record(System.nanoTime() - times[0], TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private long[] pop(TransactionExecution transaction) {
+            if (!transaction.isNewTransaction()) {
+                return null;
+            }
+            Deque<long[]> stack = open.get();
+            long[] times = stack.poll();
+            if (stack.isEmpty()) {
+                open.remove();
+            }
+            return times;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mvgore.walletapi.config;
+
+import com.mvgore.walletapi.cache.IdempotencyCache;
+import com.mvgore.walletapi.engine.LedgerEngine;
+import com.mvgore.walletapi.engine.LedgerJournal;
+import com.mvgore.walletapi.engine.LedgerStore;
+import com.mvgore.walletapi.repository.TransactionRepository;
+import com.mvgore.walletapi.repository.WalletRepository;
+import com.mvgore.walletapi.service.AdaptiveWalletWriteStrategy;
+import com.mvgore.walletapi.service.AtomicSqlWalletWriteStrategy;
+import com.mvgore.walletapi.service.ContentionTracker;
+import com.mvgore.walletapi.service.IdempotentWalletWriter;
+import com.mvgore.walletapi.service.OptimisticWalletWriteStrategy;
+import com.mvgore.walletapi.service.PessimisticWalletWriteStrategy;
+import com.mvgore.walletapi.service.WalletBatchWriter;
+import com.mvgore.walletapi.service.WalletTransferWriter;
+import com.mvgore.walletapi.service.WalletWriteStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Builds the {@link WalletWriteStrategy} selected by {@code wallet.write-mode}:
+ * pessimistic, optimistic, atomic, adaptive or sharded, plus the chunked batch writer, the transfer writer and the idempotent credit/debit writer.
+ */
+@Configuration
+public class WalletEngineConfig {
+
+    @Bean
+    public ContentionTracker contentionTracker(
+            @Value("${wallet.adaptive.conflict-threshold:3}") int conflictThreshold,
+            @Value("${wallet.adaptive.window:1s}") Duration window,
+            @Value("${wallet.adaptive.hot-duration:30s}") Duration hotDuration,
+            @Value("${wallet.adaptive.max-tracked-wallets:100000}") long maxTrackedWallets) {
+        return new ContentionTracker(conflictThreshold, window, hotDuration, maxTrackedWallets);
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${wallet.write-mode:pessimistic}' != 'sharded'")
+    public WalletWriteStrategy walletWriteStrategy(
+            @Value("${wallet.write-mode:pessimistic}") String mode,
+            WalletRepository walletRepository,
+            TransactionRepository transactionRepository,
+            TransactionTemplate transactionTemplate,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            ContentionTracker contentionTracker,
+            @Value("${wallet.optimistic.max-attempts:5}") int maxAttempts,
+            @Value("${wallet.optimistic.base-backoff:5ms}") Duration baseBackoff,
+            @Value("${wallet.optimistic.max-backoff:100ms}") Duration maxBackoff,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        return switch (mode) {
+            case "pessimistic" -> new PessimisticWalletWriteStrategy(
+                    walletRepository, transactionRepository, transactionTemplate, registry);
+            case "optimistic" -> new OptimisticWalletWriteStrategy(
+                    walletRepository, transactionRepository, transactionTemplate,
+                    contentionTracker, maxAttempts, baseBackoff, maxBackoff);
+            case "atomic" -> new AtomicSqlWalletWriteStrategy(jdbcTemplate);
+            case "adaptive" -> new AdaptiveWalletWriteStrategy(
+                    new OptimisticWalletWriteStrategy(
+                            walletRepository, transactionRepository, transactionTemplate,
+                            contentionTracker, maxAttempts, baseBackoff, maxBackoff),
+                    new PessimisticWalletWriteStrategy(
+                            walletRepository, transactionRepository, transactionTemplate, registry),
+                    contentionTracker);
+            default -> throw new IllegalArgumentException("Unknown wallet.write-mode: " + mode);
+        };
+    }
+
+    @Bean
+    public WalletBatchWriter walletBatchWriter(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${wallet.batch.chunk-size:500}") int chunkSize) {
+        return new WalletBatchWriter(jdbcTemplate, transactionTemplate, chunkSize);
+    }
+
+    @Bean
+    public WalletTransferWriter walletTransferWriter(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new WalletTransferWriter(jdbcTemplate, transactionTemplate,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public IdempotentWalletWriter idempotentWalletWriter(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${wallet.idempotency.cache-size:100000}") long cacheSize,
+            @Value("${wallet.idempotency.cache-ttl:24h}") Duration cacheTtl,
+            @Value("${wallet.idempotency.ttl:24h}") Duration ttl,
+            @Value("${wallet.idempotency.purge-interval:1h}") Duration purgeInterval) {
+        // A cached replay must not outlive the key row it stands for
+        Duration cacheExpiry = cacheTtl.compareTo(ttl) < 0 ? cacheTtl : ttl;
+        return new IdempotentWalletWriter(jdbcTemplate, transactionTemplate,
+                cacheSize > 0 ? new IdempotencyCache(cacheSize, cacheExpiry) : IdempotencyCache.disabled(),
+                ttl, purgeInterval);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "wallet.write-mode", havingValue = "sharded")
+    public LedgerEngine ledgerEngine(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${wallet.engine.partitions:8}") int partitions,
+            @Value("${wallet.engine.queue-capacity:10000}") int queueCapacity,
+            @Value("${wallet.engine.max-batch-size:500}") int maxBatchSize,
+            @Value("${wallet.engine.max-cached-wallets:100000}") int maxCachedWallets,
+            @Value("${wallet.engine.request-timeout:5s}") Duration requestTimeout,
+            @Value("${wallet.journal.enabled:false}") boolean journalEnabled,
+            @Value("${wallet.journal.dir:./data/journal}") Path journalDir,
+            @Value("${wallet.journal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${wallet.journal.drain-batch-size:5000}") int drainBatchSize,
+            @Value("${wallet.journal.drain-interval:10ms}") Duration drainInterval,
+            @Value("${wallet.journal.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${wallet.journal.max-drain-attempts:5}") int maxDrainAttempts,
+            ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+        LedgerStore store = new LedgerStore(jdbcTemplate, transactionTemplate);
+        if (!journalEnabled) {
+            return new LedgerEngine(store, partitions, queueCapacity, maxBatchSize, maxCachedWallets, requestTimeout);
+        }
+        LedgerJournal journal = LedgerJournal.open(journalDir, Math.toIntExact(segmentSize.toBytes()),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        return new LedgerEngine(store, partitions, queueCapacity, maxBatchSize, maxCachedWallets, requestTimeout,
+                journal, drainBatchSize, drainInterval, retryBackoff, maxDrainAttempts);
+    }
+}
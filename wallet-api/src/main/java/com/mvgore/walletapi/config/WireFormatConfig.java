@@ -0,0 +1,47 @@
+package com.mvgore.walletapi.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+import com.mvgore.walletapi.dto.WalletOperationRequest;
+import com.mvgore.walletapi.dto.WalletOperationResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Binary alternatives to JSON for high-volume internal callers, chosen by {@code Accept}
+ * (and {@code Content-Type} for request bodies): {@code application/cbor} for any endpoint,
+ * {@code application/x-protobuf} for credit/debit and balance reads.
+ *
+ * <p>Both converters are appended after the JSON one, so a request that accepts any type
+ * still gets JSON.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private static final Set<Class<?>> PROTOBUF_TYPES = Set.of(
+            WalletBalanceResponse.class,
+            WalletOperationResponse.class,
+            WalletOperationRequest.class);
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    // Boot's builder is a prototype carrying the application's Jackson customizations
+    public WireFormatConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring registers a CBOR converter of its own when the module is present; replace it
+        converters.removeIf(MappingJackson2CborHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(new ProtobufJacksonHttpMessageConverter(PROTOBUF_TYPES));
+    }
+}
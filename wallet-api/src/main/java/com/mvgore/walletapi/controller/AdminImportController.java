@@ -0,0 +1,39 @@
+package com.mvgore.walletapi.controller;
+
+import com.mvgore.walletapi.ingest.BulkImportService;
+import com.mvgore.walletapi.ingest.ImportEntity;
+import com.mvgore.walletapi.ingest.ImportResult;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Bulk import of historical data; restricted to ROLE_ADMIN in {@code SecurityConfig}.
+ * The request body is streamed into Postgres as it arrives.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/import")
+public class AdminImportController {
+
+    private final BulkImportService importService;
+
+    public AdminImportController(BulkImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping("/{entity}")
+    public ImportResult importData(
+            @PathVariable String entity,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean strict,
+            HttpServletRequest request
+    ) throws IOException {
+        return importService.importFrom(
+                ImportEntity.valueOf(entity.toUpperCase(Locale.ROOT)),
+                BulkImportService.Format.valueOf(format.toUpperCase(Locale.ROOT)),
+                request.getInputStream(),
+                strict);
+    }
+}
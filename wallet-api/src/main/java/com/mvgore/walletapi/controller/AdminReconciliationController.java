@@ -0,0 +1,32 @@
+package com.mvgore.walletapi.controller;
+
+import com.mvgore.walletapi.reconciliation.ReconciliationReport;
+import com.mvgore.walletapi.reconciliation.ReconciliationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Balance reconciliation reports; restricted to ROLE_ADMIN in {@code SecurityConfig}.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/reconciliation")
+public class AdminReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    public AdminReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ReconciliationReport> lastReport() {
+        ReconciliationReport report = reconciliationService.lastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/run")
+    public ReconciliationReport run() {
+        reconciliationService.checkpoint();
+        return reconciliationService.reconcile();
+    }
+}
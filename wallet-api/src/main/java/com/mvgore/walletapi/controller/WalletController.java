@@ -0,0 +1,317 @@
+package com.mvgore.walletapi.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mvgore.walletapi.dto.BatchItemRequest;
+import com.mvgore.walletapi.dto.BatchItemResult;
+import com.mvgore.walletapi.dto.TransactionPageResponse;
+import com.mvgore.walletapi.dto.TransferRequest;
+import com.mvgore.walletapi.dto.TransferResponse;
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+import com.mvgore.walletapi.dto.WalletOperationRequest;
+import com.mvgore.walletapi.dto.WalletOperationResponse;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.FeatureUnavailableException;
+import com.mvgore.walletapi.reconciliation.ReconciliationService;
+import com.mvgore.walletapi.security.WalletPrincipal;
+import com.mvgore.walletapi.service.StatementExportService;
+import com.mvgore.walletapi.service.TransactionHistoryService;
+import com.mvgore.walletapi.service.WalletService;
+import com.mvgore.walletapi.stream.BalanceEventBus;
+import com.mvgore.walletapi.stream.BalanceSink;
+import com.mvgore.walletapi.stream.BalanceSubscription;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/wallet")
+public class WalletController {
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final WalletService walletService;
+    private final TransactionHistoryService historyService;
+    private final StatementExportService exportService;
+    private final ReconciliationService reconciliationService;
+    private final BalanceEventBus balanceEvents;
+    private final ObjectMapper objectMapper;
+
+    public WalletController(WalletService walletService,
+                            TransactionHistoryService historyService,
+                            StatementExportService exportService,
+                            ReconciliationService reconciliationService,
+                            BalanceEventBus balanceEvents,
+                            ObjectMapper objectMapper) {
+        this.walletService = walletService;
+        this.historyService = historyService;
+        this.exportService = exportService;
+        this.reconciliationService = reconciliationService;
+        this.balanceEvents = balanceEvents;
+        this.objectMapper = objectMapper;
+    }
+
+    // Wallets are 1:1 with users, so the id minted at login stays valid
+    private UUID walletIdOf(WalletPrincipal principal) {
+        return principal.walletId() != null
+                ? principal.walletId()
+                : walletService.getWalletByUser(principal.userId()).getId();
+    }
+
+    @PostMapping("/create")
+    public WalletBalanceResponse createWallet(@AuthenticationPrincipal WalletPrincipal principal) {
+        Wallet wallet = walletService.createWalletForUser(principal.userId());
+        return new WalletBalanceResponse(wallet.getId(), wallet.getBalance());
+    }
+
+    // With an Idempotency-Key the response is replayed verbatim on retries
+    @PostMapping("/credit")
+    public WalletOperationResponse credit(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestBody WalletOperationRequest request
+    ) {
+        if (idempotencyKey != null) {
+            return walletService.applyOnce(
+                    principal.userId(), TransactionType.CREDIT, request.getAmount(), idempotencyKey);
+        }
+        Wallet wallet = walletService.credit(principal.userId(), request.getAmount());
+        return WalletOperationResponse.after(
+                wallet.getId(), wallet.getBalance(), TransactionType.CREDIT, request.getAmount());
+    }
+
+    @PostMapping("/debit")
+    public WalletOperationResponse debit(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestBody WalletOperationRequest request
+    ) {
+        if (idempotencyKey != null) {
+            return walletService.applyOnce(
+                    principal.userId(), TransactionType.DEBIT, request.getAmount(), idempotencyKey);
+        }
+        Wallet wallet = walletService.debit(principal.userId(), request.getAmount());
+        return WalletOperationResponse.after(
+                wallet.getId(), wallet.getBalance(), TransactionType.DEBIT, request.getAmount());
+    }
+
+    @GetMapping("/balance")
+    public WalletBalanceResponse getBalance(@AuthenticationPrincipal WalletPrincipal principal) {
+        Wallet wallet = walletService.getWalletByUser(principal.userId());
+        return new WalletBalanceResponse(wallet.getId(), wallet.getBalance());
+    }
+
+    /**
+     * Server-sent events: the current balance first, then one {@code balance} event per
+     * committed change. Rapid changes are coalesced to the latest balance, and the stream
+     * ends after {@code wallet.balance-stream.max-duration}; clients reconnect.
+     */
+    @GetMapping(value = "/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalance(@AuthenticationPrincipal WalletPrincipal principal) {
+        if (!balanceEvents.isEnabled()) {
+            throw new FeatureUnavailableException("Balance streams are disabled", "STREAM_DISABLED");
+        }
+        SseEmitter emitter = new SseEmitter(balanceEvents.getMaxStreamDuration().toMillis());
+        BalanceSubscription subscription = balanceEvents.subscribe(principal.userId(), new SseBalanceSink(emitter));
+        emitter.onCompletion(subscription::close);
+        // Left open, the timeout surfaces as an AsyncRequestTimeoutException on a committed response
+        emitter.onTimeout(() -> {
+            subscription.close();
+            emitter.complete();
+        });
+        emitter.onError(e -> subscription.close());
+
+        // Subscribe first, so a change committed while the balance is read is not missed
+        Wallet wallet;
+        try {
+            wallet = walletService.getWalletByUser(principal.userId());
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        subscription.offerInitial(new WalletBalanceResponse(wallet.getId(), wallet.getBalance()), wallet.getVersion());
+        return emitter;
+    }
+
+    @GetMapping("/balance/at")
+    public WalletBalanceResponse getBalanceAt(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at
+    ) {
+        UUID walletId = walletIdOf(principal);
+        walletService.awaitPersisted(principal.userId());
+        return new WalletBalanceResponse(walletId, reconciliationService.balanceAt(walletId, at));
+    }
+
+    @GetMapping("/transactions")
+    public TransactionPageResponse getTransactions(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        UUID walletId = walletIdOf(principal);
+        walletService.awaitPersisted(principal.userId());
+        return historyService.getPage(walletId, type, from, to, cursor, limit);
+    }
+
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        StatementExportService.Format exportFormat =
+                StatementExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        UUID walletId = walletIdOf(principal);
+        walletService.awaitPersisted(principal.userId());
+        boolean csv = exportFormat == StatementExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + walletId + (csv ? ".csv" : ".ndjson"))
+                        .build()
+                        .toString())
+                .body(out -> exportService.export(walletId, exportFormat, from, to, out));
+    }
+
+    @PostMapping("/transfer")
+    public TransferResponse transfer(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestBody TransferRequest request
+    ) {
+        Wallet wallet = walletService.transfer(
+                principal.userId(), request.getToWalletId(), request.getAmount());
+        return new TransferResponse(
+                wallet.getId(), request.getToWalletId(), request.getAmount(), wallet.getBalance());
+    }
+
+    @PostMapping(value = "/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> batch(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestBody List<BatchItemRequest> items
+    ) {
+        return streamBatch(principal, items::iterator);
+    }
+
+    // The NDJSON body is parsed as results are written, so neither side is buffered whole
+    @PostMapping(value = "/batch",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> batchNdjson(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            HttpServletRequest request
+    ) {
+        return streamBatch(principal, () -> readNdjson(request.getInputStream()));
+    }
+
+    // A line Jackson cannot read becomes the IllegalArgumentException applyBatch reports as MALFORMED_INPUT
+    private Iterator<BatchItemRequest> readNdjson(InputStream in) {
+        ObjectReader reader = objectMapper.readerFor(BatchItemRequest.class);
+        return new Iterator<>() {
+            private MappingIterator<BatchItemRequest> lines;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    // Opening reads the first token, so a malformed first line fails here too
+                    if (lines == null) {
+                        lines = reader.readValues(in);
+                    }
+                    return lines.hasNextValue();
+                } catch (IOException e) {
+                    throw unreadable(e);
+                }
+            }
+
+            @Override
+            public BatchItemRequest next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return lines.nextValue();
+                } catch (IOException e) {
+                    throw unreadable(e);
+                }
+            }
+        };
+    }
+
+    private static RuntimeException unreadable(IOException e) {
+        return e instanceof JsonProcessingException
+                ? new IllegalArgumentException(e.getMessage(), e)
+                : new UncheckedIOException(e);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamBatch(WalletPrincipal principal, BatchSource source) {
+        StreamingResponseBody body = out -> {
+            ObjectWriter writer = objectMapper.writerFor(BatchItemResult.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            walletService.applyBatch(principal.userId(), source.open(), results -> {
+                try {
+                    for (BatchItemResult result : results) {
+                        writer.writeValue(out, result);
+                        out.write('\n');
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private record SseBalanceSink(SseEmitter emitter) implements BalanceSink {
+
+        @Override
+        public void send(WalletBalanceResponse balance) throws IOException {
+            emitter.send(SseEmitter.event().name("balance").data(balance, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchSource {
+        Iterator<BatchItemRequest> open() throws IOException;
+    }
+}
@@ -0,0 +1,23 @@
+package com.mvgore.walletapi.dto;
+
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.money.Money;
+
+public class BatchItemRequest {
+
+    private TransactionType type;
+    private Money amount;
+
+    public BatchItemRequest() {}
+
+    public BatchItemRequest(TransactionType type, Money amount) {
+        this.type = type;
+        this.amount = amount;
+    }
+
+    public TransactionType getType() { return type; }
+    public void setType(TransactionType type) { this.type = type; }
+
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+}
@@ -0,0 +1,44 @@
+package com.mvgore.walletapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mvgore.walletapi.money.Money;
+
+/**
+ * Outcome of one batch item, written as one NDJSON line. {@code index} is the item's
+ * zero-based position in the request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    public enum Status {
+        APPLIED, REJECTED
+    }
+
+    private final int index;
+    private final Status status;
+    private final Money balance;
+    private final String error;
+    private final String message;
+
+    private BatchItemResult(int index, Status status, Money balance, String error, String message) {
+        this.index = index;
+        this.status = status;
+        this.balance = balance;
+        this.error = error;
+        this.message = message;
+    }
+
+    public static BatchItemResult applied(int index, Money balance) {
+        return new BatchItemResult(index, Status.APPLIED, balance, null, null);
+    }
+
+    public static BatchItemResult rejected(int index, String error, String message) {
+        return new BatchItemResult(index, Status.REJECTED, null, error, message);
+    }
+
+    public int getIndex() { return index; }
+    public Status getStatus() { return status; }
+    public Money getBalance() { return balance; }
+    public String getError() { return error; }
+    public String getMessage() { return message; }
+}
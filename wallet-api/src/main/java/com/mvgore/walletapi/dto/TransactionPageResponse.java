@@ -0,0 +1,20 @@
+package com.mvgore.walletapi.dto;
+
+import java.util.List;
+
+/**
+ * One page of history, newest first. {@code nextCursor} is {@code null} on the last page.
+ */
+public class TransactionPageResponse {
+
+    private final List<TransactionView> items;
+    private final String nextCursor;
+
+    public TransactionPageResponse(List<TransactionView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionView> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
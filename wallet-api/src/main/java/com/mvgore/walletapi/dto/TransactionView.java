@@ -0,0 +1,26 @@
+package com.mvgore.walletapi.dto;
+
+import com.mvgore.walletapi.money.Money;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class TransactionView {
+
+    private final UUID id;
+    private final String type;
+    private final Money amount;
+    private final LocalDateTime createdAt;
+
+    public TransactionView(UUID id, String type, Money amount, LocalDateTime createdAt) {
+        this.id = id;
+        this.type = type;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    public UUID getId() { return id; }
+    public String getType() { return type; }
+    public Money getAmount() { return amount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,17 @@
+package com.mvgore.walletapi.dto;
+
+import com.mvgore.walletapi.money.Money;
+
+import java.util.UUID;
+
+public class TransferRequest {
+
+    private UUID toWalletId;
+    private Money amount;
+
+    public UUID getToWalletId() { return toWalletId; }
+    public void setToWalletId(UUID toWalletId) { this.toWalletId = toWalletId; }
+
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+}
@@ -0,0 +1,28 @@
+package com.mvgore.walletapi.dto;
+
+import com.mvgore.walletapi.money.Money;
+
+import java.util.UUID;
+
+/**
+ * Result of a transfer as seen by the sender; the recipient's balance is not disclosed.
+ */
+public class TransferResponse {
+
+    private final UUID fromWalletId;
+    private final UUID toWalletId;
+    private final Money amount;
+    private final Money balance;
+
+    public TransferResponse(UUID fromWalletId, UUID toWalletId, Money amount, Money balance) {
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+        this.amount = amount;
+        this.balance = balance;
+    }
+
+    public UUID getFromWalletId() { return fromWalletId; }
+    public UUID getToWalletId() { return toWalletId; }
+    public Money getAmount() { return amount; }
+    public Money getBalance() { return balance; }
+}
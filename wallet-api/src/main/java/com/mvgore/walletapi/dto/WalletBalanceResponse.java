@@ -0,0 +1,12 @@
+package com.mvgore.walletapi.dto;
+
+import com.mvgore.walletapi.money.Money;
+
+import java.util.UUID;
+
+/**
+ * Balance of one wallet, as returned by balance reads and wallet creation. Also one of the
+ * types served as CBOR or protobuf; protobuf field numbers follow component order.
+ */
+public record WalletBalanceResponse(UUID walletId, Money balance) {
+}
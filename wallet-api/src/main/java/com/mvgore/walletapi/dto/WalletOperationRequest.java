@@ -1,17 +1,17 @@
 package com.mvgore.walletapi.dto;
 
-import java.math.BigDecimal;
+import com.mvgore.walletapi.money.Money;
 
 public class WalletOperationRequest {
 
     private String operationType;
-    private BigDecimal amount;
+    private Money amount;
 
     public String getOperationType() { return operationType; }
     public void setOperationType(String operationType) { this.operationType = operationType; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
 
     public enum OperationType {
         DEPOSIT, WITHDRAW
@@ -0,0 +1,19 @@
+package com.mvgore.walletapi.dto;
+
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.money.Money;
+
+import java.util.UUID;
+
+/**
+ * Result of a credit or debit: the balance either side of it. Also one of the types served
+ * as CBOR or protobuf; protobuf field numbers follow component order.
+ */
+public record WalletOperationResponse(UUID walletId, Money oldBalance, Money newBalance) {
+
+    // The strategies return the wallet as committed, so the old balance is derived from the amount
+    public static WalletOperationResponse after(UUID walletId, Money newBalance, TransactionType type, Money amount) {
+        Money oldBalance = type == TransactionType.CREDIT ? newBalance.minus(amount) : newBalance.plus(amount);
+        return new WalletOperationResponse(walletId, oldBalance, newBalance);
+    }
+}
@@ -0,0 +1,160 @@
+package com.mvgore.walletapi.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies durable journal records to Postgres in large batches and advances the drained
+ * checkpoint after each commit. A failed batch is retried after a pause rather than
+ * dropped, so a database stall only grows the backlog; writes keep being acknowledged
+ * from the journal meanwhile. {@link LedgerStore#drain} skips rows it already has,
+ * which makes a batch re-sent after a crash harmless.
+ *
+ * <p>A batch that fails {@code maxAttempts} times in a row is drained one record at a
+ * time. A record Postgres still rejects on its own while it answers a ping (a wallet that
+ * no longer exists, a dropped partition) is quarantined by the journal instead of
+ * blocking every record behind it; a record that fails its checksum is set aside the same
+ * way. An unreachable database is never a reason to quarantine: the drainer keeps
+ * backing off until it returns.
+ */
+public final class JournalDrainer implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalDrainer.class);
+
+    private final LedgerJournal journal;
+    private final LedgerStore store;
+    private final int maxBatchSize;
+    private final long idleMillis;
+    private final long retryBackoffMillis;
+    private final int maxAttempts;
+    private final List<LedgerEntry> batch;
+
+    // Consecutive failures of the batch at the drained checkpoint; only the draining thread touches it
+    private int failures;
+
+    private volatile boolean running = true;
+
+    public JournalDrainer(LedgerJournal journal, LedgerStore store, int maxBatchSize,
+                          Duration idleInterval, Duration retryBackoff, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one drain attempt is required");
+        }
+        this.journal = journal;
+        this.store = store;
+        this.maxBatchSize = maxBatchSize;
+        this.idleMillis = idleInterval.toMillis();
+        this.retryBackoffMillis = retryBackoff.toMillis();
+        this.maxAttempts = maxAttempts;
+        this.batch = new ArrayList<>(maxBatchSize);
+    }
+
+    /**
+     * Drains everything the journal holds, retrying until Postgres accepts or quarantines
+     * it. Runs before the partitions start, because they load balances from the database;
+     * while the database is unreachable, startup waits for it.
+     */
+    public void replay() throws InterruptedException {
+        long start = journal.drainedLsn();
+        while (true) {
+            try {
+                if (!drainOnce()) {
+                    break;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Journal replay failed; retrying in {} ms", retryBackoffMillis, e);
+                Thread.sleep(retryBackoffMillis);
+            }
+        }
+        if (journal.drainedLsn() > start) {
+            log.info("Replayed ledger journal from LSN {} to {}", start, journal.drainedLsn());
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                if (!drainOnce()) {
+                    Thread.sleep(idleMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Journal drain failed; retrying in {} ms", retryBackoffMillis, e);
+                try {
+                    Thread.sleep(retryBackoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        // Best effort on shutdown; whatever is left is replayed on the next start
+        try {
+            while (drainOnce()) {
+                // keep going until caught up
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Journal drain at shutdown failed; the remainder will be replayed on start", e);
+        }
+    }
+
+    // Returns whether anything was drained
+    private boolean drainOnce() throws IOException {
+        long from = journal.drainedLsn();
+        batch.clear();
+        long next;
+        try {
+            next = journal.read(from, maxBatchSize, batch);
+        } catch (LedgerJournal.CorruptRecordException e) {
+            if (++failures < maxAttempts) {
+                throw e;
+            }
+            next = journal.quarantineCorrupt(e.lsn());
+        }
+        if (next == from) {
+            return false;
+        }
+        if (!batch.isEmpty()) {
+            try {
+                store.drain(batch);
+            } catch (RuntimeException e) {
+                if (++failures < maxAttempts) {
+                    throw e;
+                }
+                log.warn("Journal batch at LSN {} failed {} times; draining its records one by one", from, failures);
+                drainEach();
+            }
+        }
+        journal.markDrained(next);
+        failures = 0;
+        return true;
+    }
+
+    private void drainEach() throws IOException {
+        for (LedgerEntry entry : batch) {
+            try {
+                store.drain(List.of(entry));
+            } catch (RuntimeException e) {
+                // Throws while the database is down, leaving the batch to be retried whole;
+                // records drained so far are skipped as duplicates then
+                store.ping();
+                try {
+                    store.drain(List.of(entry));
+                } catch (RuntimeException again) {
+                    journal.quarantine(entry, again);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mvgore.walletapi.engine;
+
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.money.Money;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+final class LedgerCommand {
+
+    private final UUID userId;
+    private final Money amount;
+    private final TransactionType type;
+    private final CompletableFuture<Wallet> result = new CompletableFuture<>();
+    // Set on a read before its result completes; see WalletState#getJournalLsn
+    private long journalLsn;
+
+    LedgerCommand(UUID userId, Money amount, TransactionType type) {
+        this.userId = userId;
+        this.amount = amount;
+        this.type = type;
+    }
+
+    // Reports the wallet as of every write queued ahead of it, without changing it
+    static LedgerCommand read(UUID userId) {
+        return new LedgerCommand(userId, null, null);
+    }
+
+    UUID getUserId() { return userId; }
+    Money getAmount() { return amount; }
+    TransactionType getType() { return type; }
+    CompletableFuture<Wallet> getResult() { return result; }
+    boolean isRead() { return type == null; }
+    long getJournalLsn() { return journalLsn; }
+
+    void completeRead(Wallet wallet, long journalLsn) {
+        this.journalLsn = journalLsn;
+        result.complete(wallet);
+    }
+}
@@ -0,0 +1,186 @@
+package com.mvgore.walletapi.engine;
+
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.WalletException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.service.WalletWriteStrategy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sharded, single-writer ledger. Each user's wallet is owned by exactly one partition,
+ * which holds the authoritative balance in memory and group-commits applied operations.
+ * At most {@code maxCachedWallets} balances are held across all partitions; the least
+ * recently used ones are reloaded from the database when next needed.
+ * A call returns only after the batch containing it has been committed.
+ *
+ * <p>With a {@link LedgerJournal}, a batch counts as committed once it is fsynced to the
+ * journal, and a background drainer copies it to Postgres. Balances read from the database
+ * can then trail acknowledged writes by the drain lag, and a Postgres stall delays only the
+ * drain. Anything left undrained is replayed before the partitions start. Balance reads are
+ * then answered by the owning partition, and reads of the ledger rows wait for the wallet's
+ * entries to drain.
+ *
+ * <p>The engine assumes it is the only writer of wallet balances while it is enabled.
+ */
+public class LedgerEngine implements WalletWriteStrategy {
+
+    private final LedgerPartition[] partitions;
+    private final Thread[] threads;
+    private final long requestTimeoutMillis;
+    private final LedgerJournal journal;
+    private final JournalDrainer drainer;
+    private final Thread drainerThread;
+
+    public LedgerEngine(LedgerStore store,
+                        int partitionCount,
+                        int queueCapacity,
+                        int maxBatchSize,
+                        int maxCachedWallets,
+                        Duration requestTimeout) {
+        this(store, partitionCount, queueCapacity, maxBatchSize, maxCachedWallets, requestTimeout,
+                null, 0, null, null, 1);
+    }
+
+    public LedgerEngine(LedgerStore store,
+                        int partitionCount,
+                        int queueCapacity,
+                        int maxBatchSize,
+                        int maxCachedWallets,
+                        Duration requestTimeout,
+                        LedgerJournal journal,
+                        int drainBatchSize,
+                        Duration drainInterval,
+                        Duration drainRetryBackoff,
+                        int drainMaxAttempts) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("At least one ledger partition is required");
+        }
+        this.partitions = new LedgerPartition[partitionCount];
+        this.threads = new Thread[partitionCount];
+        this.requestTimeoutMillis = requestTimeout.toMillis();
+        this.journal = journal;
+        int maxWalletsPerPartition = Math.max(1, Math.ceilDiv(maxCachedWallets, partitionCount));
+
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new LedgerPartition(i, store, journal, queueCapacity, maxBatchSize, maxWalletsPerPartition);
+            threads[i] = new Thread(partitions[i], "ledger-partition-" + i);
+        }
+
+        if (journal != null) {
+            this.drainer = new JournalDrainer(journal, store, drainBatchSize, drainInterval, drainRetryBackoff,
+                    drainMaxAttempts);
+            this.drainerThread = new Thread(drainer, "ledger-journal-drainer");
+        } else {
+            this.drainer = null;
+            this.drainerThread = null;
+        }
+    }
+
+    public void start() throws InterruptedException {
+        if (drainer != null) {
+            // Partitions load balances from the database, so it must hold every journalled entry first
+            drainer.replay();
+            drainerThread.start();
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    public void stop() throws InterruptedException {
+        for (LedgerPartition partition : partitions) {
+            partition.stop();
+        }
+        for (Thread thread : threads) {
+            thread.join(requestTimeoutMillis);
+        }
+        if (drainer != null) {
+            drainer.stop();
+            drainerThread.join(requestTimeoutMillis);
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new WalletException("Failed to close ledger journal", "JOURNAL_FAILED", e);
+            }
+        }
+    }
+
+    @Override
+    public Wallet credit(UUID userId, Money amount) {
+        return execute(new LedgerCommand(userId, amount, TransactionType.CREDIT));
+    }
+
+    @Override
+    public Wallet debit(UUID userId, Money amount) {
+        return execute(new LedgerCommand(userId, amount, TransactionType.DEBIT));
+    }
+
+    // Partition threads do the JDBC work; callers only wait on a future
+    @Override
+    public boolean usesCallerConnection() {
+        return false;
+    }
+
+    // Balances live in the partitions; a direct row update would be overwritten or lost
+    @Override
+    public boolean allowsDirectWrites() {
+        return false;
+    }
+
+    // Without a journal Postgres commits every write before it is acknowledged
+    @Override
+    public Wallet currentWallet(UUID userId) {
+        return journal != null ? execute(LedgerCommand.read(userId)) : null;
+    }
+
+    @Override
+    public void awaitPersisted(UUID userId) {
+        if (journal == null) {
+            return;
+        }
+        LedgerCommand read = LedgerCommand.read(userId);
+        execute(read);
+        try {
+            if (!journal.awaitDrained(read.getJournalLsn(), requestTimeoutMillis)) {
+                throw new WalletException("Wallet history is still being written to the database, retry later",
+                        "JOURNAL_DRAIN_LAG");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletException("Interrupted while waiting for the journal drain", "ENGINE_INTERRUPTED", e);
+        }
+    }
+
+    private Wallet execute(LedgerCommand command) {
+        if (!partitionFor(command.getUserId()).offer(command)) {
+            throw new WalletException("Ledger partition is saturated", "ENGINE_OVERLOADED");
+        }
+
+        try {
+            return command.getResult().get(requestTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new WalletException("Wallet operation failed", "ENGINE_FAILURE", e.getCause());
+        } catch (TimeoutException e) {
+            // The operation may still commit; the caller only learns that it did not in time
+            throw new WalletException("Wallet operation timed out", "ENGINE_TIMEOUT", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletException("Interrupted while waiting for wallet operation", "ENGINE_INTERRUPTED", e);
+        }
+    }
+
+    private LedgerPartition partitionFor(UUID userId) {
+        int hash = userId.hashCode();
+        return partitions[Math.floorMod(hash ^ (hash >>> 16), partitions.length)];
+    }
+}
@@ -0,0 +1,22 @@
+package com.mvgore.walletapi.engine;
+
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.money.Money;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One applied operation waiting to be made durable: the {@code transactions} row
+ * plus the balance delta it implies for its wallet.
+ */
+public record LedgerEntry(UUID transactionId,
+                          UUID walletId,
+                          Money amount,
+                          TransactionType type,
+                          LocalDateTime createdAt) {
+
+    long delta() {
+        return type == TransactionType.CREDIT ? amount.minorUnits() : -amount.minorUnits();
+    }
+}
@@ -0,0 +1,475 @@
+package com.mvgore.walletapi.engine;
+
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.money.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal for the ledger engine. Applied entries are appended to memory-mapped
+ * segment files and acknowledged once {@link #sync} has forced them to disk; a single
+ * force covers everything appended so far, so partitions committing at the same time
+ * share one fsync. {@link JournalDrainer} later copies them to Postgres and advances the
+ * drained checkpoint, after which whole segments are deleted.
+ *
+ * <p>Positions (LSNs) are byte offsets across all segments; a segment file is named after
+ * the LSN of its first byte. Each record is {@code [length][crc32c][payload]} and never
+ * spans segments. On open, the log is scanned from the checkpoint and ends at the first
+ * empty slot or checksum mismatch, i.e. at a write torn by a crash.
+ *
+ * <p>Records the drainer gives up on (Postgres keeps rejecting them, or their checksum no
+ * longer matches) are appended to a {@code quarantined} file next to the segments before the
+ * checkpoint moves past them, so they can be inspected and re-applied by hand.
+ *
+ * <p>Any I/O failure poisons the journal: after a failed fsync it is unknown what reached
+ * the disk, so every later append is refused until a restart re-reads the log.
+ */
+public class LedgerJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerJournal.class);
+
+    // transactionId, walletId, amount, type, createdAt (epoch second, nano)
+    private static final int PAYLOAD_BYTES = 16 + 16 + 8 + 1 + 8 + 4;
+    private static final int HEADER_BYTES = 4 + 4;
+    static final int RECORD_BYTES = HEADER_BYTES + PAYLOAD_BYTES;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "drained";
+    private static final String QUARANTINE_FILE = "quarantined";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private final Object drainLock = new Object();
+    private final ByteBuffer scratch = ByteBuffer.allocate(PAYLOAD_BYTES);
+    private final CRC32C crc = new CRC32C();
+
+    private final Timer fsyncTimer;
+    private final Counter quarantinedRecords;
+
+    private Segment current;
+    private volatile long writtenLsn;
+    private volatile long durableLsn;
+    private volatile long drainedLsn;
+    private volatile IOException failure;
+
+    private LedgerJournal(Path directory, int segmentBytes, MeterRegistry registry) {
+        if (segmentBytes < RECORD_BYTES) {
+            throw new IllegalArgumentException("Journal segments must hold at least one record");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsyncTimer = Timer.builder("wallet.journal.fsync")
+                .description("Time to force appended journal records to disk")
+                .register(registry);
+        this.quarantinedRecords = Counter.builder("wallet.journal.quarantined")
+                .description("Journal records set aside because they could not be drained to Postgres")
+                .register(registry);
+        Gauge.builder("wallet.journal.undrained", this, journal -> journal.durableLsn - journal.drainedLsn)
+                .description("Bytes of acknowledged journal records not yet written to Postgres")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Opens (or creates) the journal in {@code directory}, recovering the end of the log.
+     * Records between the drained checkpoint and the recovered end are what
+     * {@link JournalDrainer} replays.
+     */
+    public static LedgerJournal open(Path directory, int segmentBytes, MeterRegistry registry) throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory, segmentBytes, registry);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Appends {@code entries} and returns the LSN just past the last one. The entries are
+     * not durable until {@link #sync} with that LSN returns.
+     */
+    public long append(List<LedgerEntry> entries) throws IOException {
+        synchronized (writeLock) {
+            checkHealthy();
+            try {
+                for (LedgerEntry entry : entries) {
+                    if (writtenLsn - current.base() + RECORD_BYTES > current.size()) {
+                        roll();
+                    }
+                    writeRecord(current.buffer(), (int) (writtenLsn - current.base()), entry);
+                    writtenLsn += RECORD_BYTES;
+                }
+                return writtenLsn;
+            } catch (IOException | RuntimeException e) {
+                throw fail(e);
+            }
+        }
+    }
+
+    /**
+     * Returns once everything up to {@code lsn} is on disk. The caller that takes the lock
+     * forces everything appended by then, so waiters behind it usually find their records
+     * already durable.
+     */
+    public void sync(long lsn) throws IOException {
+        synchronized (syncLock) {
+            checkHealthy();
+            if (durableLsn >= lsn) {
+                return;
+            }
+            Segment segment;
+            long target;
+            synchronized (writeLock) {
+                segment = current;
+                target = writtenLsn;
+            }
+            // Earlier segments were forced when the writer rolled past them
+            long from = Math.max(durableLsn, segment.base());
+            long start = System.nanoTime();
+            try {
+                segment.buffer().force((int) (from - segment.base()), (int) (target - from));
+            } catch (RuntimeException e) {
+                throw fail(e);
+            } finally {
+                fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            durableLsn = target;
+        }
+    }
+
+    public long drainedLsn() {
+        return drainedLsn;
+    }
+
+    /**
+     * Waits until everything before {@code lsn} is in Postgres. Returns false if the drain
+     * has not got that far within {@code timeoutMillis}.
+     */
+    public boolean awaitDrained(long lsn, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (drainLock) {
+            while (drainedLsn < lsn) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                drainLock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Decodes up to {@code max} durable entries starting at {@code fromLsn} into {@code out}
+     * and returns the LSN to continue from. Only the drainer calls this. Reading stops just
+     * before a record that fails its checksum; {@link CorruptRecordException} is thrown only
+     * when that record is the first one, so the entries ahead of it still drain.
+     */
+    public long read(long fromLsn, int max, List<LedgerEntry> out) throws IOException {
+        long lsn = fromLsn;
+        long end = durableLsn;
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        while (lsn < end && out.size() < max) {
+            Map.Entry<Long, Segment> floor = segments.floorEntry(lsn);
+            if (floor == null) {
+                throw new IOException("No journal segment holds LSN " + lsn);
+            }
+            Segment segment = floor.getValue();
+            int offset = (int) (lsn - segment.base());
+            if (offset + RECORD_BYTES > segment.size() || segment.buffer().getInt(offset) == 0) {
+                // Unused tail left when the writer rolled to the next segment
+                lsn = segment.base() + segment.size();
+                continue;
+            }
+            if (!readRecord(segment.buffer(), offset, payload)) {
+                if (lsn > fromLsn) {
+                    return lsn;
+                }
+                throw new CorruptRecordException(lsn);
+            }
+            out.add(decode(payload));
+            lsn += RECORD_BYTES;
+        }
+        return lsn;
+    }
+
+    /**
+     * Records that everything before {@code lsn} is in Postgres, then deletes segments that
+     * hold nothing newer. The checkpoint is replaced atomically, so a crash leaves either the
+     * old or the new value; an old one only means some entries are drained twice.
+     */
+    public void markDrained(long lsn) throws IOException {
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(Long.toString(lsn).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        synchronized (drainLock) {
+            drainedLsn = lsn;
+            drainLock.notifyAll();
+        }
+
+        for (Segment segment : segments.headMap(lsn, true).values()) {
+            if (segment.base() + segment.size() <= lsn && segment != currentSegment()) {
+                segments.remove(segment.base());
+                segment.close();
+                Files.deleteIfExists(segment.path());
+            }
+        }
+    }
+
+    /**
+     * Appends an entry Postgres refused to the quarantine file and forces it, so the
+     * checkpoint can move past the entry without losing it.
+     */
+    void quarantine(LedgerEntry entry, Exception cause) throws IOException {
+        appendQuarantine(String.join(" ", "entry", entry.transactionId().toString(), entry.walletId().toString(),
+                entry.amount().toString(), entry.type().name(), entry.createdAt().toString(),
+                String.valueOf(cause.getMessage()).replace('\n', ' ')));
+    }
+
+    /**
+     * Copies the raw bytes of the unreadable record at {@code lsn} to the quarantine file
+     * and returns the LSN just past it.
+     */
+    long quarantineCorrupt(long lsn) throws IOException {
+        Map.Entry<Long, Segment> floor = segments.floorEntry(lsn);
+        if (floor == null) {
+            throw new IOException("No journal segment holds LSN " + lsn);
+        }
+        byte[] raw = new byte[RECORD_BYTES];
+        floor.getValue().buffer().get((int) (lsn - floor.getKey()), raw);
+        appendQuarantine("corrupt " + lsn + " " + HexFormat.of().formatHex(raw));
+        return lsn + RECORD_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+        }
+    }
+
+    private Segment currentSegment() {
+        synchronized (writeLock) {
+            return current;
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        long drained = Files.exists(checkpoint)
+                ? Long.parseLong(Files.readString(checkpoint, StandardCharsets.US_ASCII).trim())
+                : 0;
+
+        List<Long> bases = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(bases::add);
+        }
+
+        long lsn = drained;
+        boolean ended = false;
+        for (long base : bases) {
+            Path path = segmentPath(base);
+            long size = Files.size(path);
+            if (ended || base + size <= drained) {
+                if (ended) {
+                    log.warn("Discarding journal segment {} found past the end of the log", path);
+                }
+                Files.delete(path);
+                continue;
+            }
+            Segment segment = Segment.map(path, base, (int) size);
+            segments.put(base, segment);
+            current = segment;
+
+            int offset = (int) (Math.max(lsn, base) - base);
+            byte[] payload = new byte[PAYLOAD_BYTES];
+            while (offset + RECORD_BYTES <= size && readRecord(segment.buffer(), offset, payload)) {
+                offset += RECORD_BYTES;
+            }
+            lsn = base + offset;
+            if (offset + RECORD_BYTES <= size) {
+                // Empty slot or torn write: this is the end. Clear the tail so it reads as empty.
+                for (int i = offset; i < size; i++) {
+                    segment.buffer().put(i, (byte) 0);
+                }
+                segment.buffer().force();
+                ended = true;
+            } else {
+                lsn = base + size;
+            }
+        }
+
+        if (current == null) {
+            current = createSegment(lsn);
+        }
+        writtenLsn = lsn;
+        durableLsn = lsn;
+        drainedLsn = drained;
+        if (lsn > drained) {
+            log.info("Ledger journal has {} bytes to replay from LSN {}", lsn - drained, drained);
+        }
+    }
+
+    // Caller holds writeLock
+    private void roll() throws IOException {
+        current.buffer().force();
+        long next = current.base() + current.size();
+        current = createSegment(next);
+        writtenLsn = next;
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Segment segment = Segment.map(segmentPath(base), base, segmentBytes);
+        segment.channel().force(true);
+        syncDirectory();
+        segments.put(base, segment);
+        return segment;
+    }
+
+    // Makes a created or renamed file's directory entry durable, not just its contents
+    private void syncDirectory() throws IOException {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    private void appendQuarantine(String line) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(QUARANTINE_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        syncDirectory();
+        quarantinedRecords.increment();
+        log.error("Quarantined ledger journal record: {}", line);
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    // Caller holds writeLock
+    private void writeRecord(MappedByteBuffer buffer, int offset, LedgerEntry entry) {
+        scratch.clear();
+        scratch.putLong(entry.transactionId().getMostSignificantBits())
+                .putLong(entry.transactionId().getLeastSignificantBits())
+                .putLong(entry.walletId().getMostSignificantBits())
+                .putLong(entry.walletId().getLeastSignificantBits())
+                .putLong(entry.amount().minorUnits())
+                .put((byte) entry.type().ordinal())
+                .putLong(entry.createdAt().toEpochSecond(ZoneOffset.UTC))
+                .putInt(entry.createdAt().getNano());
+        crc.reset();
+        crc.update(scratch.array(), 0, PAYLOAD_BYTES);
+        buffer.put(offset + HEADER_BYTES, scratch.array(), 0, PAYLOAD_BYTES);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        // Length last, so the writer never leaves a length without its payload; the checksum
+        // catches pages that reached the disk only partly
+        buffer.putInt(offset, PAYLOAD_BYTES);
+    }
+
+    private static boolean readRecord(MappedByteBuffer buffer, int offset, byte[] payload) {
+        if (buffer.getInt(offset) != PAYLOAD_BYTES) {
+            return false;
+        }
+        buffer.get(offset + HEADER_BYTES, payload);
+        CRC32C check = new CRC32C();
+        check.update(payload);
+        return (int) check.getValue() == buffer.getInt(offset + 4);
+    }
+
+    private static LedgerEntry decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        UUID transactionId = new UUID(in.getLong(), in.getLong());
+        UUID walletId = new UUID(in.getLong(), in.getLong());
+        Money amount = Money.ofMinor(in.getLong());
+        TransactionType type = TransactionType.values()[in.get()];
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        return new LedgerEntry(transactionId, walletId, amount, type, createdAt);
+    }
+
+    private void checkHealthy() throws IOException {
+        if (failure != null) {
+            throw new IOException("Ledger journal failed earlier; restart to recover", failure);
+        }
+    }
+
+    private IOException fail(Exception e) {
+        IOException failed = e instanceof IOException io ? io : new IOException("Ledger journal write failed", e);
+        failure = failed;
+        log.error("Ledger journal poisoned; acknowledged writes are safe, new writes are refused", e);
+        return failed;
+    }
+
+    /**
+     * The record at {@link #lsn()} fails its checksum: it reached the disk damaged, or was
+     * damaged there after recovery.
+     */
+    static final class CorruptRecordException extends IOException {
+
+        private final long lsn;
+
+        CorruptRecordException(long lsn) {
+            super("Corrupt journal record at LSN " + lsn);
+            this.lsn = lsn;
+        }
+
+        long lsn() {
+            return lsn;
+        }
+    }
+
+    private record Segment(Path path, long base, int size, FileChannel channel, MappedByteBuffer buffer) {
+
+        static Segment map(Path path, long base, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, base, size, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.mvgore.walletapi.engine;
+
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer shard of the ledger. Commands are applied strictly in arrival order on
+ * the partition thread, so balances need no locks. Whatever accumulates in the queue
+ * while a batch is being committed becomes the next batch.
+ *
+ * <p>With a journal, a batch is committed once it is fsynced to the journal; Postgres is
+ * brought up to date later by the {@link JournalDrainer}.
+ *
+ * <p>Loaded balances are kept in least-recently-used order and evicted past
+ * {@code maxWallets}; an evicted wallet is simply loaded again on its next operation.
+ */
+final class LedgerPartition implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerPartition.class);
+
+    private final int index;
+    private final LedgerStore store;
+    private final LedgerJournal journal;
+    private final BlockingQueue<LedgerCommand> queue;
+    private final int maxBatchSize;
+    private final int maxWallets;
+    private final Map<UUID, WalletState> wallets = new LinkedHashMap<>(16, 0.75f, true);
+
+    private volatile boolean running = true;
+
+    LedgerPartition(int index, LedgerStore store, LedgerJournal journal,
+                    int queueCapacity, int maxBatchSize, int maxWallets) {
+        this.index = index;
+        this.store = store;
+        this.journal = journal;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWallets = maxWallets;
+    }
+
+    boolean offer(LedgerCommand command) {
+        return running && queue.offer(command);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        List<LedgerCommand> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                LedgerCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        queue.drainTo(batch);
+        batch.forEach(command -> command.getResult().completeExceptionally(
+                new WalletException("Ledger engine is shutting down", "ENGINE_STOPPED")));
+    }
+
+    private void process(List<LedgerCommand> batch) {
+        List<LedgerEntry> entries = new ArrayList<>(batch.size());
+        List<LedgerCommand> accepted = new ArrayList<>(batch.size());
+        List<Wallet> results = new ArrayList<>(batch.size());
+        List<WalletState> touched = new ArrayList<>(batch.size());
+        List<LedgerCommand> reads = new ArrayList<>();
+        List<WalletState> readStates = new ArrayList<>();
+
+        for (LedgerCommand command : batch) {
+            try {
+                WalletState state = wallets.get(command.getUserId());
+                if (state == null) {
+                    state = store.load(command.getUserId())
+                            .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user"));
+                    wallets.put(command.getUserId(), state);
+                }
+
+                if (command.isRead()) {
+                    // Answered once the writes ahead of it in this batch are acknowledged
+                    reads.add(command);
+                    readStates.add(state);
+                    continue;
+                }
+
+                if (command.getType() == TransactionType.DEBIT
+                        && state.getBalance() < command.getAmount().minorUnits()) {
+                    throw new InsufficientFundsException("Insufficient funds");
+                }
+
+                LedgerEntry entry = new LedgerEntry(UUID.randomUUID(), state.getWalletId(),
+                        command.getAmount(), command.getType(), LocalDateTime.now());
+                state.apply(entry.delta());
+
+                entries.add(entry);
+                accepted.add(command);
+                touched.add(state);
+                results.add(new Wallet(state.getWalletId(), Money.ofMinor(state.getBalance()), state.getUserId(),
+                        state.getVersion()));
+            } catch (RuntimeException e) {
+                command.getResult().completeExceptionally(e);
+            }
+        }
+
+        if (entries.isEmpty()) {
+            completeReads(reads, readStates);
+            evict();
+            return;
+        }
+
+        if (journal != null) {
+            try {
+                long lsn = journal.append(entries);
+                journal.sync(lsn);
+                touched.forEach(state -> state.journalledUpTo(lsn));
+            } catch (IOException | RuntimeException e) {
+                log.error("Ledger partition {} failed to journal a batch of {} entries", index, entries.size(), e);
+                // Part of the batch may be on disk and will be drained on the next start, so the
+                // outcome is unknown; the journal refuses further writes until then
+                accepted.forEach(command -> wallets.remove(command.getUserId()));
+                WalletException failure = new WalletException(
+                        "Wallet operation outcome unknown: journal write failed", "JOURNAL_FAILED", e);
+                accepted.forEach(command -> command.getResult().completeExceptionally(failure));
+                reads.forEach(command -> command.getResult().completeExceptionally(failure));
+                return;
+            }
+        } else {
+            try {
+                store.write(entries);
+            } catch (RuntimeException e) {
+                log.error("Ledger partition {} failed to commit a batch of {} entries", index, entries.size(), e);
+                // The batch rolled back, so the in-memory balances are ahead of the database; reload them
+                accepted.forEach(command -> wallets.remove(command.getUserId()));
+                WalletException failure = new WalletException("Failed to persist wallet operation", "ENGINE_COMMIT_FAILED", e);
+                accepted.forEach(command -> command.getResult().completeExceptionally(failure));
+                reads.forEach(command -> command.getResult().completeExceptionally(failure));
+                return;
+            }
+        }
+
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).getResult().complete(results.get(i));
+        }
+        completeReads(reads, readStates);
+        evict();
+    }
+
+    private static void completeReads(List<LedgerCommand> reads, List<WalletState> states) {
+        for (int i = 0; i < reads.size(); i++) {
+            WalletState state = states.get(i);
+            reads.get(i).completeRead(new Wallet(state.getWalletId(), Money.ofMinor(state.getBalance()),
+                    state.getUserId(), state.getVersion()), state.getJournalLsn());
+        }
+    }
+
+    private void evict() {
+        if (wallets.size() <= maxWallets) {
+            return;
+        }
+        // Postgres only holds a wallet's journalled entries once the drainer has passed them, so
+        // until then reloading it would lose them. Stop at the first such wallet; the map shrinks
+        // back on a later batch once the drain catches up.
+        long drainedLsn = journal != null ? journal.drainedLsn() : Long.MAX_VALUE;
+        Iterator<WalletState> eldest = wallets.values().iterator();
+        while (wallets.size() > maxWallets && eldest.hasNext()) {
+            if (eldest.next().getJournalLsn() > drainedLsn) {
+                break;
+            }
+            eldest.remove();
+        }
+    }
+}
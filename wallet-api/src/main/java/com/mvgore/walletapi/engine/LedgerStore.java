@@ -0,0 +1,122 @@
+package com.mvgore.walletapi.engine;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access used by the ledger partitions: loads a wallet's balance once and then
+ * group-commits batches of applied operations.
+ */
+public class LedgerStore {
+
+    private static final String SELECT_WALLET =
+            "SELECT id, balance, version FROM wallets WHERE user_id = ?";
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, wallet_id, amount, type, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    // Deltas rather than absolute balances, so a batch never overwrites a write made outside the engine.
+    // The version moves by one per entry, matching the versions the partition handed out.
+    private static final String UPDATE_BALANCE =
+            "UPDATE wallets SET balance = balance + ?, version = version + ? WHERE id = ?";
+
+    // Journal drain: one statement per batch, and only rows not already present move a balance,
+    // so re-sending a batch after a crash changes nothing
+    private static final String DRAIN_BATCH = """
+            WITH inserted AS (
+                INSERT INTO transactions (id, wallet_id, amount, type, created_at)
+                SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::bigint[], ?::varchar[], ?::timestamp[])
+                ON CONFLICT DO NOTHING
+                RETURNING wallet_id, CASE WHEN type = 'CREDIT' THEN amount ELSE -amount END AS delta
+            ), deltas AS (
+                SELECT wallet_id, SUM(delta)::bigint AS delta, count(*) AS entries FROM inserted GROUP BY wallet_id
+            )
+            UPDATE wallets w SET balance = w.balance + d.delta, version = w.version + d.entries
+            FROM deltas d
+            WHERE w.id = d.wallet_id
+            """;
+
+    private static final String PING = "SELECT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    Optional<WalletState> load(UUID userId) {
+        return jdbcTemplate.query(SELECT_WALLET,
+                        (rs, rowNum) -> new WalletState(
+                                rs.getObject("id", UUID.class),
+                                userId,
+                                rs.getLong("balance"),
+                                rs.getLong("version")),
+                        userId)
+                .stream()
+                .findFirst();
+    }
+
+    void write(List<LedgerEntry> entries) {
+        Map<UUID, Long> deltas = new LinkedHashMap<>();
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        for (LedgerEntry entry : entries) {
+            deltas.merge(entry.walletId(), entry.delta(), Long::sum);
+            counts.merge(entry.walletId(), 1, Integer::sum);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, entries, entries.size(), (ps, entry) -> {
+                ps.setObject(1, entry.transactionId());
+                ps.setObject(2, entry.walletId());
+                ps.setLong(3, entry.amount().minorUnits());
+                ps.setString(4, entry.type().name());
+                ps.setTimestamp(5, Timestamp.valueOf(entry.createdAt()));
+            });
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, deltas.entrySet(), deltas.size(), (ps, delta) -> {
+                ps.setLong(1, delta.getValue());
+                ps.setInt(2, counts.get(delta.getKey()));
+                ps.setObject(3, delta.getKey());
+            });
+        });
+    }
+
+    public void drain(List<LedgerEntry> entries) {
+        int n = entries.size();
+        UUID[] ids = new UUID[n];
+        UUID[] walletIds = new UUID[n];
+        Long[] amounts = new Long[n];
+        String[] types = new String[n];
+        Timestamp[] createdAt = new Timestamp[n];
+        for (int i = 0; i < n; i++) {
+            LedgerEntry entry = entries.get(i);
+            ids[i] = entry.transactionId();
+            walletIds[i] = entry.walletId();
+            amounts[i] = entry.amount().minorUnits();
+            types[i] = entry.type().name();
+            createdAt[i] = Timestamp.valueOf(entry.createdAt());
+        }
+        jdbcTemplate.update(DRAIN_BATCH, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("uuid", ids));
+            ps.setArray(2, connection.createArrayOf("uuid", walletIds));
+            ps.setArray(3, connection.createArrayOf("bigint", amounts));
+            ps.setArray(4, connection.createArrayOf("varchar", types));
+            ps.setArray(5, connection.createArrayOf("timestamp", createdAt));
+        });
+    }
+
+    // Throws unless the database answers; tells a rejected record apart from an outage
+    public void ping() {
+        jdbcTemplate.queryForObject(PING, Integer.class);
+    }
+}
@@ -0,0 +1,40 @@
+package com.mvgore.walletapi.engine;
+
+import java.util.UUID;
+
+/**
+ * In-memory balance of one wallet. Only ever touched by the partition thread that owns it.
+ */
+final class WalletState {
+
+    private final UUID walletId;
+    private final UUID userId;
+    // Minor units; see Money
+    private long balance;
+    // wallets.version once every applied entry is in Postgres; each entry bumps it by one
+    private long version;
+    // Journal LSN just past this wallet's last entry; 0 without a journal
+    private long journalLsn;
+
+    WalletState(UUID walletId, UUID userId, long balance, long version) {
+        this.walletId = walletId;
+        this.userId = userId;
+        this.balance = balance;
+        this.version = version;
+    }
+
+    UUID getWalletId() { return walletId; }
+    UUID getUserId() { return userId; }
+    long getBalance() { return balance; }
+    long getVersion() { return version; }
+    long getJournalLsn() { return journalLsn; }
+
+    void apply(long delta) {
+        this.balance = Math.addExact(this.balance, delta);
+        this.version++;
+    }
+
+    void journalledUpTo(long lsn) {
+        this.journalLsn = lsn;
+    }
+}
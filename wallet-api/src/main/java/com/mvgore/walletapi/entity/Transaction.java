@@ -1,7 +1,8 @@
 package com.mvgore.walletapi.entity;
 
+import com.mvgore.walletapi.money.Money;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -9,6 +10,7 @@ import java.util.UUID;
 @Table(name = "transactions")
 public class Transaction {
 
+    // The partitioned table's key is (id, created_at); generated ids are unique on their own
     @Id
     @GeneratedValue
     @Column(nullable = false, updatable = false)
@@ -18,8 +20,9 @@ public class Transaction {
     @JoinColumn(name = "wallet_id", nullable = false)
     private Wallet wallet;
 
+    // Minor units; see Money
     @Column(nullable = false)
-    private BigDecimal amount;
+    private long amount;
 
     @Column(nullable = false)
     private String type; // "CREDIT" or "DEBIT"
@@ -29,9 +32,9 @@ public class Transaction {
 
     protected Transaction() {}
 
-    public Transaction(Wallet wallet, BigDecimal amount, String type) {
+    public Transaction(Wallet wallet, Money amount, String type) {
         this.wallet = wallet;
-        this.amount = amount;
+        this.amount = amount.minorUnits();
         this.type = type;
     }
 
@@ -43,8 +46,8 @@ public class Transaction {
         return wallet;
     }
 
-    public BigDecimal getAmount() {
-        return amount;
+    public Money getAmount() {
+        return Money.ofMinor(amount);
     }
 
     public String getType() {
@@ -0,0 +1,78 @@
+package com.mvgore.walletapi.entity;
+
+import com.mvgore.walletapi.money.Money;
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "wallets")
+public class Wallet {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    // Minor units; see Money
+    @Column(nullable = false)
+    private long balance;
+
+    @Column(name = "user_id", nullable = false, unique = true)
+    private UUID userId;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // JPA requires a protected no-arg constructor
+    protected Wallet() {}
+
+    // Main constructor used in application
+    public Wallet(Money balance, UUID userId) {
+        this.balance = balance.minorUnits();
+        this.userId = userId;
+    }
+
+    // ✅ Test / utility constructor
+    public Wallet(UUID id, Money balance, UUID userId) {
+        this(id, balance, userId, 0);
+    }
+
+    // A committed row read back outside JPA, version included
+    public Wallet(UUID id, Money balance, UUID userId, long version) {
+        this.id = id;
+        this.balance = balance.minorUnits();
+        this.userId = userId;
+        this.version = version;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Money getBalance() {
+        return Money.ofMinor(balance);
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    // Bumped by every committed balance change; orders balance events
+    public long getVersion() {
+        return version;
+    }
+
+    public void deposit(Money amount) {
+        this.balance = Math.addExact(this.balance, amount.minorUnits());
+    }
+
+    public void withdraw(Money amount) {
+        this.balance = Math.subtractExact(this.balance, amount.minorUnits());
+    }
+
+    public boolean canWithdraw(Money amount) {
+        return balance >= amount.minorUnits();
+    }
+}
@@ -0,0 +1,22 @@
+package com.mvgore.walletapi.exception;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data that was submitted leaves wallet balances disagreeing with their ledger. The
+ * request was understood but cannot be applied as is; reported as 422.
+ */
+public class BalanceMismatchException extends RuntimeException {
+
+    private final List<UUID> walletIds;
+
+    public BalanceMismatchException(String message, List<UUID> walletIds) {
+        super(message);
+        this.walletIds = List.copyOf(walletIds);
+    }
+
+    public List<UUID> getWalletIds() {
+        return walletIds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.mvgore.walletapi.exception;
+
+/**
+ * The operation is switched off by this deployment's configuration, not by an outage;
+ * retrying will not help. Reported as 501 rather than the 503 of other wallet failures.
+ */
+public class FeatureUnavailableException extends WalletException {
+
+    public FeatureUnavailableException(String message, String code) {
+        super(message, code);
+    }
+}
@@ -0,0 +1,110 @@
+package com.mvgore.walletapi.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps domain exceptions to status codes with a small JSON body. Error bodies are always
+ * JSON, whatever the request's {@code Accept}: the protobuf converter only knows the
+ * wallet DTOs, and negotiating would turn every error for a protobuf-only caller into a 406.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(WalletNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleWalletNotFound(WalletNotFoundException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", "Wallet not found");
+        body.put("message", ex.getMessage());
+
+        return error(HttpStatus.NOT_FOUND).body(body);
+    }
+
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientFunds(InsufficientFundsException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", "Insufficient funds");
+        body.put("message", ex.getMessage());
+
+        return error(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", "Bad request");
+        body.put("message", ex.getMessage());
+
+        return error(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    // Money arithmetic is overflow-checked; a balance that would leave the long range is refused
+    @ExceptionHandler(ArithmeticException.class)
+    public ResponseEntity<Map<String, Object>> handleOverflow(ArithmeticException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", "Amount out of range");
+        body.put("message", "Balance would exceed the supported range");
+
+        return error(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    @ExceptionHandler(BalanceMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleBalanceMismatch(BalanceMismatchException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", "Balance mismatch");
+        body.put("message", ex.getMessage());
+        body.put("walletIds", ex.getWalletIds());
+
+        return error(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
+    }
+
+    @ExceptionHandler(FeatureUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleFeatureUnavailable(FeatureUnavailableException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", ex.getCode());
+        body.put("message", ex.getMessage());
+
+        return error(HttpStatus.NOT_IMPLEMENTED).body(body);
+    }
+
+    @ExceptionHandler(WalletException.class)
+    public ResponseEntity<Map<String, Object>> handleWalletException(WalletException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", ex.getCode());
+        body.put("message", ex.getMessage());
+
+        return error(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequests(TooManyRequestsException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", "Too many requests");
+        body.put("message", ex.getMessage());
+
+        return error(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    // A preset Content-Type skips Accept negotiation for the body
+    private static ResponseEntity.BodyBuilder error(HttpStatus status) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+    }
+}
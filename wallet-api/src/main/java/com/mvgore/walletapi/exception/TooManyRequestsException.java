@@ -0,0 +1,25 @@
+package com.mvgore.walletapi.exception;
+
+import java.time.Duration;
+
+/**
+ * A bounded resource is saturated. Reported as 429 with a {@code Retry-After} hint.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    // Retry-After is whole seconds; never advertise 0
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
@@ -0,0 +1,130 @@
+package com.mvgore.walletapi.ingest;
+
+import com.mvgore.walletapi.exception.BalanceMismatchException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk loads historical users, wallets and transactions. Input is streamed with
+ * {@code COPY ... FROM STDIN} into a temporary staging table, then merged into the live
+ * table with one set-based INSERT ... SELECT. Each import is a single transaction:
+ * either every eligible row lands or none does, and a strict transactions import whose
+ * ledger disagrees with wallet balances fails with {@link BalanceMismatchException}.
+ *
+ * <p>NDJSON is copied one document per row into a {@code jsonb} column, using CSV mode
+ * with quote and delimiter bytes that cannot occur in JSON text, and projected from there.
+ */
+@Service
+public class BulkImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final String RAW_TABLE = "import_raw";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+
+    private static final String ENSURE_PARTITIONS = """
+            SELECT ensure_transaction_partitions(
+                    COALESCE((SELECT min(created_at) FROM import_transactions), now())::date, 0)
+            """;
+
+    // Imported rows may fall behind a reconciliation checkpoint's cursor; those checkpoints are rebuilt
+    private static final String DROP_STALE_CHECKPOINTS = """
+            DELETE FROM balance_checkpoints c
+            USING (SELECT wallet_id, min(created_at) AS oldest FROM import_transactions GROUP BY wallet_id) s
+            WHERE c.wallet_id = s.wallet_id AND c.covered_at >= s.oldest
+            """;
+
+    // Retired months count through the wallet's opening balance, not their rows
+    private static final String VERIFY_BALANCES = """
+            SELECT w.id
+            FROM wallets w
+            LEFT JOIN ledger_openings o ON o.wallet_id = w.id
+            LEFT JOIN transactions t ON t.wallet_id = w.id AND t.created_at >= COALESCE(o.retained_from, '-infinity')
+            WHERE w.id IN (SELECT DISTINCT wallet_id FROM import_transactions)
+            GROUP BY w.id, w.balance, o.ledger_balance
+            HAVING w.balance <> COALESCE(o.ledger_balance, 0)
+                    + COALESCE(SUM(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END), 0)
+            LIMIT ?
+            """;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+
+    public BulkImportService(DataSource dataSource,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionOperations transactionOperations) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+    }
+
+    /**
+     * @param strict for transactions: roll the whole import back if any touched wallet's
+     *               balance does not match its ledger
+     */
+    public ImportResult importFrom(ImportEntity entity, Format format, InputStream input, boolean strict) {
+        return transactionOperations.execute(status -> {
+            jdbcTemplate.execute(entity.createStagingSql());
+            long staged = format == Format.CSV
+                    ? copyIn(entity.copyCsvSql(), input)
+                    : stageJson(entity, input);
+
+            if (entity == ImportEntity.TRANSACTIONS) {
+                // Historical rows may predate every monthly partition that exists so far
+                jdbcTemplate.queryForObject(ENSURE_PARTITIONS, Integer.class);
+            }
+            long inserted = jdbcTemplate.update(entity.mergeSql());
+            if (entity == ImportEntity.TRANSACTIONS && inserted > 0) {
+                jdbcTemplate.update(DROP_STALE_CHECKPOINTS);
+            }
+
+            List<UUID> mismatches = entity == ImportEntity.TRANSACTIONS
+                    ? jdbcTemplate.queryForList(VERIFY_BALANCES, UUID.class, MAX_REPORTED_MISMATCHES)
+                    : List.of();
+            if (strict && !mismatches.isEmpty()) {
+                throw new BalanceMismatchException("Imported ledger does not match wallet balances for "
+                        + mismatches.size() + (mismatches.size() == MAX_REPORTED_MISMATCHES ? "+" : "")
+                        + " wallet(s); nothing was imported", mismatches);
+            }
+            return new ImportResult(entity, staged, inserted, staged - inserted, mismatches);
+        });
+    }
+
+    private long stageJson(ImportEntity entity, InputStream input) {
+        jdbcTemplate.execute("CREATE TEMP TABLE " + RAW_TABLE + " (doc jsonb) ON COMMIT DROP");
+        long copied = copyIn("COPY " + RAW_TABLE + " (doc) FROM STDIN"
+                + " WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')", input);
+        jdbcTemplate.update(entity.stageFromJsonSql(RAW_TABLE));
+        return copied;
+    }
+
+    // Runs on the transaction's connection, so staging and merge see the same temp tables
+    private long copyIn(String sql, InputStream input) {
+        try {
+            CopyManager copyManager = DataSourceUtils.getConnection(dataSource)
+                    .unwrap(PGConnection.class)
+                    .getCopyAPI();
+            return copyManager.copyIn(sql, input, COPY_BUFFER_SIZE);
+        } catch (SQLException e) {
+            throw new IllegalArgumentException("Import data was rejected: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
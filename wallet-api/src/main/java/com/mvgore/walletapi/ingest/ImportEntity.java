@@ -0,0 +1,83 @@
+package com.mvgore.walletapi.ingest;
+
+/**
+ * What can be bulk-imported, with the staging table each one is copied into and the
+ * set-based merge that moves staged rows into the live table. Merges skip rows that
+ * already exist, so re-running an import is harmless. Transactions older than their
+ * wallet's retired history ({@code ledger_openings.retained_from}) are skipped too: their
+ * months are already summed into the opening balance.
+ */
+public enum ImportEntity {
+
+    USERS(
+            "import_users",
+            "id uuid, username varchar(100), password varchar(255), role varchar(50)",
+            "id, username, password, role",
+            "(doc->>'id')::uuid, doc->>'username', doc->>'password', doc->>'role'",
+            """
+            INSERT INTO users (id, username, password, role)
+            SELECT id, username, password, COALESCE(role, 'USER') FROM import_users
+            ON CONFLICT DO NOTHING
+            """),
+
+    WALLETS(
+            "import_wallets",
+            "id uuid, user_id uuid, balance numeric(19,2)",
+            "id, user_id, balance",
+            "(doc->>'id')::uuid, (doc->>'user_id')::uuid, (doc->>'balance')::numeric",
+            """
+            INSERT INTO wallets (id, balance, user_id, version)
+            SELECT id, (balance * 100)::bigint, user_id, 0 FROM import_wallets
+            ON CONFLICT DO NOTHING
+            """),
+
+    // Rows for unknown wallets or with an invalid type/amount are skipped rather than failing the load.
+    // Staged amounts are decimals, as exported; the ledger stores minor units
+    TRANSACTIONS(
+            "import_transactions",
+            "id uuid, wallet_id uuid, amount numeric(19,2), type varchar(20), created_at timestamp",
+            "id, wallet_id, amount, type, created_at",
+            "(doc->>'id')::uuid, (doc->>'wallet_id')::uuid, (doc->>'amount')::numeric,"
+                    + " doc->>'type', (doc->>'created_at')::timestamp",
+            """
+            INSERT INTO transactions (id, wallet_id, amount, type, created_at)
+            SELECT s.id, s.wallet_id, (s.amount * 100)::bigint, s.type, s.created_at
+            FROM import_transactions s
+            JOIN wallets w ON w.id = s.wallet_id
+            LEFT JOIN ledger_openings o ON o.wallet_id = w.id
+            WHERE s.type IN ('CREDIT', 'DEBIT') AND s.amount > 0
+              AND s.created_at >= COALESCE(o.retained_from, '-infinity')
+            ON CONFLICT DO NOTHING
+            """);
+
+    private final String stagingTable;
+    private final String columnDefinitions;
+    private final String columns;
+    private final String jsonProjection;
+    private final String mergeSql;
+
+    ImportEntity(String stagingTable, String columnDefinitions, String columns,
+                 String jsonProjection, String mergeSql) {
+        this.stagingTable = stagingTable;
+        this.columnDefinitions = columnDefinitions;
+        this.columns = columns;
+        this.jsonProjection = jsonProjection;
+        this.mergeSql = mergeSql;
+    }
+
+    String createStagingSql() {
+        return "CREATE TEMP TABLE " + stagingTable + " (" + columnDefinitions + ") ON COMMIT DROP";
+    }
+
+    String copyCsvSql() {
+        return "COPY " + stagingTable + " (" + columns + ") FROM STDIN WITH (FORMAT csv, HEADER)";
+    }
+
+    String stageFromJsonSql(String rawTable) {
+        return "INSERT INTO " + stagingTable + " (" + columns + ") SELECT " + jsonProjection + " FROM " + rawTable;
+    }
+
+    String mergeSql() {
+        return mergeSql;
+    }
+}
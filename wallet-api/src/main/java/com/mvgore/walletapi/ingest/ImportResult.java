@@ -0,0 +1,15 @@
+package com.mvgore.walletapi.ingest;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of one import. {@code balanceMismatches} lists (up to a limit) wallets whose
+ * stored balance differs from the sum of their ledger after a transactions import.
+ */
+public record ImportResult(ImportEntity entity,
+                           long staged,
+                           long inserted,
+                           long skipped,
+                           List<UUID> balanceMismatches) {
+}
@@ -0,0 +1,129 @@
+package com.mvgore.walletapi.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount of money as a {@code long} count of minor units (cents), matching the
+ * {@code BIGINT} columns. Arithmetic is exact and overflow-checked: it throws
+ * {@link ArithmeticException} instead of wrapping.
+ *
+ * <p>Hot paths (entity balances, the ledger engine) keep the raw {@code long} and only
+ * wrap it at the API boundary, where short-lived instances are scalar-replaced by the JIT.
+ * JSON carries the decimal string ({@code "12.30"}); numbers are accepted on input too.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_PER_MAJOR = 100;
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Parses {@code "12"}, {@code "12.3"}, {@code "-0.05"}; more than two fraction digits
+     * is rejected rather than rounded.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money parse(String text) {
+        if (text == null || text.isEmpty()) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        int i = 0;
+        boolean negative = false;
+        if (text.charAt(0) == '-' || text.charAt(0) == '+') {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long major = 0;
+        int majorDigits = 0;
+        for (; i < text.length() && text.charAt(i) != '.'; i++) {
+            major = Math.addExact(Math.multiplyExact(major, 10), digit(text, i));
+            majorDigits++;
+        }
+        long minor = 0;
+        int minorDigits = 0;
+        if (i < text.length()) {
+            for (i++; i < text.length(); i++) {
+                if (++minorDigits > SCALE) {
+                    throw new IllegalArgumentException("Amount has more than " + SCALE + " decimal places: " + text);
+                }
+                minor = minor * 10 + digit(text, i);
+            }
+            if (minorDigits == 0) {
+                throw new IllegalArgumentException("Malformed amount: " + text);
+            }
+        }
+        if (majorDigits == 0 && minorDigits == 0) {
+            throw new IllegalArgumentException("Malformed amount: " + text);
+        }
+        for (; minorDigits < SCALE; minorDigits++) {
+            minor *= 10;
+        }
+        long units = Math.addExact(Math.multiplyExact(major, MINOR_PER_MAJOR), minor);
+        return ofMinor(negative ? -units : units);
+    }
+
+    /**
+     * JSON numbers land here as an exact {@link BigDecimal}, never a double, so the same
+     * two-decimal rule applies: {@code 12.345} throws instead of rounding.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        long abs = Math.abs(minorUnits);
+        // Long.MIN_VALUE has no positive counterpart; Math.abs leaves it negative
+        if (abs < 0) {
+            return toBigDecimal().toPlainString();
+        }
+        long fraction = abs % MINOR_PER_MAJOR;
+        return (minorUnits < 0 ? "-" : "") + abs / MINOR_PER_MAJOR + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    private static int digit(String text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Malformed amount: " + text);
+        }
+        return c - '0';
+    }
+}
@@ -0,0 +1,213 @@
+package com.mvgore.walletapi.partition;
+
+import com.mvgore.walletapi.reconciliation.ReconciliationService;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly {@code transactions} partitions ahead of the clock and retires old ones.
+ *
+ * <p>Every run creates any missing partition up to {@code monthsAhead} months out; there is
+ * no default partition, so an insert past the last one fails. Partitions whose whole month
+ * is older than {@code retentionMonths} are detached concurrently (inserts and reads on the
+ * other months carry on), written to {@code archiveDir} as gzipped CSV, fsynced, and only
+ * then dropped. Each step is idempotent, so a run interrupted half-way is finished by the
+ * next one.
+ *
+ * <p>Before a partition is detached its rows are carried into the wallets' opening balances
+ * ({@code ledger_openings}), which every whole-ledger sum starts from, so reconciliation and
+ * strict imports keep balancing however many checkpoints are pruned or invalidated.
+ * Point-in-time balances before the oldest retained month are no longer answerable.
+ */
+public class TransactionPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionMaintenance.class);
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_y(\\d{4})m(\\d{2})");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String ENSURE_PARTITIONS = "SELECT ensure_transaction_partitions(?, ?)";
+
+    // Attached and detached-but-not-yet-dropped partitions, with any pending concurrent detach
+    private static final String LIST_PARTITIONS = """
+            SELECT c.relname, i.inhrelid IS NOT NULL AS attached, COALESCE(i.inhdetachpending, false) AS detach_pending
+            FROM pg_class c
+            LEFT JOIN pg_inherits i ON i.inhrelid = c.oid AND i.inhparent = 'transactions'::regclass
+            WHERE c.relkind = 'r' AND c.relname ~ '^transactions_y[0-9]{4}m[0-9]{2}$'
+            ORDER BY c.relname
+            """;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReconciliationService reconciliationService;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Path archiveDir;
+    private final long intervalMillis;
+    private final ScheduledExecutorService scheduler;
+
+    public TransactionPartitionMaintenance(DataSource dataSource,
+                                           ReconciliationService reconciliationService,
+                                           int monthsAhead,
+                                           int retentionMonths,
+                                           Path archiveDir,
+                                           long intervalMillis) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.reconciliationService = reconciliationService;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveDir = archiveDir;
+        this.intervalMillis = intervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "transaction-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        // Create upcoming partitions right away, retire old ones on the first scheduled run
+        scheduler.execute(this::ensureUpcomingQuietly);
+        scheduler.scheduleWithFixedDelay(this::runScheduled, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return number of partitions created
+     */
+    public int ensureUpcoming() {
+        Integer created = jdbcTemplate.queryForObject(ENSURE_PARTITIONS, Integer.class,
+                Date.valueOf(LocalDate.now()), monthsAhead);
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Archives and drops every partition whose month ended more than
+     * {@code retentionMonths} ago. A retention of zero or less keeps everything.
+     *
+     * @return names of the partitions dropped
+     */
+    public List<String> retireExpired() {
+        if (retentionMonths <= 0) {
+            return List.of();
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        List<PartitionInfo> expired = jdbcTemplate.query(LIST_PARTITIONS,
+                        (rs, rowNum) -> new PartitionInfo(
+                                rs.getString("relname"),
+                                rs.getBoolean("attached"),
+                                rs.getBoolean("detach_pending")))
+                .stream()
+                .filter(p -> p.month().isBefore(oldestKept))
+                .toList();
+        if (expired.isEmpty()) {
+            return List.of();
+        }
+
+        reconciliationService.checkpoint();
+        for (PartitionInfo partition : expired) {
+            // First, so that no ledger sum misses the rows once they leave the table
+            reconciliationService.carryForward(partition.name(), partition.end());
+            if (partition.detachPending()) {
+                jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition.name() + " FINALIZE");
+            } else if (partition.attached()) {
+                // CONCURRENTLY cannot run inside a transaction block; JdbcTemplate here is autocommit
+                jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition.name() + " CONCURRENTLY");
+            }
+            Path archive = archive(partition.name());
+            jdbcTemplate.execute("DROP TABLE " + partition.name());
+            log.info("Dropped transaction partition {} after archiving it to {}", partition.name(), archive);
+        }
+        return expired.stream().map(PartitionInfo::name).toList();
+    }
+
+    private Path archive(String partition) {
+        Path target = archiveDir.resolve(partition + ".csv.gz");
+        Path temp = archiveDir.resolve(partition + ".csv.gz.tmp");
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            Files.createDirectories(archiveDir);
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                 GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(file, BUFFER_SIZE))) {
+                connection.unwrap(PGConnection.class).getCopyAPI().copyOut(
+                        "COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", gzip);
+                gzip.finish();
+                gzip.flush();
+                file.getFD().sync();
+            }
+            return Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Archiving partition " + partition + " failed", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void ensureUpcomingQuietly() {
+        try {
+            int created = ensureUpcoming();
+            if (created > 0) {
+                log.info("Created {} upcoming transaction partitions", created);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Creating upcoming transaction partitions failed", e);
+        }
+    }
+
+    private void runScheduled() {
+        ensureUpcomingQuietly();
+        try {
+            retireExpired();
+        } catch (RuntimeException e) {
+            // Every step is idempotent; the next run resumes where this one stopped
+            log.warn("Retiring transaction partitions failed", e);
+        }
+    }
+
+    private record PartitionInfo(String name, boolean attached, boolean detachPending) {
+
+        YearMonth month() {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Unexpected partition name " + name);
+            }
+            return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+        }
+
+        // Exclusive upper bound of the partition's created_at range
+        LocalDateTime end() {
+            return month().plusMonths(1).atDay(1).atStartOfDay();
+        }
+    }
+}
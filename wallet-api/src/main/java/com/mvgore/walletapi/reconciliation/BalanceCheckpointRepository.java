@@ -0,0 +1,249 @@
+package com.mvgore.walletapi.reconciliation;
+
+import com.mvgore.walletapi.money.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based SQL over {@code balance_checkpoints}. A checkpoint records the ledger sum of a
+ * wallet up to and including the transaction {@code (covered_at, covered_id)}; everything
+ * after it is a delta read off the {@code (wallet_id, created_at, id)} index.
+ *
+ * <p>Once partitions are retired, {@code ledger_openings} holds each wallet's sum of the
+ * transactions before its {@code retained_from}, and every ledger sum starts from the newest
+ * checkpoint at or after that point, or else from the opening balance. Rows older than
+ * {@code retained_from} are ignored whether or not their partition is still attached, and
+ * an older checkpoint is never used, because rows it relied on may be gone.
+ *
+ * <p>The cursor follows {@code created_at}, which is business time rather than the time a
+ * row was written, so mismatches against a checkpoint are confirmed against the whole
+ * ledger before they are reported (see {@link #findMismatches}).
+ */
+@Repository
+public class BalanceCheckpointRepository {
+
+    private static final String SIGNED_AMOUNT =
+            "CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END";
+
+    private static final String LATEST_CHECKPOINT = """
+            LEFT JOIN ledger_openings o ON o.wallet_id = w.id
+            LEFT JOIN LATERAL (
+                SELECT c.covered_at, c.covered_id, c.ledger_balance
+                FROM balance_checkpoints c
+                WHERE c.wallet_id = w.id AND c.covered_at >= COALESCE(o.retained_from, '-infinity')
+                ORDER BY c.covered_at DESC, c.covered_id DESC
+                LIMIT 1
+            ) cp ON TRUE
+            """;
+
+    // The ledger sum that the rows matching AFTER_BASE are added to
+    private static final String BASE = "COALESCE(cp.ledger_balance, o.ledger_balance, 0)";
+
+    private static final String AFTER_BASE = "(CASE WHEN cp.covered_at IS NULL"
+            + " THEN t.created_at >= COALESCE(o.retained_from, '-infinity')"
+            + " ELSE (t.created_at, t.id) > (cp.covered_at, cp.covered_id) END)";
+
+    private static final String CHECKPOINT_RANGE = """
+            INSERT INTO balance_checkpoints (wallet_id, covered_at, covered_id, ledger_balance, created_at)
+            SELECT w.id, last.created_at, last.id, """ + BASE + """
+             + d.delta, ?
+            FROM wallets w
+            """ + LATEST_CHECKPOINT + """
+            CROSS JOIN LATERAL (
+                SELECT SUM(""" + SIGNED_AMOUNT + """
+            ) AS delta
+                FROM transactions t
+                WHERE t.wallet_id = w.id AND t.created_at < ? AND """ + AFTER_BASE + """
+            ) d
+            CROSS JOIN LATERAL (
+                SELECT t.created_at, t.id
+                FROM transactions t
+                WHERE t.wallet_id = w.id AND t.created_at < ?
+                ORDER BY t.created_at DESC, t.id DESC
+                LIMIT 1
+            ) last
+            WHERE d.delta IS NOT NULL AND w.id >= ?""";
+
+    private static final String MISMATCHES_IN_RANGE = """
+            SELECT w.id, w.balance, """ + BASE + """
+             + COALESCE(d.delta, 0) AS ledger_balance
+            FROM wallets w
+            """ + LATEST_CHECKPOINT + """
+            LEFT JOIN LATERAL (
+                SELECT SUM(""" + SIGNED_AMOUNT + """
+            ) AS delta
+                FROM transactions t
+                WHERE t.wallet_id = w.id AND """ + AFTER_BASE + """
+            ) d ON TRUE
+            WHERE w.balance <> """ + BASE + """
+             + COALESCE(d.delta, 0) AND w.id >= ?""";
+
+    private static final String FULL_LEDGER = """
+            SELECT w.balance, COALESCE(o.ledger_balance, 0) + COALESCE((
+                SELECT SUM(""" + SIGNED_AMOUNT + """
+            )
+                FROM transactions t
+                WHERE t.wallet_id = w.id AND t.created_at >= COALESCE(o.retained_from, '-infinity')
+            ), 0) AS ledger_balance
+            FROM wallets w
+            LEFT JOIN ledger_openings o ON o.wallet_id = w.id
+            WHERE w.id = ?
+            """;
+
+    // Adds a retiring partition's rows to the opening balances; rows already carried are older than retained_from
+    private static final String CARRY_FORWARD = """
+            INSERT INTO ledger_openings (wallet_id, retained_from, ledger_balance)
+            SELECT w.id, ?, COALESCE(o.ledger_balance, 0) + SUM(""" + SIGNED_AMOUNT + """
+            )
+            FROM %s t
+            JOIN wallets w ON w.id = t.wallet_id
+            LEFT JOIN ledger_openings o ON o.wallet_id = w.id
+            WHERE t.created_at >= COALESCE(o.retained_from, '-infinity')
+            GROUP BY w.id, o.ledger_balance
+            ON CONFLICT (wallet_id) DO UPDATE
+            SET retained_from = GREATEST(ledger_openings.retained_from, EXCLUDED.retained_from),
+                ledger_balance = EXCLUDED.ledger_balance
+            """;
+
+    private static final String PRUNE_RANGE = """
+            DELETE FROM balance_checkpoints c
+            USING (
+                SELECT wallet_id, covered_at, covered_id,
+                       row_number() OVER (PARTITION BY wallet_id ORDER BY covered_at DESC, covered_id DESC) AS rn
+                FROM balance_checkpoints
+                WHERE wallet_id >= ?""";
+
+    private static final String PRUNE_OLDER_THAN_KEPT = """
+
+            ) old
+            WHERE old.rn > ? AND c.wallet_id = old.wallet_id
+              AND c.covered_at = old.covered_at AND c.covered_id = old.covered_id""";
+
+    // NULL when at falls before the wallet's retained_from
+    private static final String BALANCE_AT = """
+            WITH o AS (
+                SELECT retained_from, ledger_balance
+                FROM ledger_openings
+                WHERE wallet_id = ?
+            ), cp AS (
+                SELECT covered_at, covered_id, ledger_balance
+                FROM balance_checkpoints
+                WHERE wallet_id = ? AND covered_at <= ?
+                  AND covered_at >= COALESCE((SELECT retained_from FROM o), '-infinity')
+                ORDER BY covered_at DESC, covered_id DESC
+                LIMIT 1
+            )
+            SELECT CASE WHEN ? < COALESCE((SELECT retained_from FROM o), '-infinity') THEN NULL
+                ELSE COALESCE((SELECT ledger_balance FROM cp), (SELECT ledger_balance FROM o), 0) + COALESCE((
+                    SELECT SUM(""" + SIGNED_AMOUNT + """
+            )
+                    FROM transactions t
+                    LEFT JOIN cp ON TRUE
+                    LEFT JOIN o ON TRUE
+                    WHERE t.wallet_id = ? AND t.created_at <= ? AND """ + AFTER_BASE + """
+                ), 0) END
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes a new checkpoint for every wallet in the range that has transactions between
+     * its previous checkpoint and {@code cutoff}.
+     *
+     * @return number of checkpoints written
+     */
+    public int checkpointRange(WalletIdRange range, LocalDateTime cutoff) {
+        Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+        List<Object> args = new ArrayList<>(List.of(
+                Timestamp.valueOf(LocalDateTime.now()), cutoffTs, cutoffTs, range.from()));
+        return jdbcTemplate.update(CHECKPOINT_RANGE + upperBound(range, args), args.toArray());
+    }
+
+    /**
+     * Deletes all but the newest {@code keep} checkpoints of every wallet in the range.
+     * Older ones only speed up {@link #balanceAt} for dates further back.
+     *
+     * @return number of checkpoints deleted
+     */
+    public int pruneRange(WalletIdRange range, int keep) {
+        List<Object> args = new ArrayList<>(List.of(range.from()));
+        String sql = PRUNE_RANGE + upperBound("wallet_id", range, args) + PRUNE_OLDER_THAN_KEPT;
+        args.add(keep);
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+
+    /**
+     * Wallets in the range whose balance differs from {@code checkpoint + delta}. Each
+     * candidate is then re-checked against its whole ledger: rows can land behind the
+     * checkpoint cursor when their {@code created_at} is older than the time they were
+     * written (bulk imports, journal replays). If the whole ledger agrees, the wallet's
+     * checkpoints are stale and are deleted, to be rebuilt by the next checkpoint pass.
+     */
+    public List<BalanceMismatch> findMismatches(WalletIdRange range) {
+        List<Object> args = new ArrayList<>(List.of(range.from()));
+        List<UUID> candidates = jdbcTemplate.query(MISMATCHES_IN_RANGE + upperBound(range, args),
+                (rs, rowNum) -> rs.getObject("id", UUID.class),
+                args.toArray());
+
+        List<BalanceMismatch> mismatches = new ArrayList<>(candidates.size());
+        for (UUID walletId : candidates) {
+            BalanceMismatch full = jdbcTemplate.query(FULL_LEDGER,
+                    (rs, rowNum) -> new BalanceMismatch(
+                            walletId,
+                            Money.ofMinor(rs.getLong("balance")),
+                            Money.ofMinor(rs.getLong("ledger_balance"))),
+                    walletId).stream().findFirst().orElse(null);
+            if (full == null) {
+                continue;
+            }
+            if (full.balance().equals(full.ledgerBalance())) {
+                jdbcTemplate.update("DELETE FROM balance_checkpoints WHERE wallet_id = ?", walletId);
+            } else {
+                mismatches.add(full);
+            }
+        }
+        return mismatches;
+    }
+
+    // Null when at falls before the wallet's retained history
+    public Money balanceAt(UUID walletId, LocalDateTime at) {
+        Timestamp atTs = Timestamp.valueOf(at);
+        Long balance = jdbcTemplate.queryForObject(BALANCE_AT, Long.class,
+                walletId, walletId, atTs, atTs, walletId, atTs);
+        return balance == null ? null : Money.ofMinor(balance);
+    }
+
+    /**
+     * Adds the rows of {@code partition}, which is about to be retired, to the opening
+     * balances of their wallets and moves those wallets' {@code retained_from} up to
+     * {@code retainedFrom}. From then on whole-ledger sums ignore the partition's rows, so
+     * it may be detached and dropped at leisure. Running it again changes nothing.
+     *
+     * @return number of wallets whose opening balance changed
+     */
+    public int carryForward(String partition, LocalDateTime retainedFrom) {
+        return jdbcTemplate.update(CARRY_FORWARD.formatted(partition), Timestamp.valueOf(retainedFrom));
+    }
+
+    private static String upperBound(WalletIdRange range, List<Object> args) {
+        return upperBound("w.id", range, args);
+    }
+
+    private static String upperBound(String column, WalletIdRange range, List<Object> args) {
+        if (range.to() == null) {
+            return "";
+        }
+        args.add(range.to());
+        return " AND " + column + " < ?";
+    }
+}
@@ -0,0 +1,8 @@
+package com.mvgore.walletapi.reconciliation;
+
+import com.mvgore.walletapi.money.Money;
+
+import java.util.UUID;
+
+public record BalanceMismatch(UUID walletId, Money balance, Money ledgerBalance) {
+}
@@ -0,0 +1,15 @@
+package com.mvgore.walletapi.reconciliation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Result of one reconciliation run. {@code mismatches} is capped; {@code mismatchCount}
+ * is the full number.
+ */
+public record ReconciliationReport(LocalDateTime startedAt,
+                                   Duration elapsed,
+                                   int mismatchCount,
+                                   List<BalanceMismatch> mismatches) {
+}
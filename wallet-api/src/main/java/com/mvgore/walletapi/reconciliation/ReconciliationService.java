@@ -0,0 +1,204 @@
+package com.mvgore.walletapi.reconciliation;
+
+import com.mvgore.walletapi.money.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Periodically checkpoints every wallet's ledger sum and then verifies
+ * {@code wallets.balance} against {@code checkpoint + delta since checkpoint}, so each run
+ * only reads the transactions written since the previous one.
+ *
+ * <p>Both passes are fanned out over 256 slices of the wallet-id space on a dedicated
+ * {@link ForkJoinPool}; its parallelism should stay well below the JDBC pool size.
+ * Checkpoints only cover transactions older than {@code settleLag}: {@code created_at} is
+ * stamped before commit, so a younger row may still become visible behind the cursor.
+ * Rows written later with an older {@code created_at} are caught when reconciling; see
+ * {@link BalanceCheckpointRepository#findMismatches}.
+ */
+public class ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+    private static final int MAX_REPORTED_MISMATCHES = 1000;
+
+    private final BalanceCheckpointRepository checkpoints;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService scheduler;
+    private final Duration interval;
+    private final Duration settleLag;
+    private final int checkpointsKept;
+    private final Timer checkpointTimer;
+    private final Timer reconcileTimer;
+    private final AtomicInteger lastMismatchCount = new AtomicInteger();
+    private final AtomicReference<ReconciliationReport> lastReport = new AtomicReference<>();
+
+    public ReconciliationService(BalanceCheckpointRepository checkpoints,
+                                 int parallelism,
+                                 Duration interval,
+                                 Duration settleLag,
+                                 int checkpointsKept,
+                                 MeterRegistry registry) {
+        this.checkpoints = checkpoints;
+        this.pool = new ForkJoinPool(parallelism);
+        this.interval = interval;
+        this.settleLag = settleLag;
+        this.checkpointsKept = checkpointsKept;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "wallet-reconciliation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.checkpointTimer = Timer.builder("wallet.reconciliation.duration")
+                .tag("phase", "checkpoint")
+                .register(registry);
+        this.reconcileTimer = Timer.builder("wallet.reconciliation.duration")
+                .tag("phase", "reconcile")
+                .register(registry);
+        registry.gauge("wallet.reconciliation.mismatches", lastMismatchCount);
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::runScheduled,
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Writes new checkpoints, then prunes each wallet down to its newest
+     * {@code checkpointsKept}.
+     *
+     * @return number of checkpoints written
+     */
+    public int checkpoint() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(settleLag);
+        long start = System.nanoTime();
+        int written = pool.invoke(
+                new RangeTask<>(WalletIdRange.byLeadingByte(),
+                        range -> {
+                            int inRange = checkpoints.checkpointRange(range, cutoff);
+                            checkpoints.pruneRange(range, checkpointsKept);
+                            return inRange;
+                        },
+                        Integer::sum));
+        checkpointTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return written;
+    }
+
+    public ReconciliationReport reconcile() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        List<BalanceMismatch> mismatches = pool.invoke(
+                new RangeTask<>(WalletIdRange.byLeadingByte(),
+                        checkpoints::findMismatches,
+                        (a, b) -> {
+                            List<BalanceMismatch> merged = new ArrayList<>(a.size() + b.size());
+                            merged.addAll(a);
+                            merged.addAll(b);
+                            return merged;
+                        }));
+        long elapsed = System.nanoTime() - start;
+        reconcileTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        lastMismatchCount.set(mismatches.size());
+        mismatches.stream().limit(MAX_REPORTED_MISMATCHES).forEach(m ->
+                log.error("Balance mismatch for wallet {}: balance={} ledger={}",
+                        m.walletId(), m.balance(), m.ledgerBalance()));
+        ReconciliationReport report = new ReconciliationReport(
+                startedAt,
+                Duration.ofNanos(elapsed),
+                mismatches.size(),
+                List.copyOf(mismatches.subList(0, Math.min(mismatches.size(), MAX_REPORTED_MISMATCHES))));
+        lastReport.set(report);
+        return report;
+    }
+
+    /**
+     * Ledger balance of a wallet as of {@code at}: the newest checkpoint not after
+     * {@code at} plus the transactions between it and {@code at}. Dates inside
+     * retired partitions can no longer be answered and are rejected.
+     */
+    public Money balanceAt(UUID walletId, LocalDateTime at) {
+        Money balance = checkpoints.balanceAt(walletId, at);
+        if (balance == null) {
+            throw new IllegalArgumentException("Transactions before " + at + " are no longer retained");
+        }
+        return balance;
+    }
+
+    /**
+     * Carries the rows of a partition about to be retired into the wallets' opening
+     * balances; see {@link BalanceCheckpointRepository#carryForward}.
+     */
+    public int carryForward(String partition, LocalDateTime retainedFrom) {
+        return checkpoints.carryForward(partition, retainedFrom);
+    }
+
+    public ReconciliationReport lastReport() {
+        return lastReport.get();
+    }
+
+    private void runScheduled() {
+        try {
+            int written = checkpoint();
+            ReconciliationReport report = reconcile();
+            log.info("Reconciliation: {} checkpoints written, {} mismatches in {} ms",
+                    written, report.mismatchCount(), report.elapsed().toMillis());
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run starts from the same checkpoints
+            log.warn("Reconciliation run failed", e);
+        }
+    }
+
+    /**
+     * Splits the range list in halves until a single slice is left, which is handed to
+     * {@code work} on a pool thread; results are merged on the way back up.
+     */
+    private static final class RangeTask<T> extends RecursiveTask<T> {
+
+        private final List<WalletIdRange> ranges;
+        private final Function<WalletIdRange, T> work;
+        private final BinaryOperator<T> merge;
+
+        RangeTask(List<WalletIdRange> ranges,
+                  Function<WalletIdRange, T> work,
+                  BinaryOperator<T> merge) {
+            this.ranges = ranges;
+            this.work = work;
+            this.merge = merge;
+        }
+
+        @Override
+        protected T compute() {
+            if (ranges.size() == 1) {
+                return work.apply(ranges.get(0));
+            }
+            int mid = ranges.size() / 2;
+            RangeTask<T> left = new RangeTask<>(ranges.subList(0, mid), work, merge);
+            RangeTask<T> right = new RangeTask<>(ranges.subList(mid, ranges.size()), work, merge);
+            left.fork();
+            T rightResult = right.compute();
+            return merge.apply(left.join(), rightResult);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.mvgore.walletapi.reconciliation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A slice of the wallet-id space, {@code [from, to)}; {@code to == null} means unbounded.
+ * Bounds are compared by Postgres, which orders uuids bytewise, so the slices are cut on
+ * the leading byte rather than with {@link UUID#compareTo}.
+ */
+public record WalletIdRange(UUID from, UUID to) {
+
+    public static List<WalletIdRange> byLeadingByte() {
+        List<WalletIdRange> ranges = new ArrayList<>(256);
+        for (int b = 0; b < 256; b++) {
+            ranges.add(new WalletIdRange(boundary(b), b == 255 ? null : boundary(b + 1)));
+        }
+        return ranges;
+    }
+
+    private static UUID boundary(int leadingByte) {
+        return new UUID((long) leadingByte << 56, 0L);
+    }
+}
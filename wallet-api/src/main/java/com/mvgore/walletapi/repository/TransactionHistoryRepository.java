@@ -0,0 +1,67 @@
+package com.mvgore.walletapi.repository;
+
+import com.mvgore.walletapi.dto.TransactionView;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.money.Money;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated reads of a wallet's ledger, served by the
+ * {@code (wallet_id, created_at DESC, id DESC)} index. Each page seeks straight to the row
+ * after the cursor, so page N costs the same as page 1. Filters are added to the SQL only
+ * when present, so the planner always sees a plain range on the index.
+ */
+@Repository
+public class TransactionHistoryRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransactionHistoryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<TransactionView> findPage(UUID walletId,
+                                          TransactionType type,
+                                          LocalDateTime from,
+                                          LocalDateTime to,
+                                          LocalDateTime afterCreatedAt,
+                                          UUID afterId,
+                                          int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, type, amount, created_at FROM transactions WHERE wallet_id = :walletId");
+        MapSqlParameterSource params = new MapSqlParameterSource("walletId", walletId);
+
+        if (type != null) {
+            sql.append(" AND type = :type");
+            params.addValue("type", type.name());
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= :from");
+            params.addValue("from", Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < :to");
+            params.addValue("to", Timestamp.valueOf(to));
+        }
+        if (afterCreatedAt != null) {
+            sql.append(" AND (created_at, id) < (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", Timestamp.valueOf(afterCreatedAt));
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new TransactionView(
+                rs.getObject("id", UUID.class),
+                rs.getString("type"),
+                Money.ofMinor(rs.getLong("amount")),
+                rs.getTimestamp("created_at").toLocalDateTime()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.mvgore.walletapi.repository;
+
+import com.mvgore.walletapi.entity.Wallet;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface WalletRepository extends JpaRepository<Wallet, UUID> {
+
+    // ✅ Find wallet by the owner's userId
+    Optional<Wallet> findByUserId(UUID userId);
+
+    // SELECT ... FOR UPDATE: holds the row lock until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from Wallet w where w.userId = :userId")
+    Optional<Wallet> findByUserIdForUpdate(@Param("userId") UUID userId);
+}
@@ -2,23 +2,39 @@ package com.mvgore.walletapi.security;
 
 import com.mvgore.walletapi.auth.User;
 import com.mvgore.walletapi.auth.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Timer lookupTimer;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
         this.userRepository = userRepository;
+        this.lookupTimer = Timer.builder("auth.user.lookup")
+                .description("Time to load a user by username during login")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    // The timed lookup behind login; AuthController calls it on the request thread
+    public Optional<User> findUser(String username) {
+        return lookupTimer.record(() -> userRepository.findByUsername(username));
     }
 
     @Override
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
 
-        User user = userRepository.findByUsername(username)
+        User user = findUser(username)
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found"));
 
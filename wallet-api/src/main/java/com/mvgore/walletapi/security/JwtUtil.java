@@ -0,0 +1,192 @@
+package com.mvgore.walletapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class JwtUtil {
+
+    // MUST be at least 32 characters for HS256
+    private static final String SECRET =
+            "THIS_IS_A_32_CHAR_MINIMUM_SECRET_KEY";
+
+    private final SecretKey secretKey =
+            Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+    // Thread-safe and immutable once built
+    private final JwtParser parser =
+            Jwts.parserBuilder().setSigningKey(secretKey).build();
+
+    // Verified claims keyed by token digest; an entry never outlives the token's exp
+    private final Cache<String, Claims> verifiedClaims;
+
+    // auth.jwt.validation, split by whether the signature had to be verified
+    private final Timer cachedValidation;
+    private final Timer verifiedValidation;
+    private final Timer rejectedValidation;
+
+    private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 hours
+
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String WALLET_ID_CLAIM = "wid";
+
+    @Autowired
+    public JwtUtil(@Value("${security.jwt.claims-cache.max-size:100000}") long maxCachedTokens,
+                   ObjectProvider<MeterRegistry> meterRegistry) {
+        this(maxCachedTokens, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public JwtUtil(long maxCachedTokens, MeterRegistry registry) {
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+        this.cachedValidation = validationTimer(registry, "cached");
+        this.verifiedValidation = validationTimer(registry, "verified");
+        this.rejectedValidation = validationTimer(registry, "rejected");
+    }
+
+    private static Timer validationTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.jwt.validation")
+                .description("Time to validate a bearer token")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public String generateToken(String username, UUID userId, String role, UUID walletId) {
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(username)
+                .claim(USER_ID_CLAIM, userId.toString())
+                .claim(ROLE_CLAIM, role);
+        if (walletId != null) {
+            builder.claim(WALLET_ID_CLAIM, walletId.toString());
+        }
+        return builder
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Builds the principal carried by a verified token, or returns {@code null} for
+     * tokens that predate the identity claims.
+     */
+    public WalletPrincipal toPrincipal(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        String walletId = claims.get(WALLET_ID_CLAIM, String.class);
+        return new WalletPrincipal(
+                UUID.fromString(userId),
+                claims.getSubject(),
+                role,
+                walletId != null ? UUID.fromString(walletId) : null);
+    }
+
+    public String extractUsername(String token) {
+        return getClaims(token).getSubject();
+    }
+
+    public boolean validateToken(String token) {
+        return parseValidClaims(token) != null;
+    }
+
+    /**
+     * Returns the claims of a correctly signed, unexpired token, or {@code null} if the
+     * token is invalid. Repeat calls with the same token are served from the cache
+     * without re-verifying the signature.
+     */
+    public Claims parseValidClaims(String token) {
+        long start = System.nanoTime();
+        Timer timer = rejectedValidation;
+        try {
+            if (token == null || token.isEmpty()) {
+                return null;
+            }
+            String key = digest(token);
+            Claims claims = verifiedClaims.getIfPresent(key);
+            if (claims == null) {
+                try {
+                    claims = parser.parseClaimsJws(token).getBody();
+                } catch (JwtException | IllegalArgumentException e) {
+                    return null;
+                }
+                if (claims.getExpiration() == null) {
+                    return null;
+                }
+                verifiedClaims.put(key, claims);
+                timer = verifiedValidation;
+            } else {
+                timer = cachedValidation;
+            }
+            // The cache expires entries lazily; never hand out a token past its exp
+            if (!claims.getExpiration().after(new Date())) {
+                timer = rejectedValidation;
+                return null;
+            }
+            return claims;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Claims getClaims(String token) {
+        Claims claims = parseValidClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid or expired token");
+        }
+        return claims;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.mvgore.walletapi.security;
+
+import com.mvgore.walletapi.exception.TooManyRequestsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Applies {@link RequestRateLimiter} right after {@link JwtFilter}, before any controller,
+ * connection or row lock is touched. Rejections go through the MVC exception handlers so
+ * they get the usual 429 body and {@code Retry-After}; if no resolver takes the exception,
+ * the filter writes a minimal 429 itself rather than letting the request through.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RequestRateLimiter limiter;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public RateLimitFilter(RequestRateLimiter limiter, HandlerExceptionResolver exceptionResolver) {
+        this.limiter = limiter;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        Duration retryAfter = limiter.check(request);
+        if (retryAfter != null) {
+            TooManyRequestsException rejected = new TooManyRequestsException("Rate limit exceeded, retry later", retryAfter);
+            if (exceptionResolver.resolveException(request, response, null, rejected) == null) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(rejected.getRetryAfterSeconds()));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"Too many requests\",\"message\":\"" + rejected.getMessage() + "\"}");
+            }
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mvgore.walletapi.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-caller request limits by endpoint class: {@code login} for {@code /api/v1/auth/**},
+ * keyed by client address, and {@code read} (GET) and {@code write} (everything else) for
+ * {@code /api/v1/wallet/**}, keyed by the authenticated user. Other paths, and wallet
+ * requests without a valid token, are not limited here.
+ */
+public class RequestRateLimiter {
+
+    public record Limit(double permitsPerSecond, int burst) {
+    }
+
+    private final TokenBucketRateLimiter<String> login;
+    private final TokenBucketRateLimiter<UUID> read;
+    private final TokenBucketRateLimiter<UUID> write;
+    private final Counter loginRejected;
+    private final Counter readRejected;
+    private final Counter writeRejected;
+
+    public RequestRateLimiter(Limit login, Limit read, Limit write,
+                              Duration idleTimeout, long maxKeys, MeterRegistry registry) {
+        this.login = new TokenBucketRateLimiter<>(login.permitsPerSecond(), login.burst(), idleTimeout, maxKeys);
+        this.read = new TokenBucketRateLimiter<>(read.permitsPerSecond(), read.burst(), idleTimeout, maxKeys);
+        this.write = new TokenBucketRateLimiter<>(write.permitsPerSecond(), write.burst(), idleTimeout, maxKeys);
+        this.loginRejected = rejectedCounter("login", registry);
+        this.readRejected = rejectedCounter("read", registry);
+        this.writeRejected = rejectedCounter("write", registry);
+    }
+
+    private static Counter rejectedCounter(String endpointClass, MeterRegistry registry) {
+        return Counter.builder("security.rate_limit.rejected")
+                .description("Requests refused by the per-caller rate limiter")
+                .tag("class", endpointClass)
+                .register(registry);
+    }
+
+    /**
+     * Takes a token for the request's caller.
+     *
+     * @return {@code null} if the request may proceed, otherwise how long to wait
+     */
+    public Duration check(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/v1/auth/")) {
+            return rejectedAfter(login.tryAcquire(request.getRemoteAddr()), loginRejected);
+        }
+        if (!path.startsWith("/api/v1/wallet/")) {
+            return null;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof WalletAuthentication wallet)) {
+            return null;
+        }
+        UUID userId = wallet.getPrincipal().userId();
+        return "GET".equals(request.getMethod())
+                ? rejectedAfter(read.tryAcquire(userId), readRejected)
+                : rejectedAfter(write.tryAcquire(userId), writeRejected);
+    }
+
+    private static Duration rejectedAfter(long waitNanos, Counter rejected) {
+        if (waitNanos == 0) {
+            return null;
+        }
+        rejected.increment();
+        return Duration.ofNanos(waitNanos);
+    }
+}
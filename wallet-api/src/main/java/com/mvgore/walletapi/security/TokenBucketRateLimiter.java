@@ -0,0 +1,79 @@
+package com.mvgore.walletapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key: {@code burst} tokens, refilled at {@code permitsPerSecond}. Each
+ * bucket is a single {@link AtomicLong} holding the time at which it will be full again, so
+ * refill is computed lazily on acquire and taking a token is one CAS, with no lock.
+ *
+ * <p>Buckets live in a Caffeine cache, whose striped buffers keep lookups contention-free.
+ * A bucket left idle long enough to have refilled completely is indistinguishable from a
+ * new one and is evicted; {@code maxKeys} bounds memory under a flood of distinct keys.
+ */
+public class TokenBucketRateLimiter<K> {
+
+    private final Cache<K, Bucket> buckets;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoTime;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, Duration idleTimeout, long maxKeys) {
+        this(permitsPerSecond, burst, idleTimeout, maxKeys, System::nanoTime);
+    }
+
+    // nanoTime stands in for System.nanoTime(), so tests can move time forward by hand
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, Duration idleTimeout, long maxKeys,
+                                  LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limits need a positive rate and a burst of at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = Math.multiplyExact(emissionIntervalNanos, (long) burst);
+        this.nanoTime = nanoTime;
+        // Expiring earlier than a full refill would hand an emptied bucket back full
+        Duration refill = Duration.ofNanos(burstNanos);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout.compareTo(refill) > 0 ? idleTimeout : refill)
+                .ticker(nanoTime::getAsLong)
+                .build();
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(K key) {
+        long now = nanoTime.getAsLong();
+        Bucket bucket = buckets.get(key, k -> new Bucket(now));
+        AtomicLong fullAt = bucket.fullAt;
+        while (true) {
+            long current = fullAt.get();
+            // A bucket that is already full refills no further
+            long next = (current - now < 0 ? now : current) + emissionIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        final AtomicLong fullAt;
+
+        Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+    }
+}
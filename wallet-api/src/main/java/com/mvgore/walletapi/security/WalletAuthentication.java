@@ -0,0 +1,36 @@
+package com.mvgore.walletapi.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Authentication built from a verified JWT. Carries a {@link WalletPrincipal} so
+ * request handling never has to load the user from the database.
+ */
+public class WalletAuthentication extends AbstractAuthenticationToken {
+
+    private final WalletPrincipal principal;
+
+    public WalletAuthentication(WalletPrincipal principal) {
+        super(List.of(new SimpleGrantedAuthority("ROLE_" + principal.role())));
+        this.principal = principal;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public WalletPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return principal.username();
+    }
+}
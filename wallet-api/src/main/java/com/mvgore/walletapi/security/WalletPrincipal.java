@@ -0,0 +1,10 @@
+package com.mvgore.walletapi.security;
+
+import java.util.UUID;
+
+/**
+ * Identity of an authenticated caller, taken straight from verified token claims.
+ * {@code walletId} is {@code null} when the user had no wallet at login time.
+ */
+public record WalletPrincipal(UUID userId, String username, String role, UUID walletId) {
+}
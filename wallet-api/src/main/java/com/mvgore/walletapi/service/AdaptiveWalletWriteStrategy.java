@@ -0,0 +1,47 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.money.Money;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Optimistic by default; wallets the {@link ContentionTracker} reports as hot are
+ * switched to row locking until they cool down, where queuing on the lock is cheaper
+ * than repeated retries.
+ */
+public class AdaptiveWalletWriteStrategy implements WalletWriteStrategy {
+
+    private final WalletWriteStrategy optimistic;
+    private final WalletWriteStrategy pessimistic;
+    private final ContentionTracker contentionTracker;
+
+    public AdaptiveWalletWriteStrategy(WalletWriteStrategy optimistic,
+                                       WalletWriteStrategy pessimistic,
+                                       ContentionTracker contentionTracker) {
+        this.optimistic = optimistic;
+        this.pessimistic = pessimistic;
+        this.contentionTracker = contentionTracker;
+    }
+
+    @Override
+    public Wallet credit(UUID userId, Money amount) {
+        return select(userId).credit(userId, amount);
+    }
+
+    @Override
+    public Wallet debit(UUID userId, Money amount) {
+        return select(userId).debit(userId, amount);
+    }
+
+    @Override
+    public <T> T inTransaction(UUID userId, TransactionOperations transactionOperations, Supplier<T> work) {
+        return select(userId).inTransaction(userId, transactionOperations, work);
+    }
+
+    private WalletWriteStrategy select(UUID userId) {
+        return contentionTracker.isHot(userId) ? pessimistic : optimistic;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One statement, one round trip per operation: a conditional UPDATE whose RETURNING row
+ * feeds the ledger INSERT in the same CTE. Runs in autocommit, so the statement is its
+ * own transaction and the row lock is held only for its duration.
+ *
+ * <p>The trailing UNION tells the outcomes apart: no row means the wallet does not exist,
+ * a row with {@code applied = false} means the debit guard rejected it.
+ */
+public class AtomicSqlWalletWriteStrategy implements WalletWriteStrategy {
+
+    public static final String CREDIT_SQL = """
+            WITH updated AS (
+                UPDATE wallets SET balance = balance + :amount, version = version + 1
+                WHERE user_id = :userId
+                RETURNING id, balance, user_id, version
+            ), inserted AS (
+                INSERT INTO transactions (id, wallet_id, amount, type, created_at)
+                SELECT :transactionId, id, :amount, 'CREDIT', :createdAt FROM updated
+            )
+            SELECT id, balance, user_id, version, TRUE AS applied FROM updated
+            """;
+
+    public static final String DEBIT_SQL = """
+            WITH updated AS (
+                UPDATE wallets SET balance = balance - :amount, version = version + 1
+                WHERE user_id = :userId AND balance >= :amount
+                RETURNING id, balance, user_id, version
+            ), inserted AS (
+                INSERT INTO transactions (id, wallet_id, amount, type, created_at)
+                SELECT :transactionId, id, :amount, 'DEBIT', :createdAt FROM updated
+            )
+            SELECT id, balance, user_id, version, TRUE AS applied FROM updated
+            UNION ALL
+            SELECT id, balance, user_id, version, FALSE AS applied FROM wallets
+            WHERE user_id = :userId AND NOT EXISTS (SELECT 1 FROM updated)
+            """;
+
+    private static final String NUMERIC_VALUE_OUT_OF_RANGE = "22003";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AtomicSqlWalletWriteStrategy(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Wallet credit(UUID userId, Money amount) {
+        return execute(CREDIT_SQL, userId, amount);
+    }
+
+    @Override
+    public Wallet debit(UUID userId, Money amount) {
+        return execute(DEBIT_SQL, userId, amount);
+    }
+
+    private Wallet execute(String sql, UUID userId, Money amount) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("amount", amount.minorUnits())
+                .addValue("transactionId", UUID.randomUUID())
+                .addValue("createdAt", Timestamp.valueOf(LocalDateTime.now()));
+
+        List<Outcome> rows;
+        try {
+            rows = jdbcTemplate.query(sql, params, (rs, rowNum) -> new Outcome(
+                    new Wallet(rs.getObject("id", UUID.class),
+                            Money.ofMinor(rs.getLong("balance")),
+                            rs.getObject("user_id", UUID.class),
+                            rs.getLong("version")),
+                    rs.getBoolean("applied")));
+        } catch (DataAccessException e) {
+            // bigint overflow in the UPDATE; the JPA strategies' Money arithmetic throws ArithmeticException for it
+            if (e.getMostSpecificCause() instanceof SQLException cause
+                    && NUMERIC_VALUE_OUT_OF_RANGE.equals(cause.getSQLState())) {
+                throw new ArithmeticException("Balance would exceed the supported range");
+            }
+            throw e;
+        }
+
+        if (rows.isEmpty()) {
+            throw new WalletNotFoundException("Wallet not found for user");
+        }
+        Outcome outcome = rows.get(0);
+        if (!outcome.applied()) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+        return outcome.wallet();
+    }
+
+    private record Outcome(Wallet wallet, boolean applied) {
+    }
+}
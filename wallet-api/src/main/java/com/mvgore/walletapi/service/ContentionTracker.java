@@ -0,0 +1,63 @@
+package com.mvgore.walletapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-wallet record of optimistic write conflicts. A wallet that collects
+ * {@code conflictThreshold} conflicts within {@code window} is considered hot for
+ * {@code hotDuration}. Only wallets that have actually conflicted are tracked, and the
+ * number of tracked wallets is bounded.
+ */
+public class ContentionTracker {
+
+    private final Cache<UUID, Stats> stats;
+    private final int conflictThreshold;
+    private final long windowNanos;
+    private final long hotNanos;
+
+    public ContentionTracker(int conflictThreshold, Duration window, Duration hotDuration, long maxTrackedWallets) {
+        this.conflictThreshold = conflictThreshold;
+        this.windowNanos = window.toNanos();
+        this.hotNanos = hotDuration.toNanos();
+        this.stats = Caffeine.newBuilder()
+                .maximumSize(maxTrackedWallets)
+                .expireAfterAccess(window.plus(hotDuration))
+                .build();
+    }
+
+    public void recordConflict(UUID userId) {
+        Stats s = stats.get(userId, id -> new Stats());
+        long now = System.nanoTime();
+        if (s.record(now, windowNanos) >= conflictThreshold) {
+            s.hotUntil = now + hotNanos;
+        }
+    }
+
+    // An exhausted retry budget is a strong signal on its own
+    public void recordAbort(UUID userId) {
+        stats.get(userId, id -> new Stats()).hotUntil = System.nanoTime() + hotNanos;
+    }
+
+    public boolean isHot(UUID userId) {
+        Stats s = stats.getIfPresent(userId);
+        return s != null && s.hotUntil - System.nanoTime() > 0;
+    }
+
+    private static final class Stats {
+        private long windowStart = System.nanoTime();
+        private int conflicts;
+        private volatile long hotUntil = System.nanoTime();
+
+        synchronized int record(long now, long windowNanos) {
+            if (now - windowStart > windowNanos) {
+                windowStart = now;
+                conflicts = 0;
+            }
+            return ++conflicts;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.exception.WalletException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of callers that may be holding or waiting for a JDBC connection at the
+ * size of the connection pool. With virtual threads there can be far more concurrent
+ * requests than connections; the surplus parks here instead of queueing inside Hikari
+ * and failing with connection timeouts.
+ */
+public class DbPermitGate {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    public DbPermitGate(int permits, Duration acquireTimeout) {
+        this.permits = new Semaphore(permits, true);
+        this.timeoutNanos = acquireTimeout.toNanos();
+    }
+
+    private DbPermitGate() {
+        this.permits = null;
+        this.timeoutNanos = 0;
+    }
+
+    public static DbPermitGate unbounded() {
+        return new DbPermitGate();
+    }
+
+    public <T> T call(Supplier<T> action) {
+        if (permits == null) {
+            return action.get();
+        }
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new WalletException("Database is saturated, retry later", "DB_PERMIT_TIMEOUT");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletException("Interrupted while waiting for a database permit", "DB_PERMIT_INTERRUPTED", e);
+        }
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.cache.IdempotencyCache;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credits and debits carrying an {@code Idempotency-Key}. The key row is claimed with
+ * {@code INSERT ... ON CONFLICT} in the same transaction as the balance update and the
+ * ledger row, so either all three commit or none do. The write itself goes through the
+ * configured {@link WalletWriteStrategy}, inside
+ * {@link WalletWriteStrategy#inTransaction}, so it locks and retries the way un-keyed
+ * writes do. A concurrent duplicate blocks on the unique key until the first one finishes,
+ * then either sees its committed result or, if it rolled back, claims the key itself.
+ *
+ * <p>Replays are answered from {@link IdempotencyCache}, or from the stored row on a miss;
+ * neither touches the {@code wallets} row. Failed operations leave no key behind, so
+ * retrying them runs them again. A key is honoured for {@code ttl}; after that it may be
+ * claimed again, and expired rows are deleted every {@code purgeInterval}.
+ */
+public class IdempotentWalletWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentWalletWriter.class);
+    private static final int PURGE_BATCH_SIZE = 10_000;
+
+    // An expired claim is taken over as if the key were new
+    private static final String CLAIM_KEY = """
+            INSERT INTO idempotency_keys (user_id, idempotency_key, type, amount, created_at, expires_at)
+            VALUES (:userId, :key, :type, :amount, :createdAt, :expiresAt)
+            ON CONFLICT (user_id, idempotency_key) DO UPDATE
+                SET type = EXCLUDED.type, amount = EXCLUDED.amount, created_at = EXCLUDED.created_at,
+                    expires_at = EXCLUDED.expires_at, wallet_id = NULL, old_balance = NULL, new_balance = NULL
+                WHERE idempotency_keys.expires_at <= EXCLUDED.created_at
+            """;
+
+    private static final String FIND_KEY = """
+            SELECT type, amount, wallet_id, old_balance, new_balance
+            FROM idempotency_keys
+            WHERE user_id = :userId AND idempotency_key = :key
+            """;
+
+    private static final String COMPLETE_KEY = """
+            UPDATE idempotency_keys SET wallet_id = :walletId, old_balance = :oldBalance, new_balance = :newBalance
+            WHERE user_id = :userId AND idempotency_key = :key
+            """;
+
+    private static final String PURGE_EXPIRED = """
+            DELETE FROM idempotency_keys
+            WHERE ctid IN (SELECT ctid FROM idempotency_keys WHERE expires_at <= :now LIMIT :limit)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final IdempotencyCache cache;
+    private final Duration ttl;
+    private final Duration purgeInterval;
+    private final ScheduledExecutorService scheduler;
+
+    public IdempotentWalletWriter(NamedParameterJdbcTemplate jdbcTemplate,
+                                  TransactionOperations transactionOperations,
+                                  IdempotencyCache cache,
+                                  Duration ttl,
+                                  Duration purgeInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.cache = cache;
+        this.ttl = ttl;
+        this.purgeInterval = purgeInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "idempotency-key-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the purge of expired keys; a zero {@code purgeInterval} leaves them in place.
+     */
+    public void start() {
+        if (!purgeInterval.isZero() && !purgeInterval.isNegative()) {
+            scheduler.scheduleWithFixedDelay(this::purgeScheduled,
+                    purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Cache-only lookup of a completed operation; callers fall back to {@link #apply}.
+     */
+    public IdempotencyCache.Completed cached(UUID userId, String key, TransactionType type, Money amount) {
+        IdempotencyCache.Completed completed = cache.get(userId, key);
+        if (completed != null) {
+            checkSameRequest(completed, type, amount);
+        }
+        return completed;
+    }
+
+    public Outcome apply(UUID userId, String key, TransactionType type, Money amount, WalletWriteStrategy strategy) {
+        Outcome outcome = strategy.inTransaction(userId, transactionOperations, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("key", key)
+                    .addValue("type", type.name())
+                    .addValue("amount", amount.minorUnits())
+                    .addValue("createdAt", Timestamp.valueOf(now))
+                    .addValue("expiresAt", Timestamp.valueOf(now.plus(ttl)));
+
+            if (jdbcTemplate.update(CLAIM_KEY, params) == 0) {
+                IdempotencyCache.Completed stored = jdbcTemplate.queryForObject(FIND_KEY, params,
+                        (rs, rowNum) -> new IdempotencyCache.Completed(
+                                TransactionType.valueOf(rs.getString("type")),
+                                Money.ofMinor(rs.getLong("amount")),
+                                rs.getObject("wallet_id", UUID.class),
+                                Money.ofMinor(rs.getLong("old_balance")),
+                                Money.ofMinor(rs.getLong("new_balance"))));
+                checkSameRequest(stored, type, amount);
+                return new Outcome(stored, null);
+            }
+
+            Wallet wallet = type == TransactionType.CREDIT
+                    ? strategy.credit(userId, amount)
+                    : strategy.debit(userId, amount);
+            Money newBalance = wallet.getBalance();
+            Money oldBalance = type == TransactionType.CREDIT
+                    ? newBalance.minus(amount)
+                    : newBalance.plus(amount);
+            jdbcTemplate.update(COMPLETE_KEY, params
+                    .addValue("walletId", wallet.getId())
+                    .addValue("oldBalance", oldBalance.minorUnits())
+                    .addValue("newBalance", newBalance.minorUnits()));
+            return new Outcome(
+                    new IdempotencyCache.Completed(type, amount, wallet.getId(), oldBalance, newBalance),
+                    wallet);
+        });
+        cache.put(userId, key, outcome.completed());
+        return outcome;
+    }
+
+    /**
+     * Deletes expired keys in batches, so no single statement holds many row locks.
+     *
+     * @return number of keys deleted
+     */
+    public int purgeExpired() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                .addValue("limit", PURGE_BATCH_SIZE);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_EXPIRED, params);
+            total += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        return total;
+    }
+
+    private void purgeScheduled() {
+        try {
+            int deleted = purgeExpired();
+            if (deleted > 0) {
+                log.info("Purged {} expired idempotency keys", deleted);
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; whatever is left expires again next run
+            log.warn("Purging expired idempotency keys failed", e);
+        }
+    }
+
+    private static void checkSameRequest(IdempotencyCache.Completed completed, TransactionType type, Money amount) {
+        if (completed.type() != type || !completed.amount().equals(amount)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    /**
+     * {@code wallet} is set only when this call performed the write; it is {@code null}
+     * for a replay.
+     */
+    public record Outcome(IdempotencyCache.Completed completed, Wallet wallet) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.entity.Transaction;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.TransactionRepository;
+import com.mvgore.walletapi.repository.WalletRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Read-modify-write without holding a row lock. The {@code @Version} check on
+ * {@link Wallet} rejects the commit if another writer got there first, in which case
+ * the whole attempt is retried in a fresh transaction after a jittered backoff.
+ */
+public class OptimisticWalletWriteStrategy implements WalletWriteStrategy {
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionOperations transactionOperations;
+    private final ContentionTracker contentionTracker;
+    private final int maxAttempts;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+
+    public OptimisticWalletWriteStrategy(WalletRepository walletRepository,
+                                         TransactionRepository transactionRepository,
+                                         TransactionOperations transactionOperations,
+                                         ContentionTracker contentionTracker,
+                                         int maxAttempts,
+                                         Duration baseBackoff,
+                                         Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionOperations = transactionOperations;
+        this.contentionTracker = contentionTracker;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffNanos = baseBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    @Override
+    public Wallet credit(UUID userId, Money amount) {
+        return execute(userId, amount, TransactionType.CREDIT);
+    }
+
+    @Override
+    public Wallet debit(UUID userId, Money amount) {
+        return execute(userId, amount, TransactionType.DEBIT);
+    }
+
+    // The version check runs at commit, so the caller's whole transaction is what gets retried
+    @Override
+    public <T> T inTransaction(UUID userId, TransactionOperations outer, Supplier<T> work) {
+        return retrying(userId, () -> outer.execute(status -> work.get()));
+    }
+
+    private Wallet execute(UUID userId, Money amount, TransactionType type) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Called from inTransaction; a conflict surfaces at the caller's commit
+            return apply(userId, amount, type);
+        }
+        return retrying(userId, () -> transactionOperations.execute(status -> apply(userId, amount, type)));
+    }
+
+    private <T> T retrying(UUID userId, Supplier<T> transaction) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.get();
+            } catch (OptimisticLockingFailureException e) {
+                contentionTracker.recordConflict(userId);
+                if (attempt >= maxAttempts) {
+                    contentionTracker.recordAbort(userId);
+                    throw new WalletException("Wallet is being updated concurrently, retry later",
+                            "WRITE_CONFLICT", e);
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private Wallet apply(UUID userId, Money amount, TransactionType type) {
+        Wallet wallet = walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user"));
+
+        if (type == TransactionType.DEBIT) {
+            if (!wallet.canWithdraw(amount)) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            wallet.withdraw(amount);
+        } else {
+            wallet.deposit(amount);
+        }
+        walletRepository.save(wallet);
+
+        transactionRepository.save(new Transaction(wallet, amount, type.name()));
+
+        return wallet;
+    }
+
+    // Full jitter: sleep a random time up to an exponentially growing cap
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffNanos, baseBackoffNanos << Math.min(attempt - 1, 20));
+        long sleepNanos = ThreadLocalRandom.current().nextLong(cap + 1);
+        try {
+            Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletException("Interrupted while retrying wallet operation", "WRITE_CONFLICT", e);
+        }
+    }
+}
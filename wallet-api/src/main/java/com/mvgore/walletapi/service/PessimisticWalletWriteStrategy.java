@@ -0,0 +1,73 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.entity.Transaction;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.TransactionRepository;
+import com.mvgore.walletapi.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locks the wallet row with {@code SELECT ... FOR UPDATE} for the duration of the
+ * transaction, so concurrent writers queue on the row instead of retrying.
+ */
+public class PessimisticWalletWriteStrategy implements WalletWriteStrategy {
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionOperations transactionOperations;
+    private final Timer lockWait;
+
+    public PessimisticWalletWriteStrategy(WalletRepository walletRepository,
+                                          TransactionRepository transactionRepository,
+                                          TransactionOperations transactionOperations,
+                                          MeterRegistry registry) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionOperations = transactionOperations;
+        this.lockWait = Timer.builder("wallet.lock.wait")
+                .description("Time spent acquiring the wallet row lock for a credit or debit")
+                .tag("strategy", "pessimistic")
+                .register(registry);
+    }
+
+    @Override
+    public Wallet credit(UUID userId, Money amount) {
+        return transactionOperations.execute(status -> apply(userId, amount, TransactionType.CREDIT));
+    }
+
+    @Override
+    public Wallet debit(UUID userId, Money amount) {
+        return transactionOperations.execute(status -> apply(userId, amount, TransactionType.DEBIT));
+    }
+
+    private Wallet apply(UUID userId, Money amount, TransactionType type) {
+        long start = System.nanoTime();
+        Optional<Wallet> locked = walletRepository.findByUserIdForUpdate(userId);
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Wallet wallet = locked.orElseThrow(() -> new WalletNotFoundException("Wallet not found for user"));
+
+        if (type == TransactionType.DEBIT) {
+            if (!wallet.canWithdraw(amount)) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            wallet.withdraw(amount);
+        } else {
+            wallet.deposit(amount);
+        }
+        walletRepository.save(wallet);
+
+        transactionRepository.save(new Transaction(wallet, amount, type.name()));
+
+        return wallet;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.dto.TransactionPageResponse;
+import com.mvgore.walletapi.dto.TransactionView;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.repository.TransactionHistoryRepository;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Transaction history pages. The cursor is an opaque token holding the
+ * {@code (created_at, id)} of the last row the client has seen.
+ */
+@Service
+public class TransactionHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final TransactionHistoryRepository historyRepository;
+
+    public TransactionHistoryService(TransactionHistoryRepository historyRepository) {
+        this.historyRepository = historyRepository;
+    }
+
+    public TransactionPageResponse getPage(UUID walletId,
+                                           TransactionType type,
+                                           LocalDateTime from,
+                                           LocalDateTime to,
+                                           String cursor,
+                                           Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Cursor after = cursor == null || cursor.isEmpty() ? null : Cursor.decode(cursor);
+
+        // One extra row tells us whether there is a next page without a COUNT
+        List<TransactionView> rows = historyRepository.findPage(
+                walletId, type, from, to,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                pageSize + 1);
+
+        if (rows.size() <= pageSize) {
+            return new TransactionPageResponse(rows, null);
+        }
+        List<TransactionView> page = rows.subList(0, pageSize);
+        TransactionView last = page.get(pageSize - 1);
+        return new TransactionPageResponse(page, new Cursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    record Cursor(LocalDateTime createdAt, UUID id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
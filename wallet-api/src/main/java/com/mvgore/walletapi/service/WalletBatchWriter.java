@@ -0,0 +1,118 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.dto.BatchItemRequest;
+import com.mvgore.walletapi.dto.BatchItemResult;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Applies a chunk of batch items to one wallet in a single transaction: the row is locked
+ * once, items are applied in order in memory, the final balance is written once and the
+ * ledger rows go in as one JDBC batch. A rejected item (bad amount, insufficient funds)
+ * does not affect the others.
+ */
+public class WalletBatchWriter {
+
+    private static final String SELECT_FOR_UPDATE =
+            "SELECT id, balance, version FROM wallets WHERE user_id = ? FOR UPDATE";
+
+    private static final String UPDATE_BALANCE =
+            "UPDATE wallets SET balance = ?, version = version + 1 WHERE id = ?";
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, wallet_id, amount, type, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final int chunkSize;
+
+    public WalletBatchWriter(JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Batch chunk size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return per-item results, plus the wallet as committed (for the balance cache)
+     */
+    public ChunkResult apply(UUID userId, List<BatchItemRequest> items, int firstIndex) {
+        return transactionOperations.execute(status -> {
+            Wallet wallet = jdbcTemplate.query(SELECT_FOR_UPDATE,
+                            (rs, rowNum) -> new Wallet(rs.getObject("id", UUID.class), Money.ofMinor(rs.getLong("balance")), userId,
+                                    rs.getLong("version")),
+                            userId)
+                    .stream()
+                    .findFirst()
+                    .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user"));
+
+            Money balance = wallet.getBalance();
+            List<BatchItemResult> results = new ArrayList<>(items.size());
+            List<Object[]> rows = new ArrayList<>(items.size());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+            for (int i = 0; i < items.size(); i++) {
+                BatchItemRequest item = items.get(i);
+                int index = firstIndex + i;
+
+                BatchItemResult invalid = validate(item, index);
+                if (invalid != null) {
+                    results.add(invalid);
+                    continue;
+                }
+                if (item.getType() == TransactionType.DEBIT && balance.isLessThan(item.getAmount())) {
+                    results.add(BatchItemResult.rejected(index, "INSUFFICIENT_FUNDS", "Insufficient funds"));
+                    continue;
+                }
+
+                try {
+                    balance = item.getType() == TransactionType.DEBIT
+                            ? balance.minus(item.getAmount())
+                            : balance.plus(item.getAmount());
+                } catch (ArithmeticException e) {
+                    results.add(BatchItemResult.rejected(index, "AMOUNT_OVERFLOW", "Balance would exceed the supported range"));
+                    continue;
+                }
+                rows.add(new Object[]{UUID.randomUUID(), wallet.getId(), item.getAmount().minorUnits(), item.getType().name(), now});
+                results.add(BatchItemResult.applied(index, balance));
+            }
+
+            long version = wallet.getVersion();
+            if (!rows.isEmpty()) {
+                jdbcTemplate.update(UPDATE_BALANCE, balance.minorUnits(), wallet.getId());
+                jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows);
+                version++;
+            }
+            return new ChunkResult(results, new Wallet(wallet.getId(), balance, userId, version));
+        });
+    }
+
+    static BatchItemResult validate(BatchItemRequest item, int index) {
+        if (item == null || item.getType() == null) {
+            return BatchItemResult.rejected(index, "INVALID_TYPE", "Item type must be CREDIT or DEBIT");
+        }
+        if (item.getAmount() == null || item.getAmount().signum() <= 0) {
+            return BatchItemResult.rejected(index, "INVALID_AMOUNT", "Amount must be positive");
+        }
+        return null;
+    }
+
+    public record ChunkResult(List<BatchItemResult> results, Wallet wallet) {
+    }
+}
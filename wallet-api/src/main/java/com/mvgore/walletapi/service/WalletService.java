@@ -0,0 +1,332 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.cache.BalanceCache;
+import com.mvgore.walletapi.cache.IdempotencyCache;
+import com.mvgore.walletapi.dto.BatchItemRequest;
+import com.mvgore.walletapi.dto.BatchItemResult;
+import com.mvgore.walletapi.dto.WalletOperationResponse;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.FeatureUnavailableException;
+import com.mvgore.walletapi.exception.WalletException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.WalletRepository;
+import com.mvgore.walletapi.stream.BalanceEventBus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Service
+public class WalletService {
+
+    private static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final List<String> OPERATION_OUTCOMES = List.of("success", "insufficient_funds", "not_found", "error");
+
+    private final WalletRepository walletRepository;
+    private final WalletWriteStrategy writeStrategy;
+    private final BalanceCache balanceCache;
+    private final BalanceEventBus balanceEvents;
+    private final TransactionOperations transactionOperations;
+    private final DbPermitGate dbPermits;
+    private final WalletBatchWriter batchWriter;
+    private final WalletTransferWriter transferWriter;
+    private final IdempotentWalletWriter idempotentWriter;
+    private final MeterRegistry meterRegistry;
+    private final Counter insufficientDebits;
+    private final Counter insufficientTransfers;
+    private final Counter insufficientBatchItems;
+    private final Map<TransactionType, Map<String, Timer>> operationTimers = new EnumMap<>(TransactionType.class);
+
+    @Autowired
+    public WalletService(WalletRepository walletRepository,
+                         WalletWriteStrategy writeStrategy,
+                         BalanceCache balanceCache,
+                         BalanceEventBus balanceEvents,
+                         TransactionOperations transactionOperations,
+                         DbPermitGate dbPermits,
+                         WalletBatchWriter batchWriter,
+                         WalletTransferWriter transferWriter,
+                         IdempotentWalletWriter idempotentWriter,
+                         MeterRegistry meterRegistry) {
+        this.walletRepository = walletRepository;
+        this.writeStrategy = writeStrategy;
+        this.balanceCache = balanceCache;
+        this.balanceEvents = balanceEvents;
+        this.transactionOperations = transactionOperations;
+        this.dbPermits = dbPermits;
+        this.batchWriter = batchWriter;
+        this.transferWriter = transferWriter;
+        this.idempotentWriter = idempotentWriter;
+        this.meterRegistry = meterRegistry;
+        this.insufficientDebits = insufficientFundsCounter("debit");
+        this.insufficientTransfers = insufficientFundsCounter("transfer");
+        this.insufficientBatchItems = insufficientFundsCounter("batch");
+        for (TransactionType type : TransactionType.values()) {
+            Map<String, Timer> byOutcome = new HashMap<>();
+            for (String outcome : OPERATION_OUTCOMES) {
+                byOutcome.put(outcome, Timer.builder("wallet.operation")
+                        .description("Credit/debit latency inside WalletService")
+                        .tag("type", type.name().toLowerCase(Locale.ROOT))
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+            operationTimers.put(type, byOutcome);
+        }
+    }
+
+    private Counter insufficientFundsCounter(String operation) {
+        return Counter.builder("wallet.insufficient_funds")
+                .description("Debits rejected for insufficient funds")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    // The permit is taken before the transaction starts, i.e. before a connection is borrowed
+    public Wallet createWalletForUser(UUID userId) {
+        return dbPermits.call(() -> transactionOperations.execute(status -> {
+            if(walletRepository.findByUserId(userId).isPresent()) {
+                throw new IllegalStateException("Wallet already exists for this user");
+            }
+
+            Wallet wallet = new Wallet(Money.ZERO, userId);
+            return walletRepository.save(wallet);
+        }));
+    }
+
+    // Strategies commit before returning, so the cache and streams only ever see committed balances
+    public Wallet credit(UUID userId, Money amount) {
+        requirePositive(amount);
+        Wallet wallet = write(TransactionType.CREDIT, () -> writeStrategy.credit(userId, amount));
+        committed(wallet);
+        return wallet;
+    }
+
+    public Wallet debit(UUID userId, Money amount) {
+        requirePositive(amount);
+        Wallet wallet = write(TransactionType.DEBIT, () -> writeStrategy.debit(userId, amount));
+        committed(wallet);
+        return wallet;
+    }
+
+    /**
+     * Applies a credit or debit at most once per {@code idempotencyKey}. A replay of a
+     * completed operation returns the original result without touching the wallet; reusing
+     * a key for a different type or amount is rejected.
+     */
+    public WalletOperationResponse applyOnce(UUID userId, TransactionType type, Money amount,
+                                             String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()
+                || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        requirePositive(amount);
+        if (idempotentWriter == null || !writeStrategy.allowsDirectWrites()) {
+            throw new FeatureUnavailableException("Idempotency keys are not available in this write mode",
+                    "IDEMPOTENCY_UNSUPPORTED");
+        }
+
+        IdempotencyCache.Completed completed = idempotentWriter.cached(userId, idempotencyKey, type, amount);
+        if (completed == null) {
+            IdempotentWalletWriter.Outcome outcome = write(type,
+                    () -> idempotentWriter.apply(userId, idempotencyKey, type, amount, writeStrategy));
+            if (outcome.wallet() != null) {
+                committed(outcome.wallet());
+            }
+            completed = outcome.completed();
+        }
+
+        return new WalletOperationResponse(completed.walletId(), completed.oldBalance(), completed.newBalance());
+    }
+
+    public Wallet getWalletByUser(UUID userId) {
+        // With the ledger journal, Postgres trails acknowledged writes by the drain lag
+        Wallet current = writeStrategy.currentWallet(userId);
+        if (current != null) {
+            return current;
+        }
+        return balanceCache.get(userId, id -> dbPermits.call(() -> walletRepository.findByUserId(id)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user"))));
+    }
+
+    /**
+     * Waits until queries over the user's ledger rows (history, statements, point-in-time
+     * balances) see every acknowledged operation.
+     */
+    public void awaitPersisted(UUID userId) {
+        writeStrategy.awaitPersisted(userId);
+    }
+
+    /**
+     * Moves {@code amount} from the user's wallet to {@code toWalletId} atomically.
+     *
+     * @return the sender's wallet after the transfer
+     */
+    public Wallet transfer(UUID fromUserId, UUID toWalletId, Money amount) {
+        if (toWalletId == null) {
+            throw new IllegalArgumentException("Recipient wallet id is required");
+        }
+        requirePositive(amount);
+        if (transferWriter == null || !writeStrategy.allowsDirectWrites()) {
+            throw new FeatureUnavailableException("Transfers are not available in this write mode",
+                    "TRANSFER_UNSUPPORTED");
+        }
+        WalletTransferWriter.Result result;
+        try {
+            result = dbPermits.call(() -> transferWriter.transfer(fromUserId, toWalletId, amount));
+        } catch (InsufficientFundsException e) {
+            insufficientTransfers.increment();
+            throw e;
+        }
+        committed(result.from());
+        committed(result.to());
+        return result.from();
+    }
+
+    /**
+     * Applies {@code items} to the user's wallet in chunks, one transaction per chunk, and
+     * hands each chunk's per-item results to {@code sink} once it has committed. Items are
+     * consumed lazily, so a streamed request is never held in memory as a whole.
+     *
+     * <p>An {@link IllegalArgumentException} from {@code items} means the next item could not
+     * be read, and ends the batch: the items read before it are still applied and reported,
+     * followed by one {@code MALFORMED_INPUT} result at the unreadable item's index.
+     */
+    public void applyBatch(UUID userId, Iterator<BatchItemRequest> items, Consumer<List<BatchItemResult>> sink) {
+        int chunkSize = batchWriter != null ? batchWriter.getChunkSize() : DEFAULT_BATCH_CHUNK_SIZE;
+        int index = 0;
+        while (true) {
+            List<BatchItemRequest> chunk = new ArrayList<>(chunkSize);
+            String malformed = null;
+            try {
+                while (chunk.size() < chunkSize && items.hasNext()) {
+                    chunk.add(items.next());
+                }
+            } catch (IllegalArgumentException e) {
+                malformed = e.getMessage();
+            }
+            if (!chunk.isEmpty()) {
+                sink.accept(applyChunk(userId, chunk, index));
+                index += chunk.size();
+            }
+            if (malformed != null) {
+                sink.accept(List.of(BatchItemResult.rejected(index, "MALFORMED_INPUT", malformed)));
+                return;
+            }
+            if (chunk.size() < chunkSize) {
+                return;
+            }
+        }
+    }
+
+    private List<BatchItemResult> applyChunk(UUID userId, List<BatchItemRequest> chunk, int firstIndex) {
+        if (batchWriter == null || !writeStrategy.allowsDirectWrites()) {
+            return applyEach(userId, chunk, firstIndex);
+        }
+        try {
+            WalletBatchWriter.ChunkResult result =
+                    dbPermits.call(() -> batchWriter.apply(userId, chunk, firstIndex));
+            committed(result.wallet());
+            result.results().stream()
+                    .filter(r -> "INSUFFICIENT_FUNDS".equals(r.getError()))
+                    .forEach(r -> insufficientBatchItems.increment());
+            return result.results();
+        } catch (WalletNotFoundException e) {
+            return rejectAll(chunk, firstIndex, "WALLET_NOT_FOUND", e.getMessage());
+        } catch (WalletException e) {
+            return rejectAll(chunk, firstIndex, e.getCode(), e.getMessage());
+        } catch (DataAccessException e) {
+            return rejectAll(chunk, firstIndex, "CHUNK_FAILED", "Chunk was rolled back");
+        }
+    }
+
+    // Used when the write strategy owns the balances: every item goes through it
+    private List<BatchItemResult> applyEach(UUID userId, List<BatchItemRequest> chunk, int firstIndex) {
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchItemRequest item = chunk.get(i);
+            int index = firstIndex + i;
+            BatchItemResult invalid = WalletBatchWriter.validate(item, index);
+            if (invalid != null) {
+                results.add(invalid);
+                continue;
+            }
+            try {
+                Wallet wallet = item.getType() == TransactionType.DEBIT
+                        ? debit(userId, item.getAmount())
+                        : credit(userId, item.getAmount());
+                results.add(BatchItemResult.applied(index, wallet.getBalance()));
+            } catch (InsufficientFundsException e) {
+                results.add(BatchItemResult.rejected(index, "INSUFFICIENT_FUNDS", e.getMessage()));
+            } catch (ArithmeticException e) {
+                results.add(BatchItemResult.rejected(index, "AMOUNT_OVERFLOW", "Balance would exceed the supported range"));
+            } catch (WalletNotFoundException e) {
+                results.add(BatchItemResult.rejected(index, "WALLET_NOT_FOUND", e.getMessage()));
+            } catch (WalletException e) {
+                results.add(BatchItemResult.rejected(index, e.getCode(), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    // A non-positive credit would be an unguarded debit in every write mode
+    private static void requirePositive(Money amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+
+    private void committed(Wallet wallet) {
+        balanceCache.put(wallet);
+        balanceEvents.publish(wallet);
+    }
+
+    private static List<BatchItemResult> rejectAll(List<BatchItemRequest> chunk, int firstIndex,
+                                                   String error, String message) {
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(BatchItemResult.rejected(firstIndex + i, error, message));
+        }
+        return results;
+    }
+
+    // wallet.operation covers permit wait, lock wait and commit; see also wallet.lock.wait and db.transaction.*
+    private <T> T write(TransactionType type, Supplier<T> operation) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return writeStrategy.usesCallerConnection() ? dbPermits.call(operation) : operation.get();
+        } catch (InsufficientFundsException e) {
+            outcome = "insufficient_funds";
+            insufficientDebits.increment();
+            throw e;
+        } catch (WalletNotFoundException e) {
+            outcome = "not_found";
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            operationTimers.get(type).get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves money between two wallets in one transaction. Both rows are locked by a single
+ * {@code SELECT ... ORDER BY id FOR UPDATE}, so every transfer takes its locks in the same
+ * global order and two opposing transfers can never deadlock. Both balance updates and
+ * both ledger rows are sent as JDBC batches; the whole transfer is one commit.
+ */
+public class WalletTransferWriter {
+
+    private static final String LOCK_BOTH =
+            "SELECT id, balance, user_id, version FROM wallets WHERE user_id = ? OR id = ? ORDER BY id FOR UPDATE";
+
+    private static final String UPDATE_BALANCE =
+            "UPDATE wallets SET balance = balance + ?, version = version + 1 WHERE id = ?";
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, wallet_id, amount, type, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final Timer lockWait;
+
+    public WalletTransferWriter(JdbcTemplate jdbcTemplate,
+                                TransactionOperations transactionOperations,
+                                MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.lockWait = Timer.builder("wallet.transfer.lock.wait")
+                .description("Time spent acquiring both wallet row locks for a transfer")
+                .register(registry);
+    }
+
+    public Result transfer(UUID fromUserId, UUID toWalletId, Money amount) {
+        return transactionOperations.execute(status -> {
+            long start = System.nanoTime();
+            List<Wallet> locked = jdbcTemplate.query(LOCK_BOTH,
+                    (rs, rowNum) -> new Wallet(
+                            rs.getObject("id", UUID.class),
+                            Money.ofMinor(rs.getLong("balance")),
+                            rs.getObject("user_id", UUID.class),
+                            rs.getLong("version")),
+                    fromUserId, toWalletId);
+            lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            Wallet from = locked.stream()
+                    .filter(w -> w.getUserId().equals(fromUserId))
+                    .findFirst()
+                    .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user"));
+            Wallet to = locked.stream()
+                    .filter(w -> w.getId().equals(toWalletId))
+                    .findFirst()
+                    .orElseThrow(() -> new WalletNotFoundException("Recipient wallet not found"));
+            if (from.getId().equals(to.getId())) {
+                throw new IllegalArgumentException("Cannot transfer to the same wallet");
+            }
+            if (!from.canWithdraw(amount)) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            // Applied in memory first so an overflowing credit fails before anything is written
+            from.withdraw(amount);
+            to.deposit(amount);
+
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, List.of(
+                    new Object[]{-amount.minorUnits(), from.getId()},
+                    new Object[]{amount.minorUnits(), to.getId()}));
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, List.of(
+                    new Object[]{UUID.randomUUID(), from.getId(), amount.minorUnits(), TransactionType.DEBIT.name(), now},
+                    new Object[]{UUID.randomUUID(), to.getId(), amount.minorUnits(), TransactionType.CREDIT.name(), now}));
+
+            return new Result(committed(from), committed(to));
+        });
+    }
+
+    // UPDATE_BALANCE bumped the version of each row once
+    private static Wallet committed(Wallet wallet) {
+        return new Wallet(wallet.getId(), wallet.getBalance(), wallet.getUserId(), wallet.getVersion() + 1);
+    }
+
+    public record Result(Wallet from, Wallet to) {
+    }
+}
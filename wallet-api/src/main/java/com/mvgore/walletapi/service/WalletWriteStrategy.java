@@ -0,0 +1,60 @@
+package com.mvgore.walletapi.service;
+
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.money.Money;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Applies balance-changing operations to a user's wallet. {@link WalletService}
+ * delegates credits and debits to the implementation selected by
+ * {@code wallet.write-mode}.
+ */
+public interface WalletWriteStrategy {
+
+    Wallet credit(UUID userId, Money amount);
+
+    Wallet debit(UUID userId, Money amount);
+
+    /**
+     * Runs {@code work}, which calls {@link #credit} or {@link #debit} next to statements
+     * of its own, as a single transaction of {@code transactionOperations}, retried as a
+     * whole wherever this strategy would retry a plain credit or debit.
+     */
+    default <T> T inTransaction(UUID userId, TransactionOperations transactionOperations, Supplier<T> work) {
+        return transactionOperations.execute(status -> work.get());
+    }
+
+    /**
+     * Whether operations borrow a JDBC connection on the calling thread, and so must
+     * hold a {@link DbPermitGate} permit.
+     */
+    default boolean usesCallerConnection() {
+        return true;
+    }
+
+    /**
+     * Whether other code may update {@code wallets} rows directly (batches, transfers).
+     * False when this strategy holds the authoritative balances itself.
+     */
+    default boolean allowsDirectWrites() {
+        return true;
+    }
+
+    /**
+     * The user's wallet as of every acknowledged operation, when this strategy acknowledges
+     * operations before Postgres has them; null when the {@code wallets} row is current.
+     */
+    default Wallet currentWallet(UUID userId) {
+        return null;
+    }
+
+    /**
+     * Returns once the {@code transactions} rows of every operation acknowledged for the
+     * user's wallet are in Postgres.
+     */
+    default void awaitPersisted(UUID userId) {
+    }
+}
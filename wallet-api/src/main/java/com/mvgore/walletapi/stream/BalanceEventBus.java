@@ -0,0 +1,184 @@
+package com.mvgore.walletapi.stream;
+
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.TooManyRequestsException;
+import com.mvgore.walletapi.money.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of committed balance changes to open balance streams, keyed by user.
+ * Publishing never blocks: it replaces the subscriber's pending event and, if no delivery
+ * is running, starts one on a virtual thread, so a slow client only ever holds its own
+ * thread. A subscriber whose delivery has been stuck for {@code slowConsumerTimeout} is
+ * evicted, as is one whose heartbeat fails. Streams end after {@code maxStreamDuration}
+ * so that clients reconnect, and present a fresh token, periodically.
+ *
+ * <p>Only changes this instance hears about are published: its own commits, plus those of
+ * other instances when {@link com.mvgore.walletapi.cache.BalanceChangeListener} runs.
+ */
+public class BalanceEventBus {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final Map<UUID, Set<BalanceSubscription>> subscribers;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int maxSubscribers;
+    private final int maxSubscribersPerUser;
+    private final long slowConsumerTimeoutNanos;
+    private final Duration maxStreamDuration;
+    private final ExecutorService deliveries;
+    private final ScheduledExecutorService sweeper;
+    private final Counter evictions;
+
+    public BalanceEventBus(int maxSubscribers,
+                           int maxSubscribersPerUser,
+                           Duration heartbeatInterval,
+                           Duration slowConsumerTimeout,
+                           Duration maxStreamDuration,
+                           MeterRegistry registry) {
+        this.subscribers = new ConcurrentHashMap<>();
+        this.maxSubscribers = maxSubscribers;
+        this.maxSubscribersPerUser = maxSubscribersPerUser;
+        this.slowConsumerTimeoutNanos = slowConsumerTimeout.toNanos();
+        this.maxStreamDuration = maxStreamDuration;
+        this.deliveries = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("balance-stream-", 0).factory());
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "balance-stream-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = heartbeatInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("wallet.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open balance streams")
+                .register(registry);
+        this.evictions = Counter.builder("wallet.stream.evicted")
+                .description("Balance streams closed because the client stopped reading")
+                .register(registry);
+    }
+
+    private BalanceEventBus() {
+        this.subscribers = null;
+        this.maxSubscribers = 0;
+        this.maxSubscribersPerUser = 0;
+        this.slowConsumerTimeoutNanos = 0;
+        this.maxStreamDuration = Duration.ZERO;
+        this.deliveries = null;
+        this.sweeper = null;
+        this.evictions = null;
+    }
+
+    public static BalanceEventBus disabled() {
+        return new BalanceEventBus();
+    }
+
+    public boolean isEnabled() {
+        return subscribers != null;
+    }
+
+    public Duration getMaxStreamDuration() {
+        return maxStreamDuration;
+    }
+
+    /**
+     * Registers a stream for the user's wallet. Over either subscriber limit the stream is
+     * refused with {@link TooManyRequestsException}.
+     */
+    public BalanceSubscription subscribe(UUID userId, BalanceSink sink) {
+        if (subscribers == null) {
+            throw new IllegalStateException("Balance streams are disabled");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManyRequestsException("Too many open balance streams", RETRY_AFTER);
+        }
+        BalanceSubscription subscription = new BalanceSubscription(userId, sink, deliveries, this);
+        boolean[] added = new boolean[1];
+        subscribers.compute(userId, (id, set) -> {
+            Set<BalanceSubscription> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            if (target.size() < maxSubscribersPerUser) {
+                added[0] = target.add(subscription);
+            }
+            return target.isEmpty() ? null : target;
+        });
+        if (!added[0]) {
+            subscriberCount.decrementAndGet();
+            throw new TooManyRequestsException("Too many open balance streams for this user", RETRY_AFTER);
+        }
+        return subscription;
+    }
+
+    // Called after commit; a no-op for users without an open stream
+    public void publish(Wallet wallet) {
+        publish(wallet.getUserId(), wallet.getId(), wallet.getBalance(), wallet.getVersion());
+    }
+
+    // version is the wallet row's version after the change; subscribers drop older events
+    public void publish(UUID userId, UUID walletId, Money balance, long version) {
+        if (subscribers == null) {
+            return;
+        }
+        Set<BalanceSubscription> set = subscribers.get(userId);
+        if (set != null) {
+            WalletBalanceResponse event = new WalletBalanceResponse(walletId, balance);
+            for (BalanceSubscription subscription : set) {
+                subscription.offer(event, version);
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (subscribers == null) {
+            return;
+        }
+        sweeper.shutdownNow();
+        List<BalanceSubscription> open = new ArrayList<>();
+        subscribers.values().forEach(open::addAll);
+        open.forEach(BalanceSubscription::evict);
+        deliveries.shutdownNow();
+    }
+
+    void remove(BalanceSubscription subscription) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(subscription.getUserId(), (id, set) -> {
+            removed[0] = set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    // Evicts stalled subscribers and asks the rest for a heartbeat
+    private void sweep() {
+        long now = System.nanoTime();
+        for (Set<BalanceSubscription> set : subscribers.values()) {
+            for (BalanceSubscription subscription : set) {
+                if (subscription.isStalled(now, slowConsumerTimeoutNanos)) {
+                    subscription.evict();
+                    evictions.increment();
+                } else {
+                    subscription.requestHeartbeat();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.mvgore.walletapi.stream;
+
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+
+import java.io.IOException;
+
+/**
+ * Transport end of a {@link BalanceSubscription}, e.g. an SSE response. Calls never overlap
+ * for one sink, but may come from different threads.
+ */
+public interface BalanceSink {
+
+    void send(WalletBalanceResponse balance) throws IOException;
+
+    // Keeps idle connections alive and surfaces clients that went away
+    void heartbeat() throws IOException;
+
+    // The subscription was evicted; end the response
+    void close();
+}
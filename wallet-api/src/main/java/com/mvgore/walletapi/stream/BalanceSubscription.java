@@ -0,0 +1,144 @@
+package com.mvgore.walletapi.stream;
+
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One client's view of a wallet's balance. The buffer holds a single pending event, and a
+ * newer balance replaces an undelivered one, since only the latest balance matters. At most
+ * one delivery runs at a time; the latest pending event is sent when it finishes.
+ *
+ * <p>Events carry the wallet's version. Local commits and LISTEN/NOTIFY echoes arrive on
+ * different threads, so an event can show up after a newer one; anything older than the
+ * pending or last sent event is dropped rather than moving the balance backwards.
+ */
+public final class BalanceSubscription {
+
+    private final UUID userId;
+    private final BalanceSink sink;
+    private final Executor executor;
+    private final BalanceEventBus bus;
+
+    private final AtomicReference<Event> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean published;
+    private volatile boolean heartbeatDue;
+    // System.nanoTime() when the running delivery started, 0 when idle
+    private volatile long sendStartedNanos;
+    // Written only by the delivering thread; offers read it to drop stale events early
+    private volatile long sentVersion = -1;
+    private WalletBalanceResponse lastSent;
+
+    BalanceSubscription(UUID userId, BalanceSink sink, Executor executor, BalanceEventBus bus) {
+        this.userId = userId;
+        this.sink = sink;
+        this.executor = executor;
+        this.bus = bus;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * Queues the balance read when the stream was opened, unless a change was published
+     * since subscribing; that change is at least as recent.
+     */
+    public void offerInitial(WalletBalanceResponse balance, long version) {
+        if (!published && pending.compareAndSet(null, new Event(balance, version))) {
+            schedule();
+        }
+    }
+
+    /**
+     * Ends the subscription without touching the sink, e.g. because the response already
+     * completed. Idempotent.
+     */
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            bus.remove(this);
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    void offer(WalletBalanceResponse balance, long version) {
+        published = true;
+        if (version < sentVersion) {
+            return;
+        }
+        Event event = new Event(balance, version);
+        pending.accumulateAndGet(event, (current, next) ->
+                current == null || next.version() >= current.version() ? next : current);
+        schedule();
+    }
+
+    void requestHeartbeat() {
+        heartbeatDue = true;
+        schedule();
+    }
+
+    // Whether a delivery has been blocked on the client for longer than timeoutNanos
+    boolean isStalled(long nowNanos, long timeoutNanos) {
+        long started = sendStartedNanos;
+        return started != 0 && nowNanos - started > timeoutNanos;
+    }
+
+    void evict() {
+        if (closed.compareAndSet(false, true)) {
+            bus.remove(this);
+            sink.close();
+        }
+    }
+
+    private void schedule() {
+        if (!closed.get() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        while (true) {
+            Event event = pending.getAndSet(null);
+            boolean heartbeat = heartbeatDue;
+            heartbeatDue = false;
+            if (closed.get() || (event == null && !heartbeat)) {
+                scheduled.set(false);
+                // An offer may have seen scheduled == true just before it was cleared
+                if (closed.get() || (pending.get() == null && !heartbeatDue)
+                        || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            sendStartedNanos = System.nanoTime();
+            try {
+                // Duplicates come from a local write and its LISTEN/NOTIFY echo; an offer that
+                // raced with the previous send may still be older than it
+                if (event != null && event.version() >= sentVersion && !event.balance().equals(lastSent)) {
+                    sink.send(event.balance());
+                    lastSent = event.balance();
+                    sentVersion = event.version();
+                } else if (heartbeat) {
+                    sink.heartbeat();
+                }
+            } catch (IOException | RuntimeException e) {
+                evict();
+            } finally {
+                sendStartedNanos = 0;
+            }
+        }
+    }
+
+    private record Event(WalletBalanceResponse balance, long version) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.wallet.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mvgore.walletapi.auth.AuthController;
+import com.mvgore.walletapi.auth.AuthResponse;
+import com.mvgore.walletapi.auth.LoginRequest;
+import com.mvgore.walletapi.auth.User;
+import com.mvgore.walletapi.auth.UserRepository;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.WalletRepository;
+import com.mvgore.walletapi.security.CustomUserDetailsService;
+import com.mvgore.walletapi.security.JwtUtil;
+import com.mvgore.walletapi.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AuthControllerTest {
+
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final PasswordEncoder passwordEncoder = spy(new BCryptPasswordEncoder(4));
+    private final JwtUtil jwtUtil = new JwtUtil(100, new SimpleMeterRegistry());
+    private final PasswordHashingExecutor hashingExecutor =
+            new PasswordHashingExecutor(1, 4, Duration.ofSeconds(1), new SimpleMeterRegistry());
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+
+    private AuthController controller;
+    private User alice;
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        controller = new AuthController(mock(UserRepository.class), passwordEncoder, userDetailsService, jwtUtil,
+                walletRepository, hashingExecutor);
+        alice = new User("alice", passwordEncoder.encode("secret"));
+        ReflectionTestUtils.setField(alice, "id", UUID.randomUUID());
+        ReflectionTestUtils.setField(alice, "role", "USER");
+        walletId = UUID.randomUUID();
+        clearInvocations(passwordEncoder);
+
+        doAnswer(invocation -> {
+            threads.add("user lookup on " + Thread.currentThread().getName());
+            return "alice".equals(invocation.getArgument(0)) ? Optional.of(alice) : Optional.empty();
+        }).when(userDetailsService).findUser(anyString());
+        when(walletRepository.findByUserId(alice.getId())).thenAnswer(invocation -> {
+            threads.add("wallet lookup on " + Thread.currentThread().getName());
+            return Optional.of(new Wallet(walletId, Money.ZERO, alice.getId()));
+        });
+        doAnswer(invocation -> {
+            threads.add("password check on " + Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).matches(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void lookupsRunOnTheRequestThread_andOnlyThePasswordCheckOnTheHashingPool() throws Exception {
+        String requestThread = Thread.currentThread().getName();
+
+        ResponseEntity<AuthResponse> response = controller.login(login("alice", "secret")).get(5, TimeUnit.SECONDS);
+
+        assertThat(jwtUtil.toPrincipal(jwtUtil.parseValidClaims(response.getBody().getToken())).walletId())
+                .isEqualTo(walletId);
+        assertThat(threads).containsExactly(
+                "user lookup on " + requestThread,
+                "wallet lookup on " + requestThread,
+                "password check on password-hashing-1");
+    }
+
+    @Test
+    void wrongPassword_isBadCredentials() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> controller.login(login("alice", "wrong")).get(5, TimeUnit.SECONDS));
+
+        assertThat(e.getCause()).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void unknownUser_isBadCredentials_afterTheSameHashCheck() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> controller.login(login("mallory", "secret")).get(5, TimeUnit.SECONDS));
+
+        assertThat(e.getCause()).isInstanceOf(BadCredentialsException.class);
+        verify(passwordEncoder).matches(eq("secret"), anyString());
+        verifyNoInteractions(walletRepository);
+    }
+
+    private static LoginRequest login(String username, String password) throws Exception {
+        return new ObjectMapper().readValue(
+                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}", LoginRequest.class);
+    }
+}
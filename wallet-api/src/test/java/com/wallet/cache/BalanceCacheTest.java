@@ -0,0 +1,104 @@
+package com.wallet.cache;
+
+import com.mvgore.walletapi.cache.BalanceCache;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BalanceCacheTest {
+
+    private final BalanceCache cache = new BalanceCache(100, Duration.ofMinutes(1));
+    private final UUID userId = UUID.randomUUID();
+    private final UUID walletId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<UUID, Wallet> loader = id -> {
+        loads.incrementAndGet();
+        return new Wallet(walletId, Money.parse("10"), id);
+    };
+
+    @Test
+    void repeatedReads_loadOnce() {
+        cache.get(userId, loader);
+        Wallet wallet = cache.get(userId, loader);
+
+        assertThat(loads).hasValue(1);
+        assertThat(wallet.getBalance()).isEqualTo(Money.parse("10"));
+    }
+
+    @Test
+    void put_isServedWithoutLoading() {
+        cache.put(new Wallet(walletId, Money.parse("1"), userId));
+
+        assertThat(cache.get(userId, loader).getBalance()).isEqualTo(Money.parse("1"));
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void put_olderThanTheCachedEntry_isIgnored() {
+        cache.put(new Wallet(walletId, Money.parse("3"), userId, 5));
+
+        // A commit that finished after a later one
+        cache.put(new Wallet(walletId, Money.parse("2"), userId, 4));
+        assertThat(cache.get(userId, loader).getBalance()).isEqualTo(Money.parse("3"));
+
+        cache.put(new Wallet(walletId, Money.parse("4"), userId, 6));
+        assertThat(cache.get(userId, loader).getBalance()).isEqualTo(Money.parse("4"));
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void refresh_onlyUpdatesCachedEntries() {
+        cache.refresh(userId, walletId, Money.parse("1"), 1);
+        assertThat(cache.get(userId, loader).getBalance()).isEqualTo(Money.parse("10"));
+
+        cache.refresh(userId, walletId, Money.parse("1"), 1);
+        assertThat(cache.get(userId, loader).getBalance()).isEqualTo(Money.parse("1"));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void refresh_olderThanTheCachedEntry_isIgnored() {
+        cache.put(new Wallet(walletId, Money.parse("3"), userId, 5));
+
+        cache.refresh(userId, walletId, Money.parse("2"), 4);
+
+        assertThat(cache.get(userId, loader).getBalance()).isEqualTo(Money.parse("3"));
+        cache.refresh(userId, walletId, Money.parse("4"), 6);
+        assertThat(cache.get(userId, loader).getBalance()).isEqualTo(Money.parse("4"));
+    }
+
+    @Test
+    void missingWallet_isNotCached() {
+        Function<UUID, Wallet> missing = id -> {
+            loads.incrementAndGet();
+            throw new WalletNotFoundException("Wallet not found for user");
+        };
+
+        assertThrows(WalletNotFoundException.class, () -> cache.get(userId, missing));
+        assertThrows(WalletNotFoundException.class, () -> cache.get(userId, missing));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void writeThroughDuringLoad_isKept() {
+        Function<UUID, Wallet> slowLoader = id -> {
+            // A commit lands while the read is in flight
+            cache.put(new Wallet(walletId, Money.parse("11"), id));
+            return new Wallet(walletId, Money.parse("10"), id);
+        };
+
+        assertThat(cache.get(userId, slowLoader).getBalance()).isEqualTo(Money.parse("11"));
+        assertThat(cache.get(userId, loader).getBalance()).isEqualTo(Money.parse("11"));
+        assertThat(loads).hasValue(0);
+    }
+}
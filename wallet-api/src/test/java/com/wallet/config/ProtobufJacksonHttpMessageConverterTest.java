@@ -0,0 +1,39 @@
+package com.wallet.config;
+
+import com.mvgore.walletapi.config.ProtobufJacksonHttpMessageConverter;
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+import com.mvgore.walletapi.dto.WalletOperationResponse;
+import com.mvgore.walletapi.money.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProtobufJacksonHttpMessageConverterTest {
+
+    private final ProtobufJacksonHttpMessageConverter converter =
+            new ProtobufJacksonHttpMessageConverter(Set.of(WalletOperationResponse.class));
+
+    @Test
+    void roundTripsARegisteredType() throws Exception {
+        WalletOperationResponse response = new WalletOperationResponse(
+                UUID.randomUUID(), Money.parse("5.00"), Money.parse("15.25"));
+
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(response, ProtobufJacksonHttpMessageConverter.APPLICATION_PROTOBUF, out);
+        Object read = converter.read(WalletOperationResponse.class, new MockHttpInputMessage(out.getBodyAsBytes()));
+
+        assertThat(out.getHeaders().getContentType()).isEqualTo(ProtobufJacksonHttpMessageConverter.APPLICATION_PROTOBUF);
+        assertThat(read).isEqualTo(response);
+    }
+
+    @Test
+    void onlyHandlesRegisteredTypes() {
+        assertThat(converter.canWrite(WalletOperationResponse.class, ProtobufJacksonHttpMessageConverter.APPLICATION_PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(WalletBalanceResponse.class, ProtobufJacksonHttpMessageConverter.APPLICATION_PROTOBUF)).isFalse();
+    }
+}
@@ -0,0 +1,196 @@
+package com.wallet.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;  // Added to clear security context after tests
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import com.mvgore.walletapi.auth.UserRepository;
+import com.mvgore.walletapi.config.ProtobufJacksonHttpMessageConverter;
+import com.mvgore.walletapi.repository.WalletRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = com.mvgore.walletapi.WalletApplication.class)
+@AutoConfigureMockMvc
+public class WalletControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;  // Injecting UserRepository
+
+    @Autowired
+    private WalletRepository walletRepository;  // Injecting WalletRepository
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Clear the database to ensure each test starts with a clean state
+        userRepository.deleteAll();  // Make sure the userRepo is correctly initialized
+        walletRepository.deleteAll();
+    }
+
+    // Auth endpoints complete asynchronously on the password hashing pool
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Any cleanup after each test (e.g., clear context or reset state)
+    }
+
+    @Test
+    void testUserRegistration() throws Exception {
+        String registerJson = """
+                {
+                    "username": "testuser",
+                    "password": "password"
+                }
+                """;
+
+        // First registration attempt should succeed
+        performAsync(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson))
+                .andExpect(status().isOk())
+                .andExpect(content().string("User registered successfully"));
+
+        // Second registration attempt with the same username should fail
+        performAsync(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Username already exists"));
+    }
+
+    @Test
+    void testUserLogin() throws Exception {
+        String registerJson = """
+                {
+                    "username": "testuser",
+                    "password": "password"
+                }
+                """;
+
+        // Register user first
+        performAsync(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson))
+                .andExpect(status().isOk())
+                .andExpect(content().string("User registered successfully"));
+
+        // Now, try to login with the registered credentials
+        String loginJson = """
+                {
+                    "username": "testuser",
+                    "password": "password"
+                }
+                """;
+
+        performAsync(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+    }
+
+    @Test
+    void errorsForProtobufOnlyCallers_areWrittenAsJson() throws Exception {
+        String token = registerAndLogin("protouser");
+
+        // No wallet has been created yet, so the balance read fails
+        mockMvc.perform(get("/api/v1/wallet/balance")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(ProtobufJacksonHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Wallet not found"));
+    }
+
+    @Test
+    void nonPositiveOrMissingAmounts_areBadRequests() throws Exception {
+        String token = registerAndLogin("amountuser");
+
+        for (String body : new String[]{"{\"amount\": \"-5.00\"}", "{\"amount\": \"0\"}", "{}"}) {
+            for (String path : new String[]{"/api/v1/wallet/credit", "/api/v1/wallet/debit"}) {
+                mockMvc.perform(post(path)
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Amount must be positive"));
+            }
+        }
+    }
+
+    @Test
+    void malformedNdjsonLineMidChunk_appliesAndReportsTheLinesBeforeIt() throws Exception {
+        String token = registerAndLogin("batchuser");
+        mockMvc.perform(post("/api/v1/wallet/create").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        String ndjson = """
+                {"type": "CREDIT", "amount": "1.00"}
+                {"type": "CREDIT", "amount": "2.00"}
+                {"type": "DEBIT", "amount": "0.50"}
+                not json
+                {"type": "CREDIT", "amount": "100.00"}
+                """;
+
+        String[] lines = performAsync(post("/api/v1/wallet/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(4);
+        assertThat(objectMapper.readTree(lines[2]).get("balance").asText()).isEqualTo("2.50");
+        assertThat(objectMapper.readTree(lines[3]).get("index").asInt()).isEqualTo(3);
+        assertThat(objectMapper.readTree(lines[3]).get("error").asText()).isEqualTo("MALFORMED_INPUT");
+        mockMvc.perform(get("/api/v1/wallet/balance").header("Authorization", "Bearer " + token))
+                .andExpect(jsonPath("$.balance").value("2.50"));
+
+        // Jackson reads the first token when the stream is opened
+        performAsync(post("/api/v1/wallet/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("not json\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.index").value(0))
+                .andExpect(jsonPath("$.error").value("MALFORMED_INPUT"));
+    }
+
+    private String registerAndLogin(String username) throws Exception {
+        String credentialsJson = """
+                {
+                    "username": "%s",
+                    "password": "password"
+                }
+                """.formatted(username);
+        performAsync(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentialsJson))
+                .andExpect(status().isOk());
+        return objectMapper.readTree(performAsync(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentialsJson))
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+    }
+}
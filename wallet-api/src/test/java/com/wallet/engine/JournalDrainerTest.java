@@ -0,0 +1,200 @@
+package com.wallet.engine;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.engine.JournalDrainer;
+import com.mvgore.walletapi.engine.LedgerEntry;
+import com.mvgore.walletapi.engine.LedgerJournal;
+import com.mvgore.walletapi.engine.LedgerStore;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.STRING;
+
+@SpringBootTest(classes = WalletApplication.class)
+class JournalDrainerTest {
+
+    private static final int RECORD_BYTES = 8 + 16 + 16 + 8 + 1 + 12;
+    private static final int SEGMENT_BYTES = 1 << 16;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path dir;
+
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        walletId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 0, ?, 0)",
+                walletId, UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void replay_afterRestart_drainsEverythingJournalled() throws Exception {
+        try (LedgerJournal journal = open()) {
+            journal.sync(journal.append(List.of(credit(walletId, 500), debit(walletId, 120))));
+        }
+
+        try (LedgerJournal journal = open()) {
+            drainer(journal, new LedgerStore(jdbcTemplate, transactionTemplate)).replay();
+
+            assertThat(balance()).isEqualTo(380);
+            assertThat(transactionCount()).isEqualTo(2);
+            assertThat(journal.drainedLsn()).isEqualTo(2L * RECORD_BYTES);
+        }
+    }
+
+    @Test
+    void redrainAfterALostCheckpoint_changesNothing() throws Exception {
+        try (LedgerJournal journal = open()) {
+            journal.sync(journal.append(List.of(credit(walletId, 500), debit(walletId, 120))));
+            drainer(journal, new LedgerStore(jdbcTemplate, transactionTemplate)).replay();
+        }
+        // A crash between the Postgres commit and the checkpoint write
+        Files.writeString(dir.resolve("drained"), "0");
+
+        try (LedgerJournal journal = open()) {
+            drainer(journal, new LedgerStore(jdbcTemplate, transactionTemplate)).replay();
+
+            assertThat(balance()).isEqualTo(380);
+            assertThat(transactionCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void recordPostgresKeepsRejecting_isQuarantined_andTheRestDrain() throws Exception {
+        LedgerEntry orphan = credit(UUID.randomUUID(), 999);
+        try (LedgerJournal journal = open()) {
+            journal.sync(journal.append(List.of(credit(walletId, 500), orphan, credit(walletId, 20))));
+            drainer(journal, new LedgerStore(jdbcTemplate, transactionTemplate)).replay();
+
+            assertThat(balance()).isEqualTo(520);
+            assertThat(transactionCount()).isEqualTo(2);
+            assertThat(journal.drainedLsn()).isEqualTo(3L * RECORD_BYTES);
+        }
+        assertThat(Files.readAllLines(dir.resolve("quarantined")))
+                .singleElement(STRING)
+                .startsWith("entry " + orphan.transactionId() + " " + orphan.walletId() + " 9.99 CREDIT");
+    }
+
+    @Test
+    void unreachableDatabase_isRetried_notQuarantined() throws Exception {
+        AtomicInteger outageCalls = new AtomicInteger(6);
+        LedgerStore flaky = new LedgerStore(jdbcTemplate, transactionTemplate) {
+            @Override
+            public void drain(List<LedgerEntry> entries) {
+                failWhileDown();
+                super.drain(entries);
+            }
+
+            @Override
+            public void ping() {
+                failWhileDown();
+                super.ping();
+            }
+
+            private void failWhileDown() {
+                if (outageCalls.getAndDecrement() > 0) {
+                    throw new CannotGetJdbcConnectionException("simulated outage");
+                }
+            }
+        };
+
+        try (LedgerJournal journal = open()) {
+            journal.sync(journal.append(List.of(credit(walletId, 500), credit(walletId, 20))));
+            drainer(journal, flaky).replay();
+
+            assertThat(balance()).isEqualTo(520);
+            assertThat(journal.drainedLsn()).isEqualTo(2L * RECORD_BYTES);
+        }
+        assertThat(dir.resolve("quarantined")).doesNotExist();
+    }
+
+    @Test
+    void recordFailingItsChecksum_isQuarantined_andTheRestDrain() throws Exception {
+        try (LedgerJournal journal = open()) {
+            journal.sync(journal.append(List.of(credit(walletId, 500), credit(walletId, 7), credit(walletId, 20))));
+            // Damage the middle record's amount after it was acknowledged
+            try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{0x7f}), RECORD_BYTES + 8 + 32);
+            }
+            drainer(journal, new LedgerStore(jdbcTemplate, transactionTemplate)).replay();
+
+            assertThat(balance()).isEqualTo(520);
+            assertThat(journal.drainedLsn()).isEqualTo(3L * RECORD_BYTES);
+        }
+        assertThat(Files.readAllLines(dir.resolve("quarantined")))
+                .singleElement(STRING)
+                .startsWith("corrupt " + RECORD_BYTES + " ");
+    }
+
+    private LedgerJournal open() throws IOException {
+        return LedgerJournal.open(dir, SEGMENT_BYTES, new SimpleMeterRegistry());
+    }
+
+    private static JournalDrainer drainer(LedgerJournal journal, LedgerStore store) {
+        return new JournalDrainer(journal, store, 100, Duration.ofMillis(10), Duration.ofMillis(1), 2);
+    }
+
+    private static LedgerEntry credit(UUID walletId, long minorUnits) {
+        return entry(walletId, minorUnits, TransactionType.CREDIT);
+    }
+
+    private static LedgerEntry debit(UUID walletId, long minorUnits) {
+        return entry(walletId, minorUnits, TransactionType.DEBIT);
+    }
+
+    private static LedgerEntry entry(UUID walletId, long minorUnits, TransactionType type) {
+        return new LedgerEntry(UUID.randomUUID(), walletId, Money.ofMinor(minorUnits), type,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+    }
+
+    private long balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", Long.class, walletId);
+    }
+
+    private long transactionCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE wallet_id = ?", Long.class, walletId);
+    }
+}
@@ -0,0 +1,212 @@
+package com.wallet.engine;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.engine.LedgerEngine;
+import com.mvgore.walletapi.engine.LedgerEntry;
+import com.mvgore.walletapi.engine.LedgerJournal;
+import com.mvgore.walletapi.engine.LedgerStore;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = WalletApplication.class)
+class LedgerEngineTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path journalDir;
+
+    private final List<UUID> walletIds = new ArrayList<>();
+    private LedgerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        walletIds.clear();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (engine != null) {
+            engine.stop();
+        }
+        walletIds.forEach(id -> jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", id));
+    }
+
+    @Test
+    void concurrentOperations_areAppliedOnceAndPersisted() throws Exception {
+        engine = start(4, 1000);
+        UUID userId = createWallet(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Wallet>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> engine.credit(userId, Money.parse("1.00"))));
+            }
+            for (Future<Wallet> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Wallet debited = engine.debit(userId, Money.parse("50.00"));
+        assertThat(debited.getBalance()).isEqualTo(Money.parse("150.00"));
+        assertThat(balance(userId)).isEqualTo(15000);
+        // One version per operation, as handed out in the results
+        assertThat(debited.getVersion()).isEqualTo(201);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM wallets WHERE user_id = ?", Long.class, userId))
+                .isEqualTo(201);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transactions t JOIN wallets w ON w.id = t.wallet_id WHERE w.user_id = ?",
+                Long.class, userId)).isEqualTo(201);
+    }
+
+    @Test
+    void rejectedOperations_leaveBalanceUnchanged() throws Exception {
+        engine = start(2, 1000);
+        UUID userId = createWallet(500);
+
+        assertThrows(InsufficientFundsException.class, () -> engine.debit(userId, Money.parse("5.01")));
+        assertThrows(WalletNotFoundException.class, () -> engine.credit(UUID.randomUUID(), Money.parse("1")));
+
+        assertThat(engine.debit(userId, Money.parse("5.00")).getBalance()).isEqualTo(Money.ZERO);
+        assertThat(balance(userId)).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedWallet_isEvictedAndReloaded() throws Exception {
+        engine = start(1, 1);
+        UUID first = createWallet(100);
+        UUID second = createWallet(100);
+
+        engine.credit(first, Money.parse("1.00"));
+        engine.credit(second, Money.parse("1.00"));
+        // Only visible to the engine if it has to load the first wallet again
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 1000 WHERE user_id = ?", first);
+
+        assertThat(engine.credit(first, Money.parse("1.00")).getBalance()).isEqualTo(Money.parse("13.00"));
+    }
+
+    @Test
+    void cachedWallet_isNotReloaded() throws Exception {
+        engine = start(1, 10);
+        UUID userId = createWallet(100);
+
+        engine.credit(userId, Money.parse("1.00"));
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 1000 WHERE user_id = ?", userId);
+
+        assertThat(engine.credit(userId, Money.parse("1.00")).getBalance()).isEqualTo(Money.parse("3.00"));
+    }
+
+    @Test
+    void withoutAJournal_balancesAreReadFromTheDatabase() throws Exception {
+        engine = start(1, 10);
+        UUID userId = createWallet(100);
+
+        engine.credit(userId, Money.parse("1.00"));
+        engine.awaitPersisted(userId);
+
+        assertThat(engine.currentWallet(userId)).isNull();
+        assertThat(balance(userId)).isEqualTo(200);
+    }
+
+    @Test
+    void journalledWrites_areReadFromThePartition_andHistoryWaitsForTheDrain() throws Exception {
+        AtomicBoolean databaseDown = new AtomicBoolean();
+        LedgerStore stalling = new LedgerStore(jdbcTemplate, transactionTemplate) {
+            @Override
+            public void drain(List<LedgerEntry> entries) {
+                failWhileDown();
+                super.drain(entries);
+            }
+
+            @Override
+            public void ping() {
+                failWhileDown();
+                super.ping();
+            }
+
+            private void failWhileDown() {
+                if (databaseDown.get()) {
+                    throw new CannotGetJdbcConnectionException("simulated outage");
+                }
+            }
+        };
+        engine = new LedgerEngine(stalling, 2, 1000, 100, 10, Duration.ofMillis(300),
+                LedgerJournal.open(journalDir, 1 << 16, new SimpleMeterRegistry()),
+                100, Duration.ofMillis(5), Duration.ofMillis(20), Integer.MAX_VALUE);
+        engine.start();
+        UUID userId = createWallet(100);
+        UUID untouched = createWallet(700);
+
+        databaseDown.set(true);
+        Wallet credited = engine.credit(userId, Money.parse("2.50"));
+
+        Wallet current = engine.currentWallet(userId);
+        assertThat(current.getBalance()).isEqualTo(Money.parse("3.50"));
+        assertThat(current.getVersion()).isEqualTo(credited.getVersion());
+        assertThat(balance(userId)).isEqualTo(100);
+        WalletException lag = assertThrows(WalletException.class, () -> engine.awaitPersisted(userId));
+        assertThat(lag.getCode()).isEqualTo("JOURNAL_DRAIN_LAG");
+        // A wallet with nothing in the journal does not wait behind the others
+        engine.awaitPersisted(untouched);
+
+        databaseDown.set(false);
+        engine.awaitPersisted(userId);
+        assertThat(balance(userId)).isEqualTo(350);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transactions t JOIN wallets w ON w.id = t.wallet_id WHERE w.user_id = ?",
+                Long.class, userId)).isEqualTo(1);
+    }
+
+    private LedgerEngine start(int partitions, int maxCachedWallets) throws InterruptedException {
+        LedgerEngine started = new LedgerEngine(new LedgerStore(jdbcTemplate, transactionTemplate),
+                partitions, 1000, 100, maxCachedWallets, Duration.ofSeconds(5));
+        started.start();
+        return started;
+    }
+
+    private UUID createWallet(long minorUnits) {
+        UUID walletId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, ?, ?, 0)",
+                walletId, minorUnits, userId);
+        walletIds.add(walletId);
+        return userId;
+    }
+
+    private long balance(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE user_id = ?", Long.class, userId);
+    }
+}
@@ -0,0 +1,166 @@
+package com.wallet.engine;
+
+import com.mvgore.walletapi.engine.LedgerEntry;
+import com.mvgore.walletapi.engine.LedgerJournal;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LedgerJournalTest {
+
+    // [length][crc32c] + transactionId, walletId, amount, type, createdAt
+    private static final int RECORD_BYTES = 8 + 16 + 16 + 8 + 1 + 12;
+    private static final int SEGMENT_BYTES = 1 << 16;
+
+    @TempDir
+    Path dir;
+
+    private final UUID walletId = UUID.randomUUID();
+
+    @Test
+    void syncedRecords_surviveAReopen() throws IOException {
+        List<LedgerEntry> entries = List.of(entry(100), entry(-40), entry(7));
+        try (LedgerJournal journal = open(SEGMENT_BYTES)) {
+            journal.sync(journal.append(entries));
+        }
+
+        try (LedgerJournal journal = open(SEGMENT_BYTES)) {
+            assertThat(journal.drainedLsn()).isZero();
+            assertThat(readAll(journal)).containsExactlyElementsOf(entries);
+        }
+    }
+
+    @Test
+    void tornTail_isCutOffOnReopen_andOverwrittenByTheNextAppend() throws IOException {
+        List<LedgerEntry> entries = List.of(entry(1), entry(2), entry(3));
+        try (LedgerJournal journal = open(SEGMENT_BYTES)) {
+            journal.sync(journal.append(entries));
+        }
+        // A crash mid-write: the last record's length reached the disk, most of its payload did not
+        overwrite(onlySegment(), 2L * RECORD_BYTES + 12, new byte[RECORD_BYTES - 12]);
+
+        LedgerEntry next = entry(4);
+        try (LedgerJournal journal = open(SEGMENT_BYTES)) {
+            assertThat(readAll(journal)).containsExactly(entries.get(0), entries.get(1));
+            assertThat(journal.append(List.of(next))).isEqualTo(3L * RECORD_BYTES);
+            journal.sync(3L * RECORD_BYTES);
+        }
+
+        try (LedgerJournal journal = open(SEGMENT_BYTES)) {
+            assertThat(readAll(journal)).containsExactly(entries.get(0), entries.get(1), next);
+        }
+    }
+
+    @Test
+    void recordFailingItsChecksum_isNotReturned() throws IOException {
+        List<LedgerEntry> entries = List.of(entry(1), entry(2), entry(3));
+        try (LedgerJournal journal = open(SEGMENT_BYTES)) {
+            journal.sync(journal.append(entries));
+            // Damage the middle record's amount after it was acknowledged
+            overwrite(onlySegment(), RECORD_BYTES + 8 + 32, new byte[]{0x7f});
+
+            List<LedgerEntry> out = new ArrayList<>();
+            assertThat(journal.read(0, 10, out)).isEqualTo(RECORD_BYTES);
+            assertThat(out).containsExactly(entries.get(0));
+            IOException e = assertThrows(IOException.class, () -> journal.read(RECORD_BYTES, 10, new ArrayList<>()));
+            assertThat(e).hasMessageContaining("Corrupt journal record at LSN " + RECORD_BYTES);
+        }
+
+        // On reopen the damaged record is where the log ends
+        try (LedgerJournal journal = open(SEGMENT_BYTES)) {
+            assertThat(readAll(journal)).containsExactly(entries.get(0));
+        }
+    }
+
+    @Test
+    void fullSegment_rollsOver_andSkipsItsUnusedTail() throws IOException {
+        int segmentBytes = 2 * RECORD_BYTES + 10;
+        List<LedgerEntry> entries = List.of(entry(1), entry(2), entry(3), entry(4), entry(5));
+        try (LedgerJournal journal = open(segmentBytes)) {
+            assertThat(journal.append(entries)).isEqualTo(2L * segmentBytes + RECORD_BYTES);
+            journal.sync(2L * segmentBytes + RECORD_BYTES);
+            assertThat(segmentFiles()).hasSize(3);
+            assertThat(readAll(journal)).containsExactlyElementsOf(entries);
+        }
+
+        try (LedgerJournal journal = open(segmentBytes)) {
+            assertThat(readAll(journal)).containsExactlyElementsOf(entries);
+        }
+    }
+
+    @Test
+    void markDrained_deletesDrainedSegments_andPersistsTheCheckpoint() throws IOException {
+        int segmentBytes = 2 * RECORD_BYTES + 10;
+        List<LedgerEntry> entries = List.of(entry(1), entry(2), entry(3), entry(4), entry(5));
+        long drained;
+        try (LedgerJournal journal = open(segmentBytes)) {
+            journal.sync(journal.append(entries));
+            drained = journal.read(0, 3, new ArrayList<>());
+            journal.markDrained(drained);
+
+            assertThat(drained).isEqualTo(segmentBytes + RECORD_BYTES);
+            assertThat(segmentFiles()).hasSize(2);
+            assertThat(journal.drainedLsn()).isEqualTo(drained);
+        }
+
+        try (LedgerJournal journal = open(segmentBytes)) {
+            assertThat(journal.drainedLsn()).isEqualTo(drained);
+            List<LedgerEntry> out = new ArrayList<>();
+            journal.read(drained, 10, out);
+            assertThat(out).containsExactly(entries.get(3), entries.get(4));
+        }
+    }
+
+    private LedgerJournal open(int segmentBytes) throws IOException {
+        return LedgerJournal.open(dir, segmentBytes, new SimpleMeterRegistry());
+    }
+
+    private static List<LedgerEntry> readAll(LedgerJournal journal) throws IOException {
+        List<LedgerEntry> out = new ArrayList<>();
+        journal.read(journal.drainedLsn(), Integer.MAX_VALUE, out);
+        return out;
+    }
+
+    private LedgerEntry entry(long minorUnits) {
+        return new LedgerEntry(UUID.randomUUID(), walletId, Money.ofMinor(Math.abs(minorUnits)),
+                minorUnits < 0 ? TransactionType.DEBIT : TransactionType.CREDIT,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segmentFiles();
+        assertThat(segments).hasSize(1);
+        return segments.get(0);
+    }
+
+    private static void overwrite(Path file, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.wallet.exception;
+
+import com.mvgore.walletapi.exception.FeatureUnavailableException;
+import com.mvgore.walletapi.exception.GlobalExceptionHandler;
+import com.mvgore.walletapi.exception.WalletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void switchedOffFeature_isNotImplemented_notAnOutage() {
+        ResponseEntity<Map<String, Object>> response = handler.handleFeatureUnavailable(
+                new FeatureUnavailableException("Transfers are not available in this write mode", "TRANSFER_UNSUPPORTED"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_IMPLEMENTED);
+        assertThat(response.getBody()).containsEntry("error", "TRANSFER_UNSUPPORTED");
+    }
+
+    @Test
+    void transientWalletFailure_isServiceUnavailable() {
+        ResponseEntity<Map<String, Object>> response = handler.handleWalletException(
+                new WalletException("Ledger partition is saturated", "ENGINE_OVERLOADED"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody()).containsEntry("error", "ENGINE_OVERLOADED");
+    }
+}
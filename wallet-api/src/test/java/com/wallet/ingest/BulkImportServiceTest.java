@@ -0,0 +1,185 @@
+package com.wallet.ingest;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.exception.BalanceMismatchException;
+import com.mvgore.walletapi.exception.GlobalExceptionHandler;
+import com.mvgore.walletapi.ingest.BulkImportService;
+import com.mvgore.walletapi.ingest.ImportEntity;
+import com.mvgore.walletapi.ingest.ImportResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = WalletApplication.class)
+class BulkImportServiceTest {
+
+    private static final LocalDateTime T0 = LocalDate.now().atTime(9, 30);
+
+    @Autowired
+    private BulkImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID userId;
+    private UUID walletId;
+    private String historicalPartition;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        walletId = UUID.randomUUID();
+        historicalPartition = null;
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        if (historicalPartition != null) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + historicalPartition);
+        }
+    }
+
+    @Test
+    void csvImport_loadsUsersWalletsAndTransactions_andReRunIsSkipped() {
+        String users = "id,username,password,role\n" + userId + ",import-" + userId + ",{noop}x,\n";
+        String wallets = "id,user_id,balance\n" + walletId + "," + userId + ",7.50\n";
+        String transactions = "id,wallet_id,amount,type,created_at\n"
+                + UUID.randomUUID() + "," + walletId + ",10.00,CREDIT," + T0 + "\n"
+                + UUID.randomUUID() + "," + walletId + ",2.50,DEBIT," + T0.plusMinutes(1) + "\n";
+
+        assertThat(csv(ImportEntity.USERS, users, false).inserted()).isEqualTo(1);
+        assertThat(csv(ImportEntity.WALLETS, wallets, false).inserted()).isEqualTo(1);
+        ImportResult result = csv(ImportEntity.TRANSACTIONS, transactions, true);
+
+        assertThat(result.staged()).isEqualTo(2);
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(result.balanceMismatches()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT role FROM users WHERE id = ?", String.class, userId))
+                .isEqualTo("USER");
+        assertThat(balance()).isEqualTo(750);
+        assertThat(ledger()).containsExactly("CREDIT:1000", "DEBIT:250");
+
+        ImportResult again = csv(ImportEntity.TRANSACTIONS, transactions, true);
+        assertThat(again.inserted()).isZero();
+        assertThat(again.skipped()).isEqualTo(2);
+        assertThat(ledger()).hasSize(2);
+    }
+
+    @Test
+    void ndjsonImport_loadsTransactions() {
+        createWallet(500);
+        String transactions = "{\"id\":\"" + UUID.randomUUID() + "\",\"wallet_id\":\"" + walletId
+                + "\",\"amount\":5.00,\"type\":\"CREDIT\",\"created_at\":\"" + T0 + "\"}\n";
+
+        ImportResult result = importService.importFrom(ImportEntity.TRANSACTIONS, BulkImportService.Format.NDJSON,
+                stream(transactions), true);
+
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(ledger()).containsExactly("CREDIT:500");
+    }
+
+    @Test
+    void invalidRows_areSkipped() {
+        createWallet(100);
+        String transactions = "id,wallet_id,amount,type,created_at\n"
+                + UUID.randomUUID() + "," + walletId + ",1.00,CREDIT," + T0 + "\n"
+                + UUID.randomUUID() + "," + UUID.randomUUID() + ",1.00,CREDIT," + T0 + "\n"
+                + UUID.randomUUID() + "," + walletId + ",1.00,REFUND," + T0 + "\n"
+                + UUID.randomUUID() + "," + walletId + ",0,CREDIT," + T0 + "\n";
+
+        ImportResult result = csv(ImportEntity.TRANSACTIONS, transactions, true);
+
+        assertThat(result.staged()).isEqualTo(4);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(3);
+    }
+
+    @Test
+    void strictMismatch_rollsBackTheWholeImport() {
+        createWallet(100);
+        String transactions = "id,wallet_id,amount,type,created_at\n"
+                + UUID.randomUUID() + "," + walletId + ",2.00,CREDIT," + T0 + "\n";
+
+        BalanceMismatchException ex = assertThrows(BalanceMismatchException.class,
+                () -> csv(ImportEntity.TRANSACTIONS, transactions, true));
+
+        assertThat(ex.getWalletIds()).containsExactly(walletId);
+        assertThat(ledger()).isEmpty();
+        assertThat(new GlobalExceptionHandler().handleBalanceMismatch(ex).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void lenientMismatch_isReportedAndKept() {
+        createWallet(100);
+        String transactions = "id,wallet_id,amount,type,created_at\n"
+                + UUID.randomUUID() + "," + walletId + ",2.00,CREDIT," + T0 + "\n";
+
+        ImportResult result = csv(ImportEntity.TRANSACTIONS, transactions, false);
+
+        assertThat(result.balanceMismatches()).containsExactly(walletId);
+        assertThat(ledger()).containsExactly("CREDIT:200");
+    }
+
+    @Test
+    void historicalTransactions_getTheirPartitionCreated() {
+        createWallet(100);
+        LocalDateTime old = T0.minusMonths(6);
+        String partition = "transactions_y" + old.format(DateTimeFormatter.ofPattern("yyyy'm'MM"));
+        if (!partitionExists(partition)) {
+            historicalPartition = partition;
+        }
+        String transactions = "id,wallet_id,amount,type,created_at\n"
+                + UUID.randomUUID() + "," + walletId + ",1.00,CREDIT," + old + "\n";
+
+        ImportResult result = csv(ImportEntity.TRANSACTIONS, transactions, true);
+
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(partitionExists(partition)).isTrue();
+        assertThat(ledger()).containsExactly("CREDIT:100");
+    }
+
+    private ImportResult csv(ImportEntity entity, String body, boolean strict) {
+        return importService.importFrom(entity, BulkImportService.Format.CSV, stream(body), strict);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void createWallet(long minorUnits) {
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, ?, ?, 0)",
+                walletId, minorUnits, userId);
+    }
+
+    private boolean partitionExists(String name) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+    }
+
+    private long balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", Long.class, walletId);
+    }
+
+    private List<String> ledger() {
+        return jdbcTemplate.queryForList(
+                "SELECT type || ':' || amount FROM transactions WHERE wallet_id = ? ORDER BY created_at",
+                String.class, walletId);
+    }
+}
@@ -0,0 +1,104 @@
+package com.wallet.metrics;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = WalletApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@AutoConfigureObservability
+class PrometheusEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID walletId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        walletId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 0, ?, 0)",
+                walletId, userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void scrape_onTheManagementPort_listsTheServiceMeters() {
+        double before = creditSuccesses();
+        walletService.credit(userId, Money.parse("1.00"));
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("wallet_operation_seconds_bucket{")
+                .contains("outcome=\"success\"")
+                .contains("type=\"credit\"")
+                .contains("wallet_lock_wait_seconds")
+                .contains("db_transaction_duration_seconds")
+                .contains("wallet_insufficient_funds_total")
+                .contains("auth_jwt_validation_seconds")
+                .contains("hikaricp_connections_acquire_seconds");
+        assertThat(creditSuccesses()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void scrape_onTheApplicationPort_isNotPublic() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void otherActuatorEndpoints_onTheManagementPort_needAdmin() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/metrics", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    private double creditSuccesses() {
+        return meterRegistry.get("wallet.operation").tag("type", "credit").tag("outcome", "success").timer().count();
+    }
+}
@@ -0,0 +1,62 @@
+package com.wallet.money;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mvgore.walletapi.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void parse_readsUpToTwoDecimalPlaces() {
+        assertThat(Money.parse("12").minorUnits()).isEqualTo(1200);
+        assertThat(Money.parse("12.3").minorUnits()).isEqualTo(1230);
+        assertThat(Money.parse("-0.05").minorUnits()).isEqualTo(-5);
+        assertThat(Money.parse(".50").minorUnits()).isEqualTo(50);
+    }
+
+    @Test
+    void parse_rejectsMalformedOrTooPreciseAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1.005"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1."));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1e3"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("-"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(""));
+        assertThrows(ArithmeticException.class, () -> Money.parse("92233720368547758.08"));
+    }
+
+    @Test
+    void arithmetic_isOverflowChecked() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+
+        assertThat(Money.parse("10.25").plus(Money.parse("0.75"))).isEqualTo(Money.parse("11"));
+        assertThat(Money.parse("1").minus(Money.parse("1.50"))).isEqualTo(Money.parse("-0.50"));
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).negate());
+    }
+
+    @Test
+    void toString_isTheDecimalForm() {
+        assertThat(Money.parse("12.3")).hasToString("12.30");
+        assertThat(Money.parse("-0.05")).hasToString("-0.05");
+        assertThat(Money.ZERO).hasToString("0.00");
+        assertThat(Money.ofMinor(Long.MIN_VALUE)).hasToString("-92233720368547758.08");
+        assertThat(Money.of(new BigDecimal("7.10")).toBigDecimal()).isEqualByComparingTo("7.1");
+    }
+
+    @Test
+    void json_writesStrings_andReadsStringsOrNumbers() throws Exception {
+        assertThat(mapper.writeValueAsString(Money.parse("12.3"))).isEqualTo("\"12.30\"");
+        assertThat(mapper.readValue("\"12.30\"", Money.class)).isEqualTo(Money.ofMinor(1230));
+        assertThat(mapper.readValue("12.30", Money.class)).isEqualTo(Money.ofMinor(1230));
+        assertThat(mapper.readValue("12", Money.class)).isEqualTo(Money.ofMinor(1200));
+        assertThrows(JsonMappingException.class, () -> mapper.readValue("12.345", Money.class));
+    }
+}
@@ -0,0 +1,248 @@
+package com.wallet.partition;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.ingest.BulkImportService;
+import com.mvgore.walletapi.ingest.ImportEntity;
+import com.mvgore.walletapi.ingest.ImportResult;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.partition.TransactionPartitionMaintenance;
+import com.mvgore.walletapi.reconciliation.BalanceCheckpointRepository;
+import com.mvgore.walletapi.reconciliation.BalanceMismatch;
+import com.mvgore.walletapi.reconciliation.ReconciliationService;
+import com.mvgore.walletapi.reconciliation.WalletIdRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = WalletApplication.class)
+class TransactionPartitionMaintenanceTest {
+
+    private static final int RETENTION_MONTHS = 12;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReconciliationService reconciliation;
+
+    @Autowired
+    private BalanceCheckpointRepository checkpoints;
+
+    @Autowired
+    private BulkImportService importService;
+
+    @TempDir
+    Path archiveDir;
+
+    private final ReconciliationService reconciliationService = mock(ReconciliationService.class);
+    private final List<String> createdPartitions = new ArrayList<>();
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        walletId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 0, ?, 0)",
+                walletId, UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        createdPartitions.forEach(name -> jdbcTemplate.execute("DROP TABLE IF EXISTS " + name));
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void ensureUpcoming_createsMissingPartitionsAhead() {
+        int monthsAhead = 6;
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            String name = partitionName(now.plusMonths(i));
+            if (!exists(name)) {
+                createdPartitions.add(name);
+            }
+        }
+
+        int created = maintenance(monthsAhead).ensureUpcoming();
+
+        assertThat(created).isEqualTo(createdPartitions.size()).isPositive();
+        for (int i = 0; i <= monthsAhead; i++) {
+            assertThat(exists(partitionName(now.plusMonths(i)))).isTrue();
+        }
+        assertThat(maintenance(monthsAhead).ensureUpcoming()).isZero();
+
+        // Writes far ahead of today now have somewhere to go
+        insert(UUID.randomUUID(), now.plusMonths(monthsAhead).atDay(1));
+    }
+
+    @Test
+    void retireExpired_checkpointsAndArchivesBeforeDropping() throws IOException {
+        YearMonth expiredMonth = YearMonth.now().minusMonths(RETENTION_MONTHS + 2);
+        String partition = createPartition(expiredMonth);
+        UUID txId = UUID.randomUUID();
+        insert(txId, expiredMonth.atDay(15));
+
+        List<String> dropped = maintenance(3).retireExpired();
+
+        assertThat(dropped).contains(partition);
+        assertThat(exists(partition)).isFalse();
+        assertThat(archivedCsv(partition)).startsWith("id,").contains(txId.toString());
+        assertThat(Files.exists(archiveDir.resolve(partition + ".csv.gz.tmp"))).isFalse();
+        verify(reconciliationService).checkpoint();
+        verify(reconciliationService).carryForward(partition, expiredMonth.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    @Test
+    void retireExpired_finishesAPartitionDetachedByAnEarlierRun() throws IOException {
+        YearMonth expiredMonth = YearMonth.now().minusMonths(RETENTION_MONTHS + 3);
+        String partition = createPartition(expiredMonth);
+        UUID txId = UUID.randomUUID();
+        insert(txId, expiredMonth.atDay(1));
+        jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+
+        assertThat(maintenance(3).retireExpired()).contains(partition);
+
+        assertThat(exists(partition)).isFalse();
+        assertThat(archivedCsv(partition)).contains(txId.toString());
+    }
+
+    @Test
+    void retireExpired_keepsPartitionsInsideRetention() {
+        YearMonth keptMonth = YearMonth.now().minusMonths(RETENTION_MONTHS - 1);
+        String partition = createPartition(keptMonth);
+
+        assertThat(maintenance(3).retireExpired()).doesNotContain(partition);
+
+        assertThat(exists(partition)).isTrue();
+        assertThat(Files.exists(archiveDir.resolve(partition + ".csv.gz"))).isFalse();
+    }
+
+    @Test
+    void retiredRows_stayInTheLedgerAsAnOpeningBalance_forReconciliation() {
+        YearMonth expiredMonth = YearMonth.now().minusMonths(RETENTION_MONTHS + 2);
+        createPartition(expiredMonth);
+        insert(UUID.randomUUID(), expiredMonth.atDay(15));
+        insert(UUID.randomUUID(), LocalDate.now());
+        jdbcTemplate.update("UPDATE wallets SET balance = 200 WHERE id = ?", walletId);
+
+        withReconciliation().retireExpired();
+        // Imports and stale-checkpoint cleanup may delete any checkpoint afterwards
+        jdbcTemplate.update("DELETE FROM balance_checkpoints WHERE wallet_id = ?", walletId);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT ledger_balance FROM ledger_openings WHERE wallet_id = ?",
+                Long.class, walletId)).isEqualTo(100);
+        assertThat(checkpoints.findMismatches(thisWallet())).isEmpty();
+        assertThat(reconciliation.reconcile().mismatches())
+                .extracting(BalanceMismatch::walletId)
+                .doesNotContain(walletId);
+        // A checkpoint rebuilt after the drop starts from the opening balance
+        assertThat(checkpoints.checkpointRange(thisWallet(), LocalDateTime.now().plusDays(1))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT ledger_balance FROM balance_checkpoints WHERE wallet_id = ?",
+                Long.class, walletId)).isEqualTo(200);
+        assertThat(checkpoints.findMismatches(thisWallet())).isEmpty();
+        assertThat(reconciliation.balanceAt(walletId, LocalDate.now().atTime(23, 59))).isEqualTo(Money.ofMinor(200));
+        assertThrows(IllegalArgumentException.class,
+                () -> reconciliation.balanceAt(walletId, expiredMonth.atDay(20).atStartOfDay()));
+    }
+
+    @Test
+    void strictImport_afterRetention_balancesAgainstTheOpeningBalance() {
+        YearMonth expiredMonth = YearMonth.now().minusMonths(RETENTION_MONTHS + 2);
+        createPartition(expiredMonth);
+        insert(UUID.randomUUID(), expiredMonth.atDay(15));
+        jdbcTemplate.update("UPDATE wallets SET balance = 150 WHERE id = ?", walletId);
+        withReconciliation().retireExpired();
+
+        // The retired month is already summed into the opening balance, so its row is skipped
+        String transactions = "id,wallet_id,amount,type,created_at\n"
+                + UUID.randomUUID() + "," + walletId + ",0.50,CREDIT," + LocalDate.now().atTime(0, 5) + "\n"
+                + UUID.randomUUID() + "," + walletId + ",9.99,CREDIT," + expiredMonth.atDay(16).atStartOfDay() + "\n";
+        ImportResult result = importService.importFrom(ImportEntity.TRANSACTIONS, BulkImportService.Format.CSV,
+                new ByteArrayInputStream(transactions.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.balanceMismatches()).isEmpty();
+    }
+
+    @Test
+    void zeroRetention_keepsEverything() {
+        TransactionPartitionMaintenance keepAll = new TransactionPartitionMaintenance(
+                dataSource, reconciliationService, 3, 0, archiveDir, 60_000);
+
+        assertThat(keepAll.retireExpired()).isEmpty();
+        verifyNoInteractions(reconciliationService);
+    }
+
+    private TransactionPartitionMaintenance maintenance(int monthsAhead) {
+        return new TransactionPartitionMaintenance(
+                dataSource, reconciliationService, monthsAhead, RETENTION_MONTHS, archiveDir, 60_000);
+    }
+
+    private TransactionPartitionMaintenance withReconciliation() {
+        return new TransactionPartitionMaintenance(
+                dataSource, reconciliation, 3, RETENTION_MONTHS, archiveDir, 60_000);
+    }
+
+    // Just this wallet: the next id in Postgres' bytewise order
+    private WalletIdRange thisWallet() {
+        return new WalletIdRange(walletId,
+                new UUID(walletId.getMostSignificantBits(), walletId.getLeastSignificantBits() + 1));
+    }
+
+    private String createPartition(YearMonth month) {
+        String name = partitionName(month);
+        if (!exists(name)) {
+            createdPartitions.add(name);
+        }
+        jdbcTemplate.queryForObject("SELECT create_transaction_partition(?)", Boolean.class,
+                Date.valueOf(month.atDay(1)));
+        return name;
+    }
+
+    private void insert(UUID txId, LocalDate day) {
+        jdbcTemplate.update("INSERT INTO transactions (id, wallet_id, amount, type, created_at) VALUES (?, ?, 100, 'CREDIT', ?)",
+                txId, walletId, Timestamp.valueOf(day.atTime(12, 0)));
+    }
+
+    private boolean exists(String name) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+    }
+
+    private String archivedCsv(String partition) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archiveDir.resolve(partition + ".csv.gz")))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("transactions_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
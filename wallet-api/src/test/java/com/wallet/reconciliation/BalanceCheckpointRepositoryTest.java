@@ -0,0 +1,111 @@
+package com.wallet.reconciliation;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.reconciliation.BalanceCheckpointRepository;
+import com.mvgore.walletapi.reconciliation.BalanceMismatch;
+import com.mvgore.walletapi.reconciliation.WalletIdRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = WalletApplication.class)
+class BalanceCheckpointRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDate.now().atTime(0, 10);
+
+    @Autowired
+    private BalanceCheckpointRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID walletId;
+    private WalletIdRange range;
+
+    @BeforeEach
+    void setUp() {
+        walletId = UUID.randomUUID();
+        // Just this wallet: the next id in Postgres' bytewise order
+        range = new WalletIdRange(walletId,
+                new UUID(walletId.getMostSignificantBits(), walletId.getLeastSignificantBits() + 1));
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 0, ?, 0)",
+                walletId, UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void checkpointThenDelta_matchesBalance() {
+        credit(500, T0);
+        assertThat(repository.checkpointRange(range, T0.plusMinutes(1))).isEqualTo(1);
+        credit(200, T0.plusMinutes(2));
+
+        assertThat(repository.findMismatches(range)).isEmpty();
+        assertThat(repository.balanceAt(walletId, T0.plusMinutes(1))).isEqualTo(Money.ofMinor(500));
+    }
+
+    @Test
+    void rowWrittenBehindTheCursor_isNotReported_andStaleCheckpointsAreDropped() {
+        credit(500, T0.plusMinutes(5));
+        repository.checkpointRange(range, T0.plusMinutes(6));
+
+        // e.g. a journal replay or an import, stamped before the checkpoint it lands behind
+        credit(300, T0);
+
+        assertThat(repository.findMismatches(range)).isEmpty();
+        assertThat(checkpointCount()).isZero();
+        assertThat(repository.balanceAt(walletId, T0.plusMinutes(6))).isEqualTo(Money.ofMinor(800));
+    }
+
+    @Test
+    void realMismatch_isReportedAgainstTheWholeLedger() {
+        credit(500, T0);
+        repository.checkpointRange(range, T0.plusMinutes(1));
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 1 WHERE id = ?", walletId);
+
+        assertThat(repository.findMismatches(range)).containsExactly(
+                new BalanceMismatch(walletId, Money.ofMinor(501), Money.ofMinor(500)));
+        assertThat(checkpointCount()).isEqualTo(1);
+    }
+
+    @Test
+    void prune_keepsTheNewestCheckpoints() {
+        for (int i = 0; i < 5; i++) {
+            credit(100, T0.plusMinutes(i));
+            repository.checkpointRange(range, T0.plusMinutes(i).plusSeconds(30));
+        }
+        assertThat(checkpointCount()).isEqualTo(5);
+
+        assertThat(repository.pruneRange(range, 2)).isEqualTo(3);
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT ledger_balance FROM balance_checkpoints WHERE wallet_id = ? ORDER BY covered_at",
+                Long.class, walletId)).containsExactly(400L, 500L);
+        assertThat(repository.findMismatches(range)).isEmpty();
+    }
+
+    private void credit(long minorUnits, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO transactions (id, wallet_id, amount, type, created_at) VALUES (?, ?, ?, 'CREDIT', ?)",
+                UUID.randomUUID(), walletId, minorUnits, Timestamp.valueOf(at));
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + ? WHERE id = ?", minorUnits, walletId);
+    }
+
+    private long checkpointCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM balance_checkpoints WHERE wallet_id = ?",
+                Long.class, walletId);
+    }
+}
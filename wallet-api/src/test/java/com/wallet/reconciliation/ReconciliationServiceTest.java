@@ -0,0 +1,73 @@
+package com.wallet.reconciliation;
+
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.reconciliation.BalanceCheckpointRepository;
+import com.mvgore.walletapi.reconciliation.BalanceMismatch;
+import com.mvgore.walletapi.reconciliation.ReconciliationReport;
+import com.mvgore.walletapi.reconciliation.ReconciliationService;
+import com.mvgore.walletapi.reconciliation.WalletIdRange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReconciliationServiceTest {
+
+    private BalanceCheckpointRepository repository;
+    private ReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(BalanceCheckpointRepository.class);
+        service = new ReconciliationService(repository, 4, Duration.ofHours(1), Duration.ofMinutes(5), 48,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void ranges_coverTheWholeIdSpace_withoutGaps() {
+        List<WalletIdRange> ranges = WalletIdRange.byLeadingByte();
+
+        assertThat(ranges).hasSize(256);
+        assertThat(ranges.get(0).from()).isEqualTo(new UUID(0, 0));
+        assertThat(ranges.get(255).to()).isNull();
+        for (int i = 1; i < ranges.size(); i++) {
+            assertThat(ranges.get(i).from()).isEqualTo(ranges.get(i - 1).to());
+        }
+    }
+
+    @Test
+    void reconcile_scansEveryRange_andMergesMismatches() {
+        BalanceMismatch mismatch = new BalanceMismatch(UUID.randomUUID(), Money.parse("10"), Money.parse("1"));
+        when(repository.findMismatches(any())).thenReturn(List.of());
+        when(repository.findMismatches(WalletIdRange.byLeadingByte().get(7))).thenReturn(List.of(mismatch));
+
+        ReconciliationReport report = service.reconcile();
+
+        verify(repository, times(256)).findMismatches(any());
+        assertThat(report.mismatchCount()).isEqualTo(1);
+        assertThat(report.mismatches()).containsExactly(mismatch);
+        assertThat(service.lastReport()).isSameAs(report);
+    }
+
+    @Test
+    void checkpoint_sumsRowsWrittenPerRange() {
+        when(repository.checkpointRange(any(), any())).thenReturn(2);
+
+        assertThat(service.checkpoint()).isEqualTo(512);
+        verify(repository, times(256)).pruneRange(any(), eq(48));
+    }
+}
@@ -0,0 +1,55 @@
+package com.wallet.security;
+
+import com.mvgore.walletapi.security.JwtUtil;
+import com.mvgore.walletapi.security.WalletPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(100, new SimpleMeterRegistry());
+
+    private String token(String username) {
+        return jwtUtil.generateToken(username, UUID.randomUUID(), "USER", null);
+    }
+
+    @Test
+    void validToken_returnsClaims_andCachesThem() {
+        String token = token("alice");
+
+        assertThat(jwtUtil.parseValidClaims(token).getSubject()).isEqualTo("alice");
+        assertThat(jwtUtil.parseValidClaims(token)).isSameAs(jwtUtil.parseValidClaims(token));
+        assertThat(jwtUtil.extractUsername(token)).isEqualTo("alice");
+    }
+
+    @Test
+    void principal_carriesIdentityClaims() {
+        UUID userId = UUID.randomUUID();
+        UUID walletId = UUID.randomUUID();
+        String token = jwtUtil.generateToken("alice", userId, "USER", walletId);
+
+        WalletPrincipal principal = jwtUtil.toPrincipal(jwtUtil.parseValidClaims(token));
+
+        assertThat(principal).isEqualTo(new WalletPrincipal(userId, "alice", "USER", walletId));
+    }
+
+    @Test
+    void tamperedToken_isRejected() {
+        String token = token("alice");
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtUtil.parseValidClaims(tampered)).isNull();
+        assertThat(jwtUtil.validateToken(tampered)).isFalse();
+    }
+
+    @Test
+    void garbage_isRejected() {
+        assertThat(jwtUtil.validateToken("not-a-jwt")).isFalse();
+        assertThat(jwtUtil.validateToken("")).isFalse();
+    }
+}
@@ -0,0 +1,51 @@
+package com.wallet.security;
+
+import com.mvgore.walletapi.security.RateLimitFilter;
+import com.mvgore.walletapi.security.RequestRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTest {
+
+    private final RequestRateLimiter limiter = mock(RequestRateLimiter.class);
+    private final HandlerExceptionResolver resolver = mock(HandlerExceptionResolver.class);
+    private final RateLimitFilter filter = new RateLimitFilter(limiter, resolver);
+
+    @Test
+    void rejectionNoResolverTakes_isStillAnswered429() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/wallet/credit");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        when(limiter.check(any())).thenReturn(Duration.ofMillis(1500));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(response.getContentAsString()).contains("Too many requests");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void allowedRequest_continuesDownTheChain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/wallet/balance");
+        MockFilterChain chain = new MockFilterChain();
+        when(limiter.check(any())).thenReturn(null);
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+}
@@ -0,0 +1,75 @@
+package com.wallet.security;
+
+import com.mvgore.walletapi.security.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void burstIsAllowed_thenCallersWaitForRefill() {
+        TokenBucketRateLimiter<String> limiter =
+                new TokenBucketRateLimiter<>(1, 3, Duration.ofMinutes(1), 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+
+        long wait = limiter.tryAcquire("a");
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        TokenBucketRateLimiter<String> limiter =
+                new TokenBucketRateLimiter<>(1, 1, Duration.ofMinutes(1), 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void tokensRefillOverTime() {
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        TokenBucketRateLimiter<String> limiter =
+                new TokenBucketRateLimiter<>(200, 1, Duration.ofMinutes(1), 100, now::get);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        long wait = limiter.tryAcquire("a");
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+
+        now.addAndGet(wait - 1);
+        assertThat(limiter.tryAcquire("a")).isEqualTo(1);
+        now.addAndGet(1);
+        assertThat(limiter.tryAcquire("a")).isZero();
+    }
+
+    @Test
+    void concurrentCallers_neverExceedTheBurst() throws InterruptedException {
+        TokenBucketRateLimiter<String> limiter =
+                new TokenBucketRateLimiter<>(0.001, 50, Duration.ofMinutes(1), 100);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                if (limiter.tryAcquire("hot") == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted).hasValue(50);
+    }
+}
@@ -0,0 +1,64 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.service.AdaptiveWalletWriteStrategy;
+import com.mvgore.walletapi.service.ContentionTracker;
+import com.mvgore.walletapi.service.WalletWriteStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class AdaptiveWalletWriteStrategyTest {
+
+    private WalletWriteStrategy optimistic;
+    private WalletWriteStrategy pessimistic;
+    private ContentionTracker tracker;
+    private AdaptiveWalletWriteStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        optimistic = mock(WalletWriteStrategy.class);
+        pessimistic = mock(WalletWriteStrategy.class);
+        tracker = new ContentionTracker(2, Duration.ofMinutes(1), Duration.ofMinutes(1), 100);
+        strategy = new AdaptiveWalletWriteStrategy(optimistic, pessimistic, tracker);
+    }
+
+    @Test
+    void coldWallet_usesOptimistic() {
+        UUID userId = UUID.randomUUID();
+        tracker.recordConflict(userId);
+
+        strategy.credit(userId, Money.parse("10"));
+
+        assertThat(tracker.isHot(userId)).isFalse();
+        verify(optimistic).credit(userId, Money.parse("10"));
+        verifyNoInteractions(pessimistic);
+    }
+
+    @Test
+    void hotWallet_switchesToPessimistic() {
+        UUID hot = UUID.randomUUID();
+        UUID cold = UUID.randomUUID();
+        tracker.recordConflict(hot);
+        tracker.recordConflict(hot);
+
+        strategy.debit(hot, Money.parse("1"));
+        strategy.debit(cold, Money.parse("1"));
+
+        verify(pessimistic).debit(hot, Money.parse("1"));
+        verify(optimistic).debit(cold, Money.parse("1"));
+    }
+
+    @Test
+    void abort_marksWalletHotImmediately() {
+        UUID userId = UUID.randomUUID();
+        tracker.recordAbort(userId);
+
+        assertThat(tracker.isHot(userId)).isTrue();
+    }
+}
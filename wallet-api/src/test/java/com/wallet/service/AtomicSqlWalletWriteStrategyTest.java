@@ -0,0 +1,151 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.service.AtomicSqlWalletWriteStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = WalletApplication.class)
+class AtomicSqlWalletWriteStrategyTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AtomicSqlWalletWriteStrategy strategy;
+    private UUID walletId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new AtomicSqlWalletWriteStrategy(new NamedParameterJdbcTemplate(jdbcTemplate));
+        walletId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 1000, ?, 0)",
+                walletId, userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void creditAndDebit_updateTheBalanceAndWriteOneLedgerRowEach() {
+        Wallet credited = strategy.credit(userId, Money.parse("2.50"));
+        Wallet debited = strategy.debit(userId, Money.parse("0.75"));
+
+        assertThat(credited.getId()).isEqualTo(walletId);
+        assertThat(credited.getBalance()).isEqualTo(Money.parse("12.50"));
+        assertThat(credited.getVersion()).isEqualTo(1);
+        assertThat(debited.getBalance()).isEqualTo(Money.parse("11.75"));
+        assertThat(debited.getVersion()).isEqualTo(2);
+        assertThat(balance()).isEqualTo(1175);
+        assertThat(ledger()).containsExactlyInAnyOrder("CREDIT:250", "DEBIT:75");
+    }
+
+    @Test
+    void missingWallet_isNotFound_forCreditAndDebit() {
+        UUID stranger = UUID.randomUUID();
+
+        assertThrows(WalletNotFoundException.class, () -> strategy.credit(stranger, Money.parse("1.00")));
+        assertThrows(WalletNotFoundException.class, () -> strategy.debit(stranger, Money.parse("1.00")));
+    }
+
+    @Test
+    void debitAboveTheBalance_isInsufficientFunds_andChangesNothing() {
+        assertThrows(InsufficientFundsException.class, () -> strategy.debit(userId, Money.parse("10.01")));
+
+        assertThat(balance()).isEqualTo(1000);
+        assertThat(version()).isZero();
+        assertThat(ledger()).isEmpty();
+    }
+
+    @Test
+    void debitOfTheWholeBalance_isApplied() {
+        assertThat(strategy.debit(userId, Money.parse("10.00")).getBalance()).isEqualTo(Money.ZERO);
+        assertThat(balance()).isZero();
+    }
+
+    @Test
+    void creditPastTheBigintRange_isAnArithmeticOverflow_andChangesNothing() {
+        jdbcTemplate.update("UPDATE wallets SET balance = ? WHERE id = ?", Long.MAX_VALUE - 10, walletId);
+
+        assertThrows(ArithmeticException.class, () -> strategy.credit(userId, Money.parse("1.00")));
+
+        assertThat(balance()).isEqualTo(Long.MAX_VALUE - 10);
+        assertThat(ledger()).isEmpty();
+    }
+
+    @Test
+    void concurrentDebits_neverOverdraw() throws Exception {
+        int attempts = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Wallet>> debits = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                debits.add(executor.submit(() -> {
+                    start.await();
+                    return strategy.debit(userId, Money.parse("1.00"));
+                }));
+            }
+            start.countDown();
+
+            int applied = 0;
+            int rejected = 0;
+            for (Future<Wallet> debit : debits) {
+                try {
+                    debit.get(30, TimeUnit.SECONDS);
+                    applied++;
+                } catch (ExecutionException e) {
+                    // A debit losing the race must read as insufficient funds, never as a missing wallet
+                    assertThat(e.getCause()).isInstanceOf(InsufficientFundsException.class);
+                    rejected++;
+                }
+            }
+            assertThat(applied).isEqualTo(10);
+            assertThat(rejected).isEqualTo(attempts - 10);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(balance()).isZero();
+        assertThat(version()).isEqualTo(10);
+        assertThat(ledger()).hasSize(10);
+    }
+
+    private long balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", Long.class, walletId);
+    }
+
+    private long version() {
+        return jdbcTemplate.queryForObject("SELECT version FROM wallets WHERE id = ?", Long.class, walletId);
+    }
+
+    private List<String> ledger() {
+        return jdbcTemplate.queryForList("SELECT type || ':' || amount FROM transactions WHERE wallet_id = ?",
+                String.class, walletId);
+    }
+}
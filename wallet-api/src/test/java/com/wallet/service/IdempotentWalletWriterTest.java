@@ -0,0 +1,196 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.cache.IdempotencyCache;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.TransactionRepository;
+import com.mvgore.walletapi.repository.WalletRepository;
+import com.mvgore.walletapi.service.AtomicSqlWalletWriteStrategy;
+import com.mvgore.walletapi.service.ContentionTracker;
+import com.mvgore.walletapi.service.IdempotentWalletWriter;
+import com.mvgore.walletapi.service.OptimisticWalletWriteStrategy;
+import com.mvgore.walletapi.service.PessimisticWalletWriteStrategy;
+import com.mvgore.walletapi.service.WalletWriteStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = WalletApplication.class)
+class IdempotentWalletWriterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private IdempotentWalletWriter writer;
+    private UUID walletId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        writer = new IdempotentWalletWriter(namedJdbcTemplate, transactionTemplate, IdempotencyCache.disabled(),
+                Duration.ofHours(24), Duration.ZERO);
+        walletId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 1000, ?, 0)",
+                walletId, userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void pessimistic_appliesOnce_andReplaysTheStoredResult() {
+        appliesOnce_andReplaysTheStoredResult(new PessimisticWalletWriteStrategy(
+                walletRepository, transactionRepository, transactionTemplate, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void optimistic_appliesOnce_andReplaysTheStoredResult() {
+        appliesOnce_andReplaysTheStoredResult(optimistic(5));
+    }
+
+    @Test
+    void atomic_appliesOnce_andReplaysTheStoredResult() {
+        appliesOnce_andReplaysTheStoredResult(new AtomicSqlWalletWriteStrategy(namedJdbcTemplate));
+    }
+
+    @Test
+    void failedWrite_leavesNoKeyBehind() {
+        WalletWriteStrategy strategy = new AtomicSqlWalletWriteStrategy(namedJdbcTemplate);
+
+        assertThrows(InsufficientFundsException.class,
+                () -> writer.apply(userId, "k-1", TransactionType.DEBIT, Money.parse("10.01"), strategy));
+
+        assertThat(keyCount()).isZero();
+        assertThat(writer.apply(userId, "k-1", TransactionType.DEBIT, Money.parse("10.00"), strategy).wallet())
+                .isNotNull();
+    }
+
+    @Test
+    void expiredKey_isClaimedAgain() {
+        WalletWriteStrategy strategy = new AtomicSqlWalletWriteStrategy(namedJdbcTemplate);
+        writer.apply(userId, "k-1", TransactionType.CREDIT, Money.parse("1.00"), strategy);
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = now() - interval '1 second' WHERE user_id = ?",
+                userId);
+
+        IdempotentWalletWriter.Outcome again =
+                writer.apply(userId, "k-1", TransactionType.DEBIT, Money.parse("2.00"), strategy);
+
+        assertThat(again.wallet()).isNotNull();
+        assertThat(balance()).isEqualTo(900);
+        assertThat(jdbcTemplate.queryForObject("SELECT type FROM idempotency_keys WHERE user_id = ?",
+                String.class, userId)).isEqualTo("DEBIT");
+    }
+
+    @Test
+    void purgeExpired_deletesOnlyExpiredKeys() {
+        WalletWriteStrategy strategy = new AtomicSqlWalletWriteStrategy(namedJdbcTemplate);
+        writer.apply(userId, "old", TransactionType.CREDIT, Money.parse("1.00"), strategy);
+        writer.apply(userId, "new", TransactionType.CREDIT, Money.parse("1.00"), strategy);
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = now() - interval '1 minute'"
+                + " WHERE user_id = ? AND idempotency_key = 'old'", userId);
+
+        assertThat(writer.purgeExpired()).isGreaterThanOrEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForList("SELECT idempotency_key FROM idempotency_keys WHERE user_id = ?",
+                String.class, userId)).containsExactly("new");
+    }
+
+    @Test
+    void optimisticConflicts_retryTheKeyClaimWithTheWrite() throws Exception {
+        WalletWriteStrategy strategy = optimistic(100);
+        int writes = 40;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < writes; i++) {
+                String key = "k-" + i;
+                futures.add(executor.submit(
+                        () -> writer.apply(userId, key, TransactionType.CREDIT, Money.parse("0.01"), strategy)));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(balance()).isEqualTo(1000 + writes);
+        assertThat(ledgerCount()).isEqualTo(writes);
+        assertThat(keyCount()).isEqualTo(writes);
+    }
+
+    private void appliesOnce_andReplaysTheStoredResult(WalletWriteStrategy strategy) {
+        IdempotentWalletWriter.Outcome first =
+                writer.apply(userId, "k-1", TransactionType.DEBIT, Money.parse("2.50"), strategy);
+        IdempotentWalletWriter.Outcome replay =
+                writer.apply(userId, "k-1", TransactionType.DEBIT, Money.parse("2.50"), strategy);
+
+        assertThat(first.wallet()).isNotNull();
+        assertThat(first.completed()).isEqualTo(new IdempotencyCache.Completed(TransactionType.DEBIT,
+                Money.parse("2.50"), walletId, Money.parse("10.00"), Money.parse("7.50")));
+        assertThat(replay.wallet()).isNull();
+        assertThat(replay.completed()).isEqualTo(first.completed());
+        assertThat(balance()).isEqualTo(750);
+        assertThat(ledgerCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT expires_at - created_at = interval '24 hours' FROM idempotency_keys WHERE user_id = ?",
+                Boolean.class, userId)).isTrue();
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.apply(userId, "k-1", TransactionType.CREDIT, Money.parse("2.50"), strategy));
+    }
+
+    private OptimisticWalletWriteStrategy optimistic(int maxAttempts) {
+        return new OptimisticWalletWriteStrategy(walletRepository, transactionRepository, transactionTemplate,
+                new ContentionTracker(3, Duration.ofSeconds(1), Duration.ofSeconds(30), 1000),
+                maxAttempts, Duration.ofMillis(1), Duration.ofMillis(20));
+    }
+
+    private long balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", Long.class, walletId);
+    }
+
+    private long ledgerCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE wallet_id = ?", Long.class, walletId);
+    }
+
+    private long keyCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM idempotency_keys WHERE user_id = ?", Long.class, userId);
+    }
+}
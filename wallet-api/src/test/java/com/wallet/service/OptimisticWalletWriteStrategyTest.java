@@ -0,0 +1,133 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.TransactionRepository;
+import com.mvgore.walletapi.repository.WalletRepository;
+import com.mvgore.walletapi.service.ContentionTracker;
+import com.mvgore.walletapi.service.OptimisticWalletWriteStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OptimisticWalletWriteStrategyTest {
+
+    private WalletRepository walletRepository;
+    private TransactionRepository transactionRepository;
+    private ContentionTracker tracker;
+    private UUID userId;
+    private AtomicInteger conflictsLeft;
+
+    @BeforeEach
+    void setUp() {
+        walletRepository = mock(WalletRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        tracker = new ContentionTracker(3, Duration.ofMinutes(1), Duration.ofMinutes(1), 100);
+        userId = UUID.randomUUID();
+        conflictsLeft = new AtomicInteger();
+
+        // Every attempt reads the committed row afresh, as a new transaction would
+        when(walletRepository.findByUserId(userId))
+                .thenAnswer(invocation -> Optional.of(new Wallet(UUID.randomUUID(), Money.parse("10.00"), userId)));
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> {
+            if (conflictsLeft.getAndDecrement() > 0) {
+                throw new OptimisticLockingFailureException("version changed");
+            }
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    void conflict_isRetried_untilTheWriteGoesThrough() {
+        conflictsLeft.set(2);
+
+        Wallet wallet = strategy(5, Duration.ofMillis(1), Duration.ofMillis(1)).credit(userId, Money.parse("2.50"));
+
+        assertThat(wallet.getBalance()).isEqualTo(Money.parse("12.50"));
+        verify(walletRepository, times(3)).save(any(Wallet.class));
+        verify(transactionRepository, times(1)).save(any());
+        assertThat(tracker.isHot(userId)).isFalse();
+    }
+
+    @Test
+    void conflictsPastTheThreshold_markTheWalletHot() {
+        conflictsLeft.set(3);
+
+        strategy(5, Duration.ofMillis(1), Duration.ofMillis(1)).debit(userId, Money.parse("1.00"));
+
+        assertThat(tracker.isHot(userId)).isTrue();
+    }
+
+    @Test
+    void exhaustedRetries_giveUpWithWriteConflict_andMarkTheWalletHot() {
+        conflictsLeft.set(Integer.MAX_VALUE);
+        ContentionTracker lenient = new ContentionTracker(100, Duration.ofMinutes(1), Duration.ofMinutes(1), 100);
+        OptimisticWalletWriteStrategy strategy = new OptimisticWalletWriteStrategy(walletRepository,
+                transactionRepository, TransactionOperations.withoutTransaction(), lenient,
+                4, Duration.ofMillis(1), Duration.ofMillis(1));
+
+        WalletException e = assertThrows(WalletException.class, () -> strategy.credit(userId, Money.parse("1.00")));
+
+        assertThat(e.getCode()).isEqualTo("WRITE_CONFLICT");
+        verify(walletRepository, times(4)).save(any(Wallet.class));
+        verifyNoInteractions(transactionRepository);
+        assertThat(lenient.isHot(userId)).isTrue();
+    }
+
+    @Test
+    void backoff_isCappedByMaxBackoff() {
+        conflictsLeft.set(Integer.MAX_VALUE);
+        // Uncapped, the base of one second doubling per attempt would sleep for seconds
+        OptimisticWalletWriteStrategy strategy = strategy(5, Duration.ofSeconds(1), Duration.ofMillis(20));
+
+        long start = System.nanoTime();
+        assertThrows(WalletException.class, () -> strategy.credit(userId, Money.parse("1.00")));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void insufficientFunds_isNotRetried() {
+        OptimisticWalletWriteStrategy strategy = strategy(5, Duration.ofMillis(1), Duration.ofMillis(1));
+
+        assertThrows(InsufficientFundsException.class, () -> strategy.debit(userId, Money.parse("10.01")));
+
+        verify(walletRepository, times(1)).findByUserId(userId);
+        verify(walletRepository, never()).save(any(Wallet.class));
+        assertThat(tracker.isHot(userId)).isFalse();
+    }
+
+    @Test
+    void inTransaction_rerunsTheWholeClosure_onAConflictAtCommit() {
+        AtomicInteger runs = new AtomicInteger();
+        OptimisticWalletWriteStrategy strategy = strategy(5, Duration.ofMillis(1), Duration.ofMillis(1));
+
+        String result = strategy.inTransaction(userId, TransactionOperations.withoutTransaction(), () -> {
+            if (runs.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("version changed at commit");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(runs).hasValue(3);
+    }
+
+    private OptimisticWalletWriteStrategy strategy(int maxAttempts, Duration baseBackoff, Duration maxBackoff) {
+        return new OptimisticWalletWriteStrategy(walletRepository, transactionRepository,
+                TransactionOperations.withoutTransaction(), tracker, maxAttempts, baseBackoff, maxBackoff);
+    }
+}
@@ -0,0 +1,117 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.TransactionRepository;
+import com.mvgore.walletapi.repository.WalletRepository;
+import com.mvgore.walletapi.service.PessimisticWalletWriteStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = WalletApplication.class)
+class PessimisticWalletWriteStrategyTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private SimpleMeterRegistry registry;
+    private PessimisticWalletWriteStrategy strategy;
+    private UUID walletId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        strategy = new PessimisticWalletWriteStrategy(walletRepository, transactionRepository, transactionTemplate, registry);
+        walletId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 1000, ?, 0)",
+                walletId, userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void creditAndDebit_commitTheBalanceAndTheLedger() {
+        strategy.credit(userId, Money.parse("2.50"));
+        strategy.debit(userId, Money.parse("0.75"));
+
+        assertThat(balance()).isEqualTo(1175);
+        assertThat(ledger()).containsExactlyInAnyOrder("CREDIT:250", "DEBIT:75");
+        assertThat(registry.get("wallet.lock.wait").tag("strategy", "pessimistic").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void missingWallet_isNotFound() {
+        assertThrows(WalletNotFoundException.class, () -> strategy.credit(UUID.randomUUID(), Money.parse("1.00")));
+    }
+
+    @Test
+    void insufficientFunds_rollsBack() {
+        assertThrows(InsufficientFundsException.class, () -> strategy.debit(userId, Money.parse("10.01")));
+
+        assertThat(balance()).isEqualTo(1000);
+        assertThat(ledger()).isEmpty();
+    }
+
+    @Test
+    void concurrentWriters_queueOnTheRowLock_andNoUpdateIsLost() throws Exception {
+        int perDirection = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writes = new ArrayList<>();
+        try {
+            for (int i = 0; i < perDirection; i++) {
+                writes.add(executor.submit(() -> strategy.credit(userId, Money.parse("1.00"))));
+                writes.add(executor.submit(() -> strategy.debit(userId, Money.parse("0.50"))));
+            }
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(balance()).isEqualTo(1000 + perDirection * 50);
+        assertThat(ledger()).hasSize(2 * perDirection);
+    }
+
+    private long balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", Long.class, walletId);
+    }
+
+    private List<String> ledger() {
+        return jdbcTemplate.queryForList("SELECT type || ':' || amount FROM transactions WHERE wallet_id = ?",
+                String.class, walletId);
+    }
+}
@@ -0,0 +1,132 @@
+package com.wallet.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.service.DbPermitGate;
+import com.mvgore.walletapi.service.StatementExportService;
+import com.mvgore.walletapi.service.StatementExportService.Format;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = WalletApplication.class)
+class StatementExportServiceTest {
+
+    // Inside the monthly partitions that exist around now
+    private static final LocalDateTime T0 = LocalDate.now().atTime(9, 30);
+    private static final DateTimeFormatter CSV_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private StatementExportService service;
+    private UUID walletId;
+    private UUID firstId;
+
+    @BeforeEach
+    void setUp() {
+        service = new StatementExportService(dataSource, DbPermitGate.unbounded());
+        walletId = UUID.randomUUID();
+        firstId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 1000, ?, 0)",
+                walletId, UUID.randomUUID());
+        insert(firstId, 1230, "CREDIT", T0);
+        insert(UUID.randomUUID(), 5, "DEBIT", T0.plusDays(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void copySql_interpolatesTypedLiteralsOnly() {
+        String sql = StatementExportService.copySql(walletId, Format.CSV, T0, T0.plusDays(1));
+
+        assertThat(sql)
+                .startsWith("COPY (SELECT id, type, (amount::numeric / 100)::numeric(19,2) AS amount, created_at")
+                .contains("wallet_id = '" + walletId + "'::uuid")
+                .contains("created_at >= '" + T0 + "'::timestamp")
+                .contains("created_at < '" + T0.plusDays(1) + "'::timestamp")
+                .endsWith(" ORDER BY created_at, id) TO STDOUT WITH (FORMAT csv, HEADER)");
+    }
+
+    @Test
+    void copySql_withoutBounds_hasNoTimeFilter() {
+        String sql = StatementExportService.copySql(walletId, Format.NDJSON, null, null);
+
+        assertThat(sql)
+                .startsWith("COPY (SELECT json_build_object(")
+                .doesNotContain("created_at >=")
+                .doesNotContain("created_at <")
+                .endsWith(" ORDER BY created_at, id) t) TO STDOUT");
+    }
+
+    @Test
+    void csvExport_isOrderedAndFormatsMinorUnits() {
+        List<String> lines = export(Format.CSV, null, null);
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo("id,type,amount,created_at");
+        assertThat(lines.get(1)).isEqualTo(firstId + ",CREDIT,12.30," + CSV_TIME.format(T0));
+        assertThat(lines.get(2)).endsWith(",DEBIT,0.05," + CSV_TIME.format(T0.plusDays(1)));
+    }
+
+    @Test
+    void ndjsonExport_linesAreValidJson_andBoundsAreHalfOpen() throws Exception {
+        List<String> lines = export(Format.NDJSON, T0, T0.plusDays(1));
+
+        assertThat(lines).hasSize(1);
+        // Text-format COPY would escape backslashes; the JSON built for these columns has none
+        assertThat(lines.get(0)).doesNotContain("\\");
+        JsonNode row = new ObjectMapper().readTree(lines.get(0));
+        assertThat(row.get("id").asText()).isEqualTo(firstId.toString());
+        assertThat(row.get("type").asText()).isEqualTo("CREDIT");
+        assertThat(row.get("amount").asText()).isEqualTo("12.30");
+        assertThat(row.get("createdAt").asText()).isEqualTo(T0.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+    }
+
+    @Test
+    void ndjsonExport_matchesTheApiTransactionFormat() throws Exception {
+        List<String> lines = export(Format.NDJSON, null, null);
+
+        JsonNode credit = new ObjectMapper().readTree(lines.get(0));
+        JsonNode debit = new ObjectMapper().readTree(lines.get(1));
+        assertThat(credit.fieldNames()).toIterable().containsExactly("id", "type", "amount", "createdAt");
+        // Amounts are decimal strings with two places, as Money serializes them
+        assertThat(credit.get("amount").isTextual()).isTrue();
+        assertThat(credit.get("amount").asText()).isEqualTo("12.30");
+        assertThat(debit.get("amount").asText()).isEqualTo("0.05");
+        assertThat(credit.get("createdAt").asText()).isEqualTo(T0.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+    }
+
+    private List<String> export(Format format, LocalDateTime from, LocalDateTime to) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(walletId, format, from, to, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private void insert(UUID id, long amount, String type, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO transactions (id, wallet_id, amount, type, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, walletId, amount, type, Timestamp.valueOf(createdAt));
+    }
+}
@@ -0,0 +1,68 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.dto.TransactionPageResponse;
+import com.mvgore.walletapi.dto.TransactionView;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.TransactionHistoryRepository;
+import com.mvgore.walletapi.service.TransactionHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionHistoryServiceTest {
+
+    private TransactionHistoryRepository repository;
+    private TransactionHistoryService service;
+    private final UUID walletId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TransactionHistoryRepository.class);
+        service = new TransactionHistoryService(repository);
+    }
+
+    private static TransactionView row(int minute) {
+        return new TransactionView(UUID.randomUUID(), "CREDIT", Money.parse("1"),
+                LocalDateTime.of(2026, 1, 1, 12, minute));
+    }
+
+    @Test
+    void fullPage_returnsCursorOfLastRow_whichSeeksThePageAfterIt() {
+        TransactionView newest = row(3);
+        TransactionView last = row(2);
+        when(repository.findPage(eq(walletId), any(), any(), any(), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(newest, last, row(1)));
+
+        TransactionPageResponse page = service.getPage(walletId, null, null, null, null, 2);
+
+        assertThat(page.getItems()).containsExactly(newest, last);
+        assertThat(page.getNextCursor()).isNotNull();
+
+        service.getPage(walletId, null, null, null, page.getNextCursor(), 2);
+        verify(repository).findPage(walletId, null, null, null, last.getCreatedAt(), last.getId(), 3);
+    }
+
+    @Test
+    void lastPage_hasNoCursor() {
+        when(repository.findPage(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(row(1)));
+
+        assertThat(service.getPage(walletId, null, null, null, null, 2).getNextCursor()).isNull();
+    }
+
+    @Test
+    void invalidCursorOrLimit_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getPage(walletId, null, null, null, "not-a-cursor", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getPage(walletId, null, null, null, null, 0));
+    }
+}
@@ -0,0 +1,141 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.dto.BatchItemRequest;
+import com.mvgore.walletapi.dto.BatchItemResult;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.service.WalletBatchWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = WalletApplication.class)
+class WalletBatchWriterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private WalletBatchWriter writer;
+    private UUID walletId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        writer = new WalletBatchWriter(jdbcTemplate, transactionTemplate, 500);
+        walletId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, 1000, ?, 0)",
+                walletId, userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+    }
+
+    @Test
+    void mixedChunk_appliesValidItemsInOrder_andRejectsTheRest() {
+        List<BatchItemRequest> items = Arrays.asList(
+                item(TransactionType.CREDIT, "5.00"),
+                item(TransactionType.DEBIT, "20.00"),
+                item(TransactionType.DEBIT, "15.00"),
+                new BatchItemRequest(null, Money.parse("1.00")),
+                item(TransactionType.CREDIT, "0"),
+                item(TransactionType.CREDIT, "1.00"));
+
+        WalletBatchWriter.ChunkResult result = writer.apply(userId, items, 10);
+
+        assertThat(result.results()).extracting(BatchItemResult::getIndex).containsExactly(10, 11, 12, 13, 14, 15);
+        assertThat(result.results()).extracting(BatchItemResult::getError)
+                .containsExactly(null, "INSUFFICIENT_FUNDS", null, "INVALID_TYPE", "INVALID_AMOUNT", null);
+        assertThat(result.results()).extracting(BatchItemResult::getBalance)
+                .containsExactly(Money.parse("15.00"), null, Money.ZERO, null, null, Money.parse("1.00"));
+        assertThat(result.wallet().getBalance()).isEqualTo(Money.parse("1.00"));
+
+        assertThat(jdbcTemplate.queryForMap("SELECT balance, version FROM wallets WHERE id = ?", walletId))
+                .containsEntry("balance", 100L)
+                .containsEntry("version", 1L);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT type || ':' || amount FROM transactions WHERE wallet_id = ? ORDER BY type, amount",
+                String.class, walletId))
+                .containsExactly("CREDIT:100", "CREDIT:500", "DEBIT:1500");
+    }
+
+    @Test
+    void largeChunk_isWrittenAsOneBatch() {
+        List<BatchItemRequest> items = new ArrayList<>(Collections.nCopies(500, item(TransactionType.CREDIT, "0.01")));
+
+        writer.apply(userId, items, 0);
+
+        assertThat(balance()).isEqualTo(1500);
+        assertThat(transactionCount()).isEqualTo(500);
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(amount) FROM transactions WHERE wallet_id = ?",
+                Long.class, walletId)).isEqualTo(500);
+    }
+
+    @Test
+    void chunkWithNothingApplied_writesNothing() {
+        WalletBatchWriter.ChunkResult result =
+                writer.apply(userId, List.of(item(TransactionType.DEBIT, "10.01")), 0);
+
+        assertThat(result.results()).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemResult.Status.REJECTED);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM wallets WHERE id = ?", Long.class, walletId))
+                .isZero();
+        assertThat(transactionCount()).isZero();
+    }
+
+    @Test
+    void failedLedgerInsert_rollsBackTheBalance() {
+        JdbcTemplate failingInserts = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                throw new DataIntegrityViolationException("simulated ledger insert failure");
+            }
+        };
+        WalletBatchWriter failing = new WalletBatchWriter(failingInserts, transactionTemplate, 500);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> failing.apply(userId, List.of(item(TransactionType.CREDIT, "1.00")), 0));
+
+        assertThat(balance()).isEqualTo(1000);
+        assertThat(transactionCount()).isZero();
+    }
+
+    @Test
+    void missingWallet_isNotFound() {
+        assertThrows(WalletNotFoundException.class,
+                () -> writer.apply(UUID.randomUUID(), List.of(item(TransactionType.CREDIT, "1.00")), 0));
+    }
+
+    private static BatchItemRequest item(TransactionType type, String amount) {
+        return new BatchItemRequest(type, Money.parse(amount));
+    }
+
+    private long balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", Long.class, walletId);
+    }
+
+    private long transactionCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE wallet_id = ?", Long.class, walletId);
+    }
+}
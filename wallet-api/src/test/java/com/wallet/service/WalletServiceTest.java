@@ -0,0 +1,234 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.cache.BalanceCache;
+import com.mvgore.walletapi.cache.IdempotencyCache;
+import com.mvgore.walletapi.dto.BatchItemRequest;
+import com.mvgore.walletapi.dto.BatchItemResult;
+import com.mvgore.walletapi.dto.WalletOperationResponse;
+import com.mvgore.walletapi.entity.TransactionType;
+import com.mvgore.walletapi.entity.Wallet;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.repository.TransactionRepository;
+import com.mvgore.walletapi.repository.WalletRepository;
+import com.mvgore.walletapi.service.ContentionTracker;
+import com.mvgore.walletapi.service.DbPermitGate;
+import com.mvgore.walletapi.service.IdempotentWalletWriter;
+import com.mvgore.walletapi.service.OptimisticWalletWriteStrategy;
+import com.mvgore.walletapi.service.WalletService;
+import com.mvgore.walletapi.service.WalletWriteStrategy;
+import com.mvgore.walletapi.stream.BalanceEventBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class WalletServiceTest {
+
+    private WalletRepository walletRepository;
+    private TransactionRepository transactionRepository;
+    private WalletService walletService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        walletRepository = mock(WalletRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        WalletWriteStrategy strategy = new OptimisticWalletWriteStrategy(walletRepository, transactionRepository,
+                TransactionOperations.withoutTransaction(),
+                new ContentionTracker(3, Duration.ofSeconds(1), Duration.ofSeconds(30), 10_000),
+                5, Duration.ofMillis(5), Duration.ofMillis(100));
+        walletService = new WalletService(walletRepository, strategy, BalanceCache.disabled(),
+                BalanceEventBus.disabled(), TransactionOperations.withoutTransaction(), DbPermitGate.unbounded(), null, null,
+                null, new SimpleMeterRegistry());
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void createWalletForUser_success() {
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        Wallet walletToSave = new Wallet(Money.ZERO, userId);
+        when(walletRepository.save(Mockito.any(Wallet.class))).thenReturn(walletToSave);
+
+        Wallet created = walletService.createWalletForUser(userId);
+        assertThat(created.getBalance()).isEqualTo(Money.ZERO);
+        assertThat(created.getUserId()).isEqualTo(userId);
+    }
+
+    @Test
+    void createWalletForUser_alreadyExists() {
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.of(new Wallet(Money.ZERO, userId)));
+
+        assertThrows(IllegalStateException.class,
+                () -> walletService.createWalletForUser(userId));
+    }
+
+    @Test
+    void creditWallet_success() {
+        Wallet wallet = new Wallet(Money.parse("100"), userId);
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.of(wallet));
+        when(walletRepository.save(wallet)).thenReturn(wallet);
+
+        Wallet updated = walletService.credit(userId, Money.parse("50"));
+        assertThat(updated.getBalance()).isEqualTo(Money.parse("150"));
+        verify(transactionRepository, times(1)).save(Mockito.any());
+    }
+
+    @Test
+    void debitWallet_success() {
+        Wallet wallet = new Wallet(Money.parse("200"), userId);
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.of(wallet));
+        when(walletRepository.save(wallet)).thenReturn(wallet);
+
+        Wallet updated = walletService.debit(userId, Money.parse("150"));
+        assertThat(updated.getBalance()).isEqualTo(Money.parse("50"));
+        verify(transactionRepository, times(1)).save(Mockito.any());
+    }
+
+    @Test
+    void debitWallet_insufficientFunds() {
+        Wallet wallet = new Wallet(Money.parse("100"), userId);
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.of(wallet));
+
+        assertThrows(InsufficientFundsException.class,
+                () -> walletService.debit(userId, Money.parse("150")));
+    }
+
+    @Test
+    void nonPositiveOrMissingAmounts_areRejected_beforeTouchingTheWallet() {
+        for (Money amount : new Money[]{Money.parse("-5.00"), Money.ZERO, null}) {
+            assertThrows(IllegalArgumentException.class, () -> walletService.credit(userId, amount));
+            assertThrows(IllegalArgumentException.class, () -> walletService.debit(userId, amount));
+        }
+        verifyNoInteractions(walletRepository, transactionRepository);
+    }
+
+    @Test
+    void getWalletByUser_notFound() {
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.empty());
+
+        assertThrows(WalletNotFoundException.class,
+                () -> walletService.getWalletByUser(userId));
+    }
+
+    @Test
+    void applyBatch_reportsEachItem_andContinuesPastRejections() {
+        Wallet wallet = new Wallet(Money.parse("100"), userId);
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.of(wallet));
+        when(walletRepository.save(wallet)).thenReturn(wallet);
+
+        List<BatchItemResult> results = new ArrayList<>();
+        walletService.applyBatch(userId, List.of(
+                new BatchItemRequest(TransactionType.CREDIT, Money.parse("50")),
+                new BatchItemRequest(TransactionType.DEBIT, Money.parse("500")),
+                new BatchItemRequest(TransactionType.DEBIT, Money.ZERO),
+                new BatchItemRequest(TransactionType.DEBIT, Money.parse("30"))
+        ).iterator(), results::addAll);
+
+        assertThat(results).extracting(BatchItemResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BatchItemResult::getError)
+                .containsExactly(null, "INSUFFICIENT_FUNDS", "INVALID_AMOUNT", null);
+        assertThat(results.get(3).getBalance()).isEqualTo(Money.parse("120"));
+        verify(transactionRepository, times(2)).save(Mockito.any());
+    }
+
+    @Test
+    void applyBatch_malformedItemMidChunk_stillAppliesAndReportsTheItemsReadBeforeIt() {
+        Wallet wallet = new Wallet(Money.parse("100"), userId);
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.of(wallet));
+        when(walletRepository.save(wallet)).thenReturn(wallet);
+        Iterator<BatchItemRequest> source = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public BatchItemRequest next() {
+                if (read++ == 3) {
+                    throw new IllegalArgumentException("Unrecognized token 'not'");
+                }
+                return new BatchItemRequest(TransactionType.CREDIT, Money.parse("1"));
+            }
+        };
+
+        List<BatchItemResult> results = new ArrayList<>();
+        walletService.applyBatch(userId, source, results::addAll);
+
+        assertThat(results).extracting(BatchItemResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BatchItemResult::getError)
+                .containsExactly(null, null, null, "MALFORMED_INPUT");
+        assertThat(results.get(3).getMessage()).isEqualTo("Unrecognized token 'not'");
+        assertThat(wallet.getBalance()).isEqualTo(Money.parse("103"));
+        verify(transactionRepository, times(3)).save(Mockito.any());
+    }
+
+    @Test
+    void applyOnce_replayIsServedFromCache_withoutTouchingTheWallet() {
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        WalletWriteStrategy strategy = mock(WalletWriteStrategy.class);
+        when(strategy.allowsDirectWrites()).thenReturn(true);
+        IdempotencyCache cache = new IdempotencyCache(100, Duration.ofMinutes(1));
+        UUID walletId = UUID.randomUUID();
+        cache.put(userId, "retry-1", new IdempotencyCache.Completed(
+                TransactionType.CREDIT, Money.parse("10.00"), walletId,
+                Money.parse("5.00"), Money.parse("15.00")));
+        WalletService service = new WalletService(walletRepository, strategy, BalanceCache.disabled(),
+                BalanceEventBus.disabled(), TransactionOperations.withoutTransaction(), DbPermitGate.unbounded(), null, null,
+                new IdempotentWalletWriter(jdbcTemplate, TransactionOperations.withoutTransaction(), cache,
+                        Duration.ofHours(24), Duration.ZERO),
+                new SimpleMeterRegistry());
+
+        WalletOperationResponse response =
+                service.applyOnce(userId, TransactionType.CREDIT, Money.parse("10"), "retry-1");
+
+        assertThat(response.walletId()).isEqualTo(walletId);
+        assertThat(response.oldBalance()).isEqualTo(Money.parse("5.00"));
+        assertThat(response.newBalance()).isEqualTo(Money.parse("15.00"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.applyOnce(userId, TransactionType.DEBIT, Money.parse("10"), "retry-1"));
+        verify(strategy, never()).credit(any(), any());
+        verifyNoInteractions(jdbcTemplate, walletRepository);
+    }
+
+    @Test
+    void applyOnce_writesThroughTheConfiguredStrategy_andIsTimed() {
+        WalletWriteStrategy strategy = mock(WalletWriteStrategy.class);
+        when(strategy.allowsDirectWrites()).thenReturn(true);
+        when(strategy.usesCallerConnection()).thenReturn(true);
+        IdempotentWalletWriter writer = mock(IdempotentWalletWriter.class);
+        Wallet wallet = new Wallet(UUID.randomUUID(), Money.parse("15.00"), userId);
+        when(writer.apply(userId, "retry-1", TransactionType.CREDIT, Money.parse("10.00"), strategy))
+                .thenReturn(new IdempotentWalletWriter.Outcome(new IdempotencyCache.Completed(
+                        TransactionType.CREDIT, Money.parse("10.00"), wallet.getId(),
+                        Money.parse("5.00"), Money.parse("15.00")), wallet));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WalletService service = new WalletService(walletRepository, strategy, BalanceCache.disabled(),
+                BalanceEventBus.disabled(), TransactionOperations.withoutTransaction(), DbPermitGate.unbounded(), null, null,
+                writer, registry);
+
+        WalletOperationResponse response =
+                service.applyOnce(userId, TransactionType.CREDIT, Money.parse("10.00"), "retry-1");
+
+        assertThat(response.newBalance()).isEqualTo(Money.parse("15.00"));
+        assertThat(registry.get("wallet.operation").tag("type", "credit").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+    }
+}
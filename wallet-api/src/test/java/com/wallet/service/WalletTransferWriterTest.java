@@ -0,0 +1,149 @@
+package com.wallet.service;
+
+import com.mvgore.walletapi.WalletApplication;
+import com.mvgore.walletapi.exception.InsufficientFundsException;
+import com.mvgore.walletapi.exception.WalletNotFoundException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.service.WalletTransferWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = WalletApplication.class)
+class WalletTransferWriterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private WalletTransferWriter writer;
+    private final List<UUID> walletIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        writer = new WalletTransferWriter(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry());
+        walletIds.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletIds.forEach(id -> jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", id));
+    }
+
+    @Test
+    void transfer_movesMoneyAndWritesBothLedgerRows() {
+        Account alice = createWallet(1000);
+        Account bob = createWallet(0);
+
+        WalletTransferWriter.Result result = writer.transfer(alice.userId(), bob.walletId(), Money.parse("2.50"));
+
+        assertThat(result.from().getBalance()).isEqualTo(Money.parse("7.50"));
+        assertThat(result.to().getBalance()).isEqualTo(Money.parse("2.50"));
+        assertThat(result.from().getVersion()).isEqualTo(1);
+        assertThat(result.to().getVersion()).isEqualTo(1);
+        assertThat(balance(alice)).isEqualTo(750);
+        assertThat(balance(bob)).isEqualTo(250);
+        assertThat(ledger(alice)).containsExactly("DEBIT:250");
+        assertThat(ledger(bob)).containsExactly("CREDIT:250");
+    }
+
+    @Test
+    void opposingConcurrentTransfers_completeWithoutDeadlock() throws Exception {
+        Account alice = createWallet(100_000);
+        Account bob = createWallet(100_000);
+        int perDirection = 100;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> transfers = new ArrayList<>();
+        try {
+            for (int i = 0; i < perDirection; i++) {
+                transfers.add(executor.submit(() -> writer.transfer(alice.userId(), bob.walletId(), Money.parse("1.00"))));
+                transfers.add(executor.submit(() -> writer.transfer(bob.userId(), alice.walletId(), Money.parse("1.00"))));
+            }
+            // A deadlock would surface as a Postgres error on one side rather than a hang
+            for (Future<?> transfer : transfers) {
+                transfer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(balance(alice)).isEqualTo(100_000);
+        assertThat(balance(bob)).isEqualTo(100_000);
+        assertThat(ledger(alice)).hasSize(2 * perDirection);
+        assertThat(ledger(bob)).hasSize(2 * perDirection);
+    }
+
+    @Test
+    void insufficientFunds_changesNothing() {
+        Account alice = createWallet(100);
+        Account bob = createWallet(0);
+
+        assertThrows(InsufficientFundsException.class,
+                () -> writer.transfer(alice.userId(), bob.walletId(), Money.parse("1.01")));
+
+        assertThat(balance(alice)).isEqualTo(100);
+        assertThat(balance(bob)).isZero();
+        assertThat(ledger(alice)).isEmpty();
+        assertThat(ledger(bob)).isEmpty();
+    }
+
+    @Test
+    void transferToOwnWallet_isRejected() {
+        Account alice = createWallet(100);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.transfer(alice.userId(), alice.walletId(), Money.parse("1.00")));
+
+        assertThat(balance(alice)).isEqualTo(100);
+        assertThat(ledger(alice)).isEmpty();
+    }
+
+    @Test
+    void unknownRecipient_isNotFound() {
+        Account alice = createWallet(100);
+
+        assertThrows(WalletNotFoundException.class,
+                () -> writer.transfer(alice.userId(), UUID.randomUUID(), Money.parse("1.00")));
+
+        assertThat(balance(alice)).isEqualTo(100);
+    }
+
+    private Account createWallet(long minorUnits) {
+        Account account = new Account(UUID.randomUUID(), UUID.randomUUID());
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, user_id, version) VALUES (?, ?, ?, 0)",
+                account.walletId(), minorUnits, account.userId());
+        walletIds.add(account.walletId());
+        return account;
+    }
+
+    private long balance(Account account) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", Long.class, account.walletId());
+    }
+
+    private List<String> ledger(Account account) {
+        return jdbcTemplate.queryForList("SELECT type || ':' || amount FROM transactions WHERE wallet_id = ?",
+                String.class, account.walletId());
+    }
+
+    private record Account(UUID walletId, UUID userId) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.wallet.stream;
+
+import com.mvgore.walletapi.dto.WalletBalanceResponse;
+import com.mvgore.walletapi.exception.TooManyRequestsException;
+import com.mvgore.walletapi.money.Money;
+import com.mvgore.walletapi.stream.BalanceEventBus;
+import com.mvgore.walletapi.stream.BalanceSink;
+import com.mvgore.walletapi.stream.BalanceSubscription;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BalanceEventBusTest {
+
+    private final BalanceEventBus bus = new BalanceEventBus(100, 2, Duration.ofMinutes(1),
+            Duration.ofSeconds(10), Duration.ofMinutes(30), new SimpleMeterRegistry());
+    private final UUID userId = UUID.randomUUID();
+    private final UUID walletId = UUID.randomUUID();
+
+    @AfterEach
+    void shutdown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void updatesPublishedDuringASlowSend_areCoalescedToTheLatest() throws Exception {
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstSend = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(2) {
+            @Override
+            public void send(WalletBalanceResponse balance) throws IOException {
+                super.send(balance);
+                if (received.size() == 1) {
+                    firstSendStarted.countDown();
+                    await(releaseFirstSend);
+                }
+            }
+        };
+        bus.subscribe(userId, sink);
+
+        bus.publish(userId, walletId, Money.parse("1"), 1);
+        assertThat(firstSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        bus.publish(userId, walletId, Money.parse("2"), 2);
+        bus.publish(userId, walletId, Money.parse("3"), 3);
+        releaseFirstSend.countDown();
+
+        assertThat(sink.delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(sink.received).extracting(WalletBalanceResponse::balance)
+                .containsExactly(Money.parse("1"), Money.parse("3"));
+    }
+
+    @Test
+    void initialBalance_isSkippedWhenAChangeWasPublishedFirst() throws Exception {
+        RecordingSink sink = new RecordingSink(1);
+        BalanceSubscription subscription = bus.subscribe(userId, sink);
+
+        bus.publish(userId, walletId, Money.parse("7"), 2);
+        subscription.offerInitial(new WalletBalanceResponse(walletId, Money.parse("5")), 1);
+
+        assertThat(sink.delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        assertThat(sink.received).extracting(WalletBalanceResponse::balance)
+                .containsExactly(Money.parse("7"));
+    }
+
+    @Test
+    void eventsOlderThanPendingOrSent_areDropped() throws Exception {
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstSend = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(2) {
+            @Override
+            public void send(WalletBalanceResponse balance) throws IOException {
+                super.send(balance);
+                if (received.size() == 1) {
+                    firstSendStarted.countDown();
+                    await(releaseFirstSend);
+                }
+            }
+        };
+        bus.subscribe(userId, sink);
+
+        bus.publish(userId, walletId, Money.parse("5"), 5);
+        assertThat(firstSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        // A notification echo of an earlier commit lands while version 5 is being sent
+        bus.publish(userId, walletId, Money.parse("7"), 7);
+        bus.publish(userId, walletId, Money.parse("6"), 6);
+        bus.publish(userId, walletId, Money.parse("4"), 4);
+        releaseFirstSend.countDown();
+
+        assertThat(sink.delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        bus.publish(userId, walletId, Money.parse("3"), 3);
+        Thread.sleep(50);
+        assertThat(sink.received).extracting(WalletBalanceResponse::balance)
+                .containsExactly(Money.parse("5"), Money.parse("7"));
+    }
+
+    @Test
+    void subscribersPerUser_areLimited_andFreedOnClose() {
+        BalanceSubscription first = bus.subscribe(userId, new RecordingSink(1));
+        bus.subscribe(userId, new RecordingSink(1));
+
+        assertThrows(TooManyRequestsException.class, () -> bus.subscribe(userId, new RecordingSink(1)));
+
+        first.close();
+        bus.subscribe(userId, new RecordingSink(1));
+    }
+
+    @Test
+    void failedSend_evictsTheSubscriber() throws Exception {
+        CountDownLatch closed = new CountDownLatch(1);
+        bus.subscribe(userId, new BalanceSink() {
+            @Override
+            public void send(WalletBalanceResponse balance) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void heartbeat() {
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        });
+        bus.subscribe(userId, new RecordingSink(1));
+
+        bus.publish(userId, walletId, Money.parse("1"), 1);
+
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+        bus.subscribe(userId, new RecordingSink(1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingSink implements BalanceSink {
+
+        final List<WalletBalanceResponse> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch delivered;
+
+        RecordingSink(int expected) {
+            this.delivered = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(WalletBalanceResponse balance) throws IOException {
+            received.add(balance);
+            delivered.countDown();
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}